@@ -3,7 +3,7 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Add Artist Activity, which contains a
  *              a form for the user of the app to add an artist to the database.
@@ -41,7 +41,7 @@ public class AddArtistActivity extends AppCompatActivity {
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,8 +51,8 @@ public class AddArtistActivity extends AppCompatActivity {
         // sets pointers to views
         setViewPointers();
 
-        // initializes database object
-        database = new DBHelper(this);
+        // gets the shared database object, which opens on its first query
+        database = Startup.getDatabase(this);
 
         // set options for dropdown field
         setGenres();
@@ -3,7 +3,7 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Add Show Activity, which contains a
  *              a form for the user of the app to add a show to the database.
@@ -17,6 +17,7 @@ import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
 import android.widget.Spinner;
+import android.widget.Toast;
 
 import java.util.List;
 
@@ -40,7 +41,7 @@ public class AddShowActivity extends AppCompatActivity {
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -50,8 +51,8 @@ public class AddShowActivity extends AppCompatActivity {
         // sets pointers to views
         setViewPointers();
 
-        // initializes database object
-        database = new DBHelper(this);
+        // gets the shared database object, which opens on its first query
+        database = Startup.getDatabase(this);
 
         // set options for dropdown field
         setVenues();
@@ -122,12 +123,13 @@ public class AddShowActivity extends AppCompatActivity {
     }
 
     /*************************************************************************************************
-     * Description: This function adds a show to the database.
+     * Description: This function adds a show to the database. The start time is required and
+     *              the end time is optional, both typed as ShowTimes.INPUT_PATTERN.
      *
      * Inputs: pressed to run the function
      *    @param view - the button that is clicked to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void addShow(View view) {
         /* gets data from form fields **/
@@ -137,11 +139,18 @@ public class AddShowActivity extends AppCompatActivity {
         String thePictureURL = pictureURL.getText().toString();
         String artistsString = artistsPerforming.getText().toString();
         String[] theArtists = artistsString.split(",");
-        String theStartDateTime = startDateTime.toString();
-        String theEndDateTime = endDateTime.toString();
+        Long theStartMillis = ShowTimes.parse(startDateTime.getText().toString());
+        String endText = endDateTime.getText().toString();
+        Long theEndMillis = endText.trim().isEmpty() ? null : ShowTimes.parse(endText);
+
+        // if the times couldn't be read, keeps the form open so they can be fixed
+        if (theStartMillis == null || (theEndMillis == null && !endText.trim().isEmpty())) {
+            Toast.makeText(this, "Enter times like 12/14/2016 8:00 PM", Toast.LENGTH_LONG).show();
+            return;
+        }
 
         // adds venue to the database
-        database.addShow(theName, theVenue, theWebsite, thePictureURL, theArtists, theStartDateTime, theEndDateTime);
+        database.addShow(theName, theVenue, theWebsite, thePictureURL, theArtists, theStartMillis, theEndMillis);
 
         // goes back to the main menu
         finish();
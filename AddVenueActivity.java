@@ -3,7 +3,7 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Add Venue Activity, which contains a
  *              a form for the user of the app to add a show to the database.
@@ -11,19 +11,28 @@
 
 package com.joemenduni.musicmaps;
 
+import android.content.Context;
+import android.os.AsyncTask;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Message;
 import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
 import android.view.View;
-import android.widget.ArrayAdapter;
 import android.widget.EditText;
-import android.widget.Spinner;
+import android.widget.Toast;
 
-import java.util.List;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class AddVenueActivity extends AppCompatActivity {
 
+    private static final String TAG = "AddVenueActivity";
+
+    /** longest time to wait for the geocoder before saving the venue without coordinates **/
+    private static final long GEOCODE_TIMEOUT_SECONDS = 15;
+
     /** form fields **/
     private EditText venueName;
     private EditText website;
@@ -36,9 +45,8 @@ public class AddVenueActivity extends AppCompatActivity {
     /** database object **/
     DBHelper database;
 
-    /** default values for latitude and longitude **/
-    double latitude = -1;
-    double longitude = -1;
+    /** venue being saved, or null if there isn't one **/
+    private AddVenueTask addVenueTask = null;
 
     /*************************************************************************************************
      * Description: This function creates and inflates the Add Venue activity and layout.
@@ -46,7 +54,7 @@ public class AddVenueActivity extends AppCompatActivity {
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,8 +64,24 @@ public class AddVenueActivity extends AppCompatActivity {
         // sets pointers to views
         setViewPointers();
 
-        // initializes database object
-        database = new DBHelper(this);
+        // gets the shared database object, which opens on its first query
+        database = Startup.getDatabase(this);
+    }
+
+    /*************************************************************************************************
+     * Description: This function runs when the activity is destroyed and stops waiting for the
+     *              venue being saved. The venue is still saved, without coordinates if the
+     *              geocoder hadn't answered yet.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onDestroy() {
+        if (addVenueTask != null) {
+            addVenueTask.cancel(true);
+            addVenueTask = null;
+        }
+        super.onDestroy();
     }
 
     /*************************************************************************************************
@@ -94,34 +118,146 @@ public class AddVenueActivity extends AppCompatActivity {
     }
 
     /*************************************************************************************************
-     * Description: This is the class that calls the Geocoder, which converts an street address
-     *              to a latitude and longitude.
+     * Description: This class saves a venue in the background. It waits for the address to be
+     *              geocoded and then inserts the venue with its coordinates in one transaction, so
+     *              the venue is never stored with coordinates from an earlier lookup. It only
+     *              holds a weak reference to the activity, so a destroyed activity can be freed
+     *              while the task is still running.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private class GeocoderHandler extends Handler {
-        public void handleMessage(Message message) {
-            String locationAddress;
-            switch (message.what) {
-                case 1:
-                    Bundle bundle = message.getData();
-                    latitude = bundle.getDouble("latitude");
-                    longitude = bundle.getDouble("longitude");
-                    break;
-                default:
+    private static class AddVenueTask extends AsyncTask<Void, Void, Boolean> {
+
+        /** activity that started the task, if it is still around **/
+        private final WeakReference<AddVenueActivity> activityRef;
+
+        /** database to save the venue in **/
+        private final DBHelper database;
+
+        /** application context, for locating the venue later **/
+        private final Context appContext;
+
+        private final String theName;
+        private final String theWebsite;
+        private final String thePictureURL;
+        private final String theStreetAddress;
+        private final String theTown;
+        private final String theState;
+        private final String theZipCode;
+
+        /** pending geocoder lookup **/
+        private final Future<double[]> location;
+
+        /*************************************************************************************************
+         * Description: This function creates the task and starts geocoding the address right away,
+         *              so the lookup runs while the task waits to start.
+         *
+         * Inputs:
+         *    @param activity - activity saving the venue
+         *    @param theName - venue's name
+         *    @param theWebsite - venue's website
+         *    @param thePictureURL - URL of the venue's picture
+         *    @param theStreetAddress - venue's street address
+         *    @param theTown - venue's town
+         *    @param theState - venue's state
+         *    @param theZipCode - venue's zip code
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        AddVenueTask(AddVenueActivity activity, String theName, String theWebsite, String thePictureURL,
+                     String theStreetAddress, String theTown, String theState, String theZipCode) {
+            this.appContext = activity.getApplicationContext();
+            this.activityRef = new WeakReference<AddVenueActivity>(activity);
+            this.database = activity.database;
+            this.theName = theName;
+            this.theWebsite = theWebsite;
+            this.thePictureURL = thePictureURL;
+            this.theStreetAddress = theStreetAddress;
+            this.theTown = theTown;
+            this.theState = theState;
+            this.theZipCode = theZipCode;
+            // creates string of the total address
+            String fullAddress = theStreetAddress + ", " + theTown + ", " + theState + " " + theZipCode;
+            // sends the request to get the latitude and longitude
+            this.location = GeocodingLocation.geocode(fullAddress, appContext);
+        }
+
+        /*************************************************************************************************
+         * Description: This function waits for the geocoder and saves the venue, without
+         *              coordinates if the address wasn't found in time.
+         *
+         * Inputs:
+         *    @param params - unused
+         *
+         * Outputs:
+         *      Boolean - true if the venue was saved with coordinates
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected Boolean doInBackground(Void... params) {
+            double[] latLng = null;
+            try {
+                // waits for the geocoder
+                latLng = location.get(GEOCODE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // the activity was closed, so saves the venue without waiting any longer
+                location.cancel(true);
+            } catch (ExecutionException | TimeoutException e) {
+                Log.w(TAG, "Unable to geocode " + theName, e);
+                location.cancel(true);
+            }
+            // a ZIP code or town centroid doesn't count, so the street address is looked up again later
+            boolean found = latLng != null && !OfflineGeocoderBackend.isApproximate(latLng);
+            // adds venue to the database, with -1 coordinates if the address wasn't found
+            database.addVenue(theName, theWebsite, thePictureURL, theStreetAddress, theTown, theState, theZipCode,
+                    found ? latLng[0] : -1, found ? latLng[1] : -1);
+            // keeps trying to locate it, and any other venue without coordinates, in the background
+            if (!found) {
+                BatchGeocoder.locateMissingVenues(appContext);
+            }
+            return found;
+        }
+
+        /*************************************************************************************************
+         * Description: This function lets the user know if the address wasn't found, and goes back
+         *              to the main menu, unless the activity is gone.
+         *
+         * Inputs:
+         *    @param found - true if the venue was saved with coordinates
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void onPostExecute(Boolean found) {
+            AddVenueActivity activity = activityRef.get();
+            // if the activity is gone or going, there is nothing to update
+            if (isCancelled() || activity == null || activity.isFinishing()) {
+                return;
+            }
+            activity.addVenueTask = null;
+            // if the address couldn't be found, lets the user know the venue isn't on the map yet
+            if (!found) {
+                Toast.makeText(activity, "Venue saved, but its address couldn't be found yet", Toast.LENGTH_LONG).show();
             }
+            // goes back to the main menu
+            activity.finish();
         }
     }
 
     /*************************************************************************************************
-     * Description: This function adds a venue to the database.
+     * Description: This function adds a venue to the database once its address has been geocoded.
      *
      * Inputs: pressed to run the function
      *    @param view - the button that is clicked to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void addVenue(View view) {
+        // ignores extra presses while the venue is being saved
+        if (addVenueTask != null) {
+            return;
+        }
         // gets data from form fields
         String theName = venueName.getText().toString();
         String theWebsite = website.getText().toString();
@@ -131,21 +267,10 @@ public class AddVenueActivity extends AppCompatActivity {
         String theState = state.getText().toString();
         String theZipCode = zipCode.getText().toString();
 
-        // creates string of the total address
-        String fullAddress = theStreetAddress + ", " + theTown + ", " + theState + " " + theZipCode;
-
-        // gets the location object
-        GeocodingLocation locationAddress = new GeocodingLocation();
-
-        // sends the request to get the latitude and longitude
-        locationAddress.getAddressFromLocation(fullAddress,
-                getApplicationContext(), new GeocoderHandler());
-
-        // adds venue to the database
-        database.addVenue(theName, theWebsite, thePictureURL, theStreetAddress, theTown, theState, theZipCode, latitude, longitude);
-
-        // goes back to the main menu
-        finish();
+        // geocodes and then saves the venue in the background, on the thread pool since waiting for
+        // the geocoder would hold up every other task on the default serial executor
+        addVenueTask = new AddVenueTask(this, theName, theWebsite, thePictureURL, theStreetAddress, theTown, theState, theZipCode);
+        addVenueTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
     /*************************************************************************************************
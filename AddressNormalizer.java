@@ -0,0 +1,211 @@
+/*************************************************************************************************
+ * File:   AddressNormalizer.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class puts addresses into one standard form, so that the same place typed in
+ *          different ways ("123 Main Street, Ithaca, New York" and "123 main st, ithaca, ny")
+ *          gives the same string for caching and for the offline gazetteer. State names are
+ *          only abbreviated after the last comma, where the state is written, so street and
+ *          town names like "Washington Ave" are left alone.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class AddressNormalizer {
+
+    /** single words replaced by their standard abbreviation **/
+    private static final Map<String, String> WORDS = new HashMap<String, String>();
+
+    /** state names, which can be more than one word, replaced by their postal code. Longest
+        names come first, so "west virginia" is matched before "virginia" **/
+    private static final Map<String, String> STATES = new LinkedHashMap<String, String>();
+
+    /** 5 digit zip code at the end of an address, allowing a ZIP+4 ending **/
+    private static final Pattern ZIP_PATTERN = Pattern.compile("([0-9]{5})(-[0-9]{4})?$");
+
+    /** zip code at the end of an address after punctuation is removed **/
+    private static final Pattern CLEANED_ZIP_PATTERN = Pattern.compile(" ?[0-9]{5}( [0-9]{4})?$");
+
+    static {
+        String[] words = {"street,st", "avenue,ave", "road,rd", "boulevard,blvd", "drive,dr", "lane,ln", "court,ct",
+                "place,pl", "square,sq", "terrace,ter", "parkway,pkwy", "highway,hwy", "circle,cir", "route,rte",
+                "north,n", "south,s", "east,e", "west,w", "northeast,ne", "northwest,nw", "southeast,se", "southwest,sw",
+                "saint,st", "mount,mt", "fort,ft", "suite,ste", "apartment,apt", "building,bldg"};
+        for (String word: words) {
+            String[] lineSplit = word.split(",");
+            WORDS.put(lineSplit[0], lineSplit[1]);
+        }
+        String[] states = {"alabama,al", "alaska,ak", "arizona,az", "arkansas,ar", "california,ca", "colorado,co",
+                "connecticut,ct", "delaware,de", "district of columbia,dc", "florida,fl", "georgia,ga", "hawaii,hi",
+                "idaho,id", "illinois,il", "indiana,in", "iowa,ia", "kansas,ks", "kentucky,ky", "louisiana,la",
+                "maine,me", "maryland,md", "massachusetts,ma", "michigan,mi", "minnesota,mn", "mississippi,ms",
+                "missouri,mo", "montana,mt", "nebraska,ne", "nevada,nv", "new hampshire,nh", "new jersey,nj",
+                "new mexico,nm", "new york,ny", "north carolina,nc", "north dakota,nd", "ohio,oh", "oklahoma,ok",
+                "oregon,or", "pennsylvania,pa", "rhode island,ri", "south carolina,sc", "south dakota,sd",
+                "tennessee,tn", "texas,tx", "utah,ut", "vermont,vt", "virginia,va", "washington,wa",
+                "west virginia,wv", "wisconsin,wi", "wyoming,wy"};
+        // sorts the longest names first, keeping the rest in alphabetical order
+        Arrays.sort(states, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return b.indexOf(',') - a.indexOf(',');
+            }
+        });
+        for (String state: states) {
+            String[] lineSplit = state.split(",");
+            STATES.put(lineSplit[0], lineSplit[1]);
+        }
+    }
+
+    private AddressNormalizer() {
+    }
+
+    /*************************************************************************************************
+     * Description: This function normalizes a whole address. A state name is only abbreviated
+     *              if it is the part after the last comma, before any zip code.
+     *
+     * Inputs:
+     *    @param address - the address as typed
+     *
+     * Outputs:
+     *      String - lower case words separated by single spaces, with punctuation removed and
+     *               street words and the state name abbreviated
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String normalize(String address) {
+        int lastComma = address.lastIndexOf(',');
+        // if there is no comma, there is no state part
+        if (lastComma < 0) {
+            return abbreviateWords(clean(address));
+        }
+        return abbreviateWords(clean(address.substring(0, lastComma)) + " " + abbreviateState(clean(address.substring(lastComma + 1))));
+    }
+
+    /*************************************************************************************************
+     * Description: This function lower cases an address part, removes its punctuation and
+     *              leaves single spaces between the words.
+     *
+     * Inputs:
+     *    @param part - part of an address as typed
+     *
+     * Outputs:
+     *      String - the cleaned part
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String clean(String part) {
+        return part.toLowerCase(Locale.US).replaceAll("[^a-z0-9 ]", " ").replaceAll(" +", " ").trim();
+    }
+
+    /*************************************************************************************************
+     * Description: This function abbreviates the state name at the start of a cleaned state part,
+     *              trying the longest names first.
+     *
+     * Inputs:
+     *    @param part - cleaned part after the last comma, the state and maybe a zip code
+     *
+     * Outputs:
+     *      String - the part with its state name replaced by the postal code
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String abbreviateState(String part) {
+        // the state is everything before the zip code
+        Matcher zip = CLEANED_ZIP_PATTERN.matcher(part);
+        int stateEnd = zip.find() ? zip.start() : part.length();
+        String state = part.substring(0, stateEnd);
+        for (Map.Entry<String, String> name: STATES.entrySet()) {
+            if (state.equals(name.getKey()) || state.startsWith(name.getKey() + " ")) {
+                return name.getValue() + part.substring(name.getKey().length());
+            }
+        }
+        return part;
+    }
+
+    /*************************************************************************************************
+     * Description: This function abbreviates every word that has a standard abbreviation.
+     *
+     * Inputs:
+     *    @param cleaned - cleaned words separated by spaces
+     *
+     * Outputs:
+     *      String - the words, abbreviated and separated by single spaces
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String abbreviateWords(String cleaned) {
+        String[] words = cleaned.split(" ");
+        StringBuilder normalized = new StringBuilder(cleaned.length());
+        for (String word: words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String abbreviation = WORDS.get(word);
+            if (normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            normalized.append(abbreviation != null ? abbreviation : word);
+        }
+        return normalized.toString();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the normalized "town state" part of an address written as
+     *              "street, town, state zip" or "town, state zip".
+     *
+     * Inputs:
+     *    @param address - the address as typed
+     *
+     * Outputs:
+     *      String - normalized town and state, or null if the address doesn't have both
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String townAndState(String address) {
+        String[] parts = address.split(",");
+        // needs at least a town part and a state part
+        if (parts.length < 2) {
+            return null;
+        }
+        String town = normalize(parts[parts.length - 2]);
+        // the state part may end with a zip code
+        String state = abbreviateWords(abbreviateState(clean(parts[parts.length - 1])));
+        state = CLEANED_ZIP_PATTERN.matcher(state).replaceAll("").trim();
+        if (town.isEmpty() || state.isEmpty()) {
+            return null;
+        }
+        return town + " " + state;
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds the zip code at the end of an address.
+     *
+     * Inputs:
+     *    @param address - the address as typed
+     *
+     * Outputs:
+     *      int - the 5 digit zip code, or -1 if the address doesn't end with one
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static int zipCode(String address) {
+        Matcher matcher = ZIP_PATTERN.matcher(address.trim());
+        if (matcher.find()) {
+            return Integer.parseInt(matcher.group(1));
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,80 @@
+/*************************************************************************************************
+ * File:   ArtistProfile.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds an artist's details and show history stats, read by DBHelper from
+ *          the artist rollup tables. The venues and cities are in parallel arrays, most played
+ *          first.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+public class ArtistProfile {
+
+    /** details from the artist table, any of which may be null **/
+    public final String name;
+    public final String genre;
+    public final String town;
+    public final String state;
+
+    /** number of shows the artist has played or will play **/
+    public final int showCount;
+
+    /** start times of the artist's first and last shows, or EventResults.NO_TIME **/
+    public final long firstStartMillis;
+    public final long lastStartMillis;
+
+    /** name and start time of the artist's next show, or null and EventResults.NO_TIME **/
+    public final String nextShowName;
+    public final long nextShowStartMillis;
+
+    /** venues played and the number of shows at each **/
+    public final String[] venueNames;
+    public final int[] venueShowCounts;
+
+    /** cities played, as "town, state", and the number of shows in each **/
+    public final String[] cities;
+    public final int[] cityShowCounts;
+
+    /*************************************************************************************************
+     * Description: This function creates an artist's profile from the values read from the
+     *              database.
+     *
+     * Inputs:
+     *    @param name - artist's name
+     *    @param genre - artist's genre
+     *    @param town - artist's home town
+     *    @param state - artist's home state
+     *    @param showCount - number of shows
+     *    @param firstStartMillis - start time of the first show, or EventResults.NO_TIME
+     *    @param lastStartMillis - start time of the last show, or EventResults.NO_TIME
+     *    @param nextShowName - name of the next show, or null
+     *    @param nextShowStartMillis - start time of the next show, or EventResults.NO_TIME
+     *    @param venueNames - venues played
+     *    @param venueShowCounts - shows at each venue
+     *    @param cities - cities played, as "town, state"
+     *    @param cityShowCounts - shows in each city
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public ArtistProfile(String name, String genre, String town, String state, int showCount,
+                         long firstStartMillis, long lastStartMillis, String nextShowName, long nextShowStartMillis,
+                         String[] venueNames, int[] venueShowCounts, String[] cities, int[] cityShowCounts) {
+        this.name = name;
+        this.genre = genre;
+        this.town = town;
+        this.state = state;
+        this.showCount = showCount;
+        this.firstStartMillis = firstStartMillis;
+        this.lastStartMillis = lastStartMillis;
+        this.nextShowName = nextShowName;
+        this.nextShowStartMillis = nextShowStartMillis;
+        this.venueNames = venueNames;
+        this.venueShowCounts = venueShowCounts;
+        this.cities = cities;
+        this.cityShowCounts = cityShowCounts;
+    }
+}
@@ -0,0 +1,239 @@
+/*************************************************************************************************
+ * File:   ArtistProfileActivity.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This activity shows an artist's profile: their details, number of shows, next show,
+ *          and the venues and cities they have played. Started without an artist, it lists all
+ *          artists to pick from. The stats come from the artist rollup tables, so the profile
+ *          opens without reading the artist's shows.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Intent;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+public class ArtistProfileActivity extends AppCompatActivity {
+
+    /** intent key for the id of the artist to show **/
+    public static final String EXTRA_ARTIST_ID = "artistId";
+
+    /** artist id used when none was given **/
+    private static final int NO_ARTIST = -1;
+
+    /*************************************************************************************************
+     * Description: This function creates the activity, showing the given artist's profile or the
+     *              list of artists, and loads it in the background.
+     *
+     * Inputs:
+     *    @param savedInstanceState - previously saved state of application and data
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        int artistID = getIntent().getIntExtra(EXTRA_ARTIST_ID, NO_ARTIST);
+        // if no artist was picked yet
+        if (artistID == NO_ARTIST) {
+            new LoadArtistsTask().execute();
+        } else {
+            new LoadProfileTask().execute(artistID);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function shows all artists by name, opening a profile when one is tapped.
+     *
+     * Inputs:
+     *    @param artists - map of all artist ids and names
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void showArtists(Map<Integer, String> artists) {
+        final List<Map.Entry<Integer, String>> entries = new ArrayList<Map.Entry<Integer, String>>(artists.entrySet());
+        // sorts the artists by name, with unnamed ones last
+        Collections.sort(entries, new Comparator<Map.Entry<Integer, String>>() {
+            @Override
+            public int compare(Map.Entry<Integer, String> a, Map.Entry<Integer, String> b) {
+                String nameA = a.getValue() == null ? "" : a.getValue();
+                String nameB = b.getValue() == null ? "" : b.getValue();
+                if (nameA.isEmpty() != nameB.isEmpty()) {
+                    return nameA.isEmpty() ? 1 : -1;
+                }
+                return nameA.compareToIgnoreCase(nameB);
+            }
+        });
+        List<String> names = new ArrayList<String>(entries.size());
+        for (Map.Entry<Integer, String> entry : entries) {
+            names.add(entry.getValue());
+        }
+        ListView artistsView = new ListView(this);
+        artistsView.setAdapter(new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1, names));
+        artistsView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                Intent profileIntent = new Intent(getApplicationContext(), ArtistProfileActivity.class);
+                profileIntent.putExtra(EXTRA_ARTIST_ID, entries.get(position).getKey());
+                startActivity(profileIntent);
+            }
+        });
+        setContentView(artistsView);
+    }
+
+    /*************************************************************************************************
+     * Description: This function shows an artist's profile.
+     *
+     * Inputs:
+     *    @param profile - the artist's profile, or null if the artist wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void showProfile(ArtistProfile profile) {
+        StringBuilder text = new StringBuilder();
+        // if the artist has been removed
+        if (profile == null) {
+            text.append("Artist not found");
+        } else {
+            text.append(profile.name);
+            if (profile.genre != null) {
+                text.append("\n").append(profile.genre);
+            }
+            if (profile.town != null && !profile.town.isEmpty()) {
+                text.append("\nFrom ").append(profile.town);
+                if (profile.state != null && !profile.state.isEmpty()) {
+                    text.append(", ").append(profile.state);
+                }
+            }
+            text.append("\n\n").append(profile.showCount).append(profile.showCount == 1 ? " show" : " shows");
+            if (profile.firstStartMillis != EventResults.NO_TIME) {
+                text.append("\nFirst: ").append(ShowTimes.formatDateAndTime(profile.firstStartMillis));
+                text.append("\nLatest: ").append(ShowTimes.formatDateAndTime(profile.lastStartMillis));
+            }
+            if (profile.nextShowName != null) {
+                text.append("\nNext: ").append(profile.nextShowName).append(", ")
+                        .append(ShowTimes.formatDateAndTime(profile.nextShowStartMillis));
+            }
+            appendCounts(text, "Venues played", profile.venueNames, profile.venueShowCounts);
+            appendCounts(text, "Cities played", profile.cities, profile.cityShowCounts);
+        }
+        TextView profileView = new TextView(this);
+        profileView.setText(text);
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.addView(profileView);
+        setContentView(scrollView);
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a heading and a line per name with its show count, if there
+     *              are any names.
+     *
+     * Inputs:
+     *    @param text - the profile text
+     *    @param heading - heading of the list
+     *    @param names - names to list
+     *    @param counts - show count of each name
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void appendCounts(StringBuilder text, String heading, String[] names, int[] counts) {
+        if (names.length == 0) {
+            return;
+        }
+        text.append("\n\n").append(heading);
+        for (int i = 0; i < names.length; i++) {
+            text.append("\n").append(names[i]).append(" (").append(counts[i]).append(")");
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This class loads the names of all artists in the background.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private class LoadArtistsTask extends AsyncTask<Void, Void, Map<Integer, String>> {
+
+        /*************************************************************************************************
+         * Description: This function gets every artist's name.
+         *
+         * Inputs:
+         *    @param params - unused
+         *
+         * Outputs:
+         *      Map<Integer, String> - artist names by id
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected Map<Integer, String> doInBackground(Void... params) {
+            return Startup.getDatabase(ArtistProfileActivity.this).getAllArtists();
+        }
+
+        /*************************************************************************************************
+         * Description: This function lists the artists to pick from.
+         *
+         * Inputs:
+         *    @param artists - artist names by id
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void onPostExecute(Map<Integer, String> artists) {
+            showArtists(artists);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This class loads an artist's profile in the background.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private class LoadProfileTask extends AsyncTask<Integer, Void, ArtistProfile> {
+
+        /*************************************************************************************************
+         * Description: This function gets the artist's profile.
+         *
+         * Inputs:
+         *    @param artistIDs - the artist's id
+         *
+         * Outputs:
+         *      ArtistProfile - the artist's profile
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected ArtistProfile doInBackground(Integer... artistIDs) {
+            return Startup.getDatabase(ArtistProfileActivity.this).getArtistProfile(artistIDs[0]);
+        }
+
+        /*************************************************************************************************
+         * Description: This function shows the artist's profile.
+         *
+         * Inputs:
+         *    @param profile - the artist's profile
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void onPostExecute(ArtistProfile profile) {
+            showProfile(profile);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*************************************************************************************************
+ * File:   ArtistShowIndex.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds the artist to show join table in memory in both directions, as
+ *          compressed posting lists, so that "shows by artist" and "artists at show" and
+ *          their intersections don't need a database query each.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import java.util.Arrays;
+
+public class ArtistShowIndex {
+
+    /** show ids for each artist id, and artist ids for each show id **/
+    private PostingList[] showsByArtist = new PostingList[16];
+    private PostingList[] artistsByShow = new PostingList[16];
+
+    /** number of artist to show pairs in the index **/
+    private int edgeCount = 0;
+
+    /*************************************************************************************************
+     * Description: This function builds the index from the artist to show join table.
+     *
+     * Inputs:
+     *      @param database - database to read the join table from
+     *      @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      ArtistShowIndex - index of every artist to show pair
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static ArtistShowIndex build(DBHelper database, CancellationSignal signal) {
+        ArtistShowIndex index = new ArtistShowIndex();
+        // cursor of artist ids and show ids, sorted so that both directions are appended in order
+        Cursor cursor = database.getArtistShowPairsCursor(signal);
+        try {
+            // if there is a result
+            if (cursor.moveToFirst()) {
+                do {
+                    index.addEdge(cursor.getInt(0), cursor.getInt(1));
+                } while (cursor.moveToNext());
+            }
+        } finally {
+            // closes cursor, also if the build was cancelled
+            cursor.close();
+        }
+        return index;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds an artist to show pair to both directions of the index.
+     *
+     * Inputs:
+     *      @param artistId - id of the artist
+     *      @param showId - id of the show
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized void addEdge(int artistId, int showId) {
+        showsByArtist = ensureCapacity(showsByArtist, artistId);
+        artistsByShow = ensureCapacity(artistsByShow, showId);
+        // adds the show to the artist's list, and the artist to the show's list
+        if (list(showsByArtist, artistId).add(showId)) {
+            list(artistsByShow, showId).add(artistId);
+            edgeCount++;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the show ids of an artist.
+     *
+     * Inputs:
+     *      @param artistId - id of the artist
+     *
+     * Outputs:
+     *      int[] - sorted show ids
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int[] showsForArtist(int artistId) {
+        PostingList shows = get(showsByArtist, artistId);
+        return shows == null ? new int[0] : shows.toArray();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the artist ids of a show.
+     *
+     * Inputs:
+     *      @param showId - id of the show
+     *
+     * Outputs:
+     *      int[] - sorted artist ids
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int[] artistsForShow(int showId) {
+        PostingList artists = get(artistsByShow, showId);
+        return artists == null ? new int[0] : artists.toArray();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shows that two artists both played.
+     *
+     * Inputs:
+     *      @param firstArtistId - id of the first artist
+     *      @param secondArtistId - id of the second artist
+     *
+     * Outputs:
+     *      int[] - sorted show ids
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int[] sharedShows(int firstArtistId, int secondArtistId) {
+        PostingList first = get(showsByArtist, firstArtistId);
+        PostingList second = get(showsByArtist, secondArtistId);
+        // if either artist has no shows
+        if (first == null || second == null) {
+            return new int[0];
+        }
+        return PostingList.intersect(first, second);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of artist to show pairs in the index.
+     *
+     * Outputs:
+     *      int - number of pairs
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int size() {
+        return edgeCount;
+    }
+
+    /*************************************************************************************************
+     * Description: This function grows an array of lists so that an id fits in it.
+     *
+     * Inputs:
+     *      @param lists - array of lists indexed by id
+     *      @param id - the id that needs to fit
+     *
+     * Outputs:
+     *      PostingList[] - the same array, or a bigger copy of it
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static PostingList[] ensureCapacity(PostingList[] lists, int id) {
+        if (id < lists.length) {
+            return lists;
+        }
+        return Arrays.copyOf(lists, Math.max(id + 1, lists.length * 2));
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the list for an id, creating it if needed.
+     *
+     * Inputs:
+     *      @param lists - array of lists indexed by id
+     *      @param id - the id of the list
+     *
+     * Outputs:
+     *      PostingList - the list for the id
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static PostingList list(PostingList[] lists, int id) {
+        if (lists[id] == null) {
+            lists[id] = new PostingList();
+        }
+        return lists[id];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the list for an id without creating it.
+     *
+     * Inputs:
+     *      @param lists - array of lists indexed by id
+     *      @param id - the id of the list
+     *
+     * Outputs:
+     *      PostingList - the list for the id, or null if there isn't one
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static PostingList get(PostingList[] lists, int id) {
+        return id >= 0 && id < lists.length ? lists[id] : null;
+    }
+}
@@ -0,0 +1,445 @@
+/*************************************************************************************************
+ * File:   BatchGeocoder.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class finds the latitude and longitude of every venue that doesn't have one yet,
+ *          for example after a bulk import. Venues are geocoded a batch at a time with a few
+ *          lookups running at once, a limit on lookups per second and retries with backoff.
+ *          Each batch is written back in one transaction, and the id of the last venue written
+ *          is saved to a checkpoint file so an interrupted run picks up where it left off.
+ *
+ *          Venues whose lookups fail because the backend can't be reached aren't counted as
+ *          done. They are tried again after the rest, with a longer wait each round, and the
+ *          checkpoint stays before the first of them so the next run tries them again too.
+ *          Venues the backend answers for but can't find are done. The app runs it with
+ *          locateMissingVenues whenever a venue is saved without coordinates.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+public class BatchGeocoder {
+
+    private static final String TAG = "BatchGeocoder";
+
+    /** checkpoint file of the app's runs, in app storage **/
+    private static final String CHECKPOINT_FILE = "batch_geocoder.checkpoint";
+
+    /** runs the app's batches in the background, one run at a time **/
+    private static final ExecutorService appRuns = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /** database object **/
+    private final DBHelper database;
+
+    /** converts the venue addresses **/
+    private final GeocoderBackend backend;
+
+    /** file holding the id of the last venue written **/
+    private final File checkpointFile;
+
+    /** settings, which can be changed before run is called **/
+    private int concurrency = 2;
+    private int batchSize = 50;
+    private double requestsPerSecond = 5;
+    private int maxRetries = 3;
+    private long initialBackoffMillis = 500;
+
+    /** time the next lookup is allowed to start, for rate limiting **/
+    private long nextRequestNanos = 0;
+
+    /*************************************************************************************************
+     * Description: This class is a venue waiting for a latitude and longitude.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static class PendingVenue {
+
+        public final int id;
+        public final String address;
+
+        /*************************************************************************************************
+         * Description: This function creates a venue waiting to be geocoded.
+         *
+         * Inputs:
+         *    @param id - venue's id
+         *    @param address - venue's full address
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public PendingVenue(int id, String address) {
+            this.id = id;
+            this.address = address;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the batch geocoder.
+     *
+     * Inputs:
+     *    @param database - database holding the venues
+     *    @param backend - backend that converts the addresses
+     *    @param checkpointFile - file to save progress in
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BatchGeocoder(DBHelper database, GeocoderBackend backend, File checkpointFile) {
+        this.database = database;
+        this.backend = backend;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /*************************************************************************************************
+     * Description: This function geocodes every venue without coordinates in the background,
+     *              using the app's geocoder backend and checkpoint. Runs started while one is
+     *              going wait for it, and find nothing left to do if it located every venue.
+     *
+     * Inputs:
+     *    @param context - any context
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static void locateMissingVenues(Context context) {
+        final Context appContext = context.getApplicationContext();
+        appRuns.execute(new Runnable() {
+            @Override
+            public void run() {
+                int located = new BatchGeocoder(Startup.getDatabase(appContext), GeocodingLocation.getBackend(appContext),
+                        new File(appContext.getFilesDir(), CHECKPOINT_FILE)).run();
+                Log.i(TAG, "Located " + located + " venues");
+            }
+        });
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets how many lookups run at once.
+     *
+     * Inputs:
+     *    @param concurrency - number of lookups, at least 1
+     *
+     * Outputs:
+     *      BatchGeocoder - this batch geocoder, so setters can be chained
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BatchGeocoder setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets how many venues are read and written at a time.
+     *
+     * Inputs:
+     *    @param batchSize - number of venues in a batch, at least 1
+     *
+     * Outputs:
+     *      BatchGeocoder - this batch geocoder, so setters can be chained
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BatchGeocoder setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets the most lookups started each second.
+     *
+     * Inputs:
+     *    @param requestsPerSecond - lookups per second, or 0 for no limit
+     *
+     * Outputs:
+     *      BatchGeocoder - this batch geocoder, so setters can be chained
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BatchGeocoder setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets how often a lookup is retried when the backend can't be
+     *              reached, and how long to wait before the first retry. The wait doubles after
+     *              each retry. Venues that still fail get the same number of rounds at the end
+     *              of the run.
+     *
+     * Inputs:
+     *    @param maxRetries - number of retries, at least 0
+     *    @param initialBackoffMillis - wait before the first retry in milliseconds
+     *
+     * Outputs:
+     *      BatchGeocoder - this batch geocoder, so setters can be chained
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BatchGeocoder setRetries(int maxRetries, long initialBackoffMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialBackoffMillis = initialBackoffMillis;
+        return this;
+    }
+
+    /*************************************************************************************************
+     * Description: This function geocodes every remaining venue, then tries the ones that failed
+     *              again. It blocks until it is done, so it has to be run on a background thread.
+     *              Interrupting the thread stops it after the current batch, and the next run
+     *              starts from the checkpoint.
+     *
+     * Outputs:
+     *      int - number of venues that got a latitude and longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int run() {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        int located = 0;
+        try {
+            // id of the last venue in the last batch that was written
+            int lastDone = readCheckpoint();
+            // venues whose lookups failed, in id order
+            List<PendingVenue> failed = new ArrayList<PendingVenue>();
+            while (!Thread.currentThread().isInterrupted()) {
+                List<PendingVenue> batch = database.getVenuesMissingLocation(lastDone, batchSize);
+                // if every venue has been tried
+                if (batch.isEmpty()) {
+                    break;
+                }
+                located += geocodeBatch(workers, batch, failed);
+                lastDone = batch.get(batch.size() - 1).id;
+                writeCheckpoint(checkpointBefore(failed, lastDone));
+            }
+            // tries the failed venues again, waiting longer before each round
+            long backoff = initialBackoffMillis;
+            for (int round = 0; round < maxRetries && !failed.isEmpty() && !Thread.currentThread().isInterrupted(); round++) {
+                Thread.sleep(backoff);
+                backoff *= 2;
+                List<PendingVenue> retry = failed;
+                failed = new ArrayList<PendingVenue>();
+                for (int from = 0; from < retry.size(); from += batchSize) {
+                    located += geocodeBatch(workers, retry.subList(from, Math.min(from + batchSize, retry.size())), failed);
+                }
+                writeCheckpoint(checkpointBefore(failed, lastDone));
+            }
+        } catch (InterruptedException e) {
+            // stops here, the checkpoint already covers every written batch
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        return located;
+    }
+
+    /*************************************************************************************************
+     * Description: This function looks up one batch of venues and writes the ones that were
+     *              found in one transaction. A ZIP code or town centroid isn't written, since the
+     *              venue would never be looked up again, so it counts as a failed lookup.
+     *
+     * Inputs:
+     *    @param workers - threads to run the lookups on
+     *    @param batch - venues to look up, in id order
+     *    @param failed - list the venues whose lookups failed or were only approximate are added to
+     *
+     * Outputs:
+     *      int - number of venues that got a latitude and longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private int geocodeBatch(ExecutorService workers, List<PendingVenue> batch, List<PendingVenue> failed)
+            throws InterruptedException {
+        // starts a lookup for every venue in the batch
+        List<Future<double[]>> results = new ArrayList<Future<double[]>>(batch.size());
+        for (final PendingVenue venue: batch) {
+            results.add(workers.submit(new Callable<double[]>() {
+                @Override
+                public double[] call() throws Exception {
+                    return geocodeWithRetry(venue.address);
+                }
+            }));
+        }
+        // collects the venues that were found
+        int[] ids = new int[batch.size()];
+        double[] latitudes = new double[batch.size()];
+        double[] longitudes = new double[batch.size()];
+        int count = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            double[] location = null;
+            try {
+                location = results.get(i).get();
+            } catch (ExecutionException e) {
+                // keeps the venue to try again, since the backend couldn't be reached
+                Log.w(TAG, "Unable to geocode venue " + batch.get(i).id, e.getCause());
+                failed.add(batch.get(i));
+            }
+            // if it is only a ZIP code or town centroid, keeps the venue to try again for its street address
+            if (location != null && OfflineGeocoderBackend.isApproximate(location)) {
+                failed.add(batch.get(i));
+            } else if (location != null) {
+                ids[count] = batch.get(i).id;
+                latitudes[count] = location[0];
+                longitudes[count] = location[1];
+                count++;
+            }
+        }
+        database.updateVenueLocations(ids, latitudes, longitudes, count);
+        return count;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the checkpoint to save, which can't pass a venue that still
+     *              has to be tried again.
+     *
+     * Inputs:
+     *    @param failed - venues whose lookups failed, in id order
+     *    @param lastDone - id of the last venue tried
+     *
+     * Outputs:
+     *      int - id every venue up to which is done
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int checkpointBefore(List<PendingVenue> failed, int lastDone) {
+        return failed.isEmpty() ? lastDone : failed.get(0).id - 1;
+    }
+
+    /*************************************************************************************************
+     * Description: This function forgets the checkpoint, so the next run starts from the first
+     *              venue without a location.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void resetCheckpoint() {
+        if (checkpointFile.exists() && !checkpointFile.delete()) {
+            Log.w(TAG, "Unable to delete " + checkpointFile);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function geocodes an address, waiting for the rate limit and retrying
+     *              with a doubling delay when the backend can't be reached.
+     *
+     * Inputs:
+     *    @param address - the address to convert
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if it wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private double[] geocodeWithRetry(String address) throws IOException, InterruptedException {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 0; ; attempt++) {
+            acquirePermit();
+            try {
+                return backend.geocode(address);
+            } catch (IOException e) {
+                // if there are no retries left
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                Thread.sleep(backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function waits until the next lookup is allowed by the rate limit.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void acquirePermit() throws InterruptedException {
+        // no limit
+        if (requestsPerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextRequestNanos);
+            nextRequestNanos = start + (long) (1000000000L / requestsPerSecond);
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1000000L, (int) (waitNanos % 1000000L));
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads the id of the last venue written by an earlier run.
+     *
+     * Outputs:
+     *      int - venue id, or 0 if there is no checkpoint
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private int readCheckpoint() {
+        if (!checkpointFile.exists()) {
+            return 0;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(checkpointFile));
+            try {
+                String line = reader.readLine();
+                // an empty file is treated like no checkpoint
+                return line == null ? 0 : Integer.parseInt(line.trim());
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(TAG, "Ignoring unreadable checkpoint " + checkpointFile, e);
+            return 0;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function saves the id of the last venue written, replacing the old
+     *              checkpoint in one step so a crash can't leave half a file.
+     *
+     * Inputs:
+     *    @param venueId - id of the last venue written
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void writeCheckpoint(int venueId) {
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        try {
+            FileWriter writer = new FileWriter(temp);
+            try {
+                writer.write(String.valueOf(venueId));
+            } finally {
+                writer.close();
+            }
+            if (!temp.renameTo(checkpointFile)) {
+                Log.w(TAG, "Unable to replace " + checkpointFile);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write " + checkpointFile, e);
+        }
+    }
+}
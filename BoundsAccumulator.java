@@ -0,0 +1,176 @@
+/*************************************************************************************************
+ * File:   BoundsAccumulator.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class keeps the bounding box and count of points as they are read, so a map
+ *          can fit its camera to every point without going over them a second time. It also
+ *          counts the points in each one degree cell, and keeps track of the busiest cell, so
+ *          the map knows where most of the points are when they are spread too far to fit.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class BoundsAccumulator {
+
+    /** size of a density cell, in degrees of latitude and longitude **/
+    private static final double CELL_DEGREES = 1.0;
+
+    /** density cells across the world **/
+    private static final int CELL_COLUMNS = (int) (360 / CELL_DEGREES);
+    private static final int CELL_ROWS = (int) (180 / CELL_DEGREES);
+
+    /** number of points included **/
+    private int count = 0;
+
+    /** edges of the box, only meaningful when count is more than 0 **/
+    private double south = Double.POSITIVE_INFINITY;
+    private double north = Double.NEGATIVE_INFINITY;
+    private double west = Double.POSITIVE_INFINITY;
+    private double east = Double.NEGATIVE_INFINITY;
+
+    /** points in each cell that has any, by row * CELL_COLUMNS + column **/
+    private Map<Integer, Integer> cellCounts = new HashMap<Integer, Integer>();
+
+    /** busiest cell and its count **/
+    private int densestCell = 0;
+    private int densestCount = 0;
+
+    /*************************************************************************************************
+     * Description: This function grows the box to include a point, and counts it in its cell.
+     *
+     * Inputs:
+     *    @param latitude - point's latitude
+     *    @param longitude - point's longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void include(double latitude, double longitude) {
+        count++;
+        south = Math.min(south, latitude);
+        north = Math.max(north, latitude);
+        west = Math.min(west, longitude);
+        east = Math.max(east, longitude);
+        // counts the point in its cell, clamping the edges of the map into the last cells
+        int row = Math.max(0, Math.min(CELL_ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+        int column = Math.max(0, Math.min(CELL_COLUMNS - 1, (int) Math.floor((longitude + 180) / CELL_DEGREES)));
+        int cell = row * CELL_COLUMNS + column;
+        Integer cellCount = cellCounts.get(cell);
+        int newCount = cellCount == null ? 1 : cellCount + 1;
+        cellCounts.put(cell, newCount);
+        if (newCount > densestCount) {
+            densestCell = cell;
+            densestCount = newCount;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function copies the box, so it can be read while the original grows.
+     *
+     * Outputs:
+     *      BoundsAccumulator - copy of the box
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BoundsAccumulator copy() {
+        BoundsAccumulator copy = new BoundsAccumulator();
+        copy.count = count;
+        copy.south = south;
+        copy.north = north;
+        copy.west = west;
+        copy.east = east;
+        copy.cellCounts = new HashMap<Integer, Integer>(cellCounts);
+        copy.densestCell = densestCell;
+        copy.densestCount = densestCount;
+        return copy;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of points included.
+     *
+     * Outputs:
+     *      int - number of points
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int getCount() {
+        return count;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the southern edge of the box.
+     *
+     * Outputs:
+     *      double - lowest latitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getSouth() {
+        return south;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the northern edge of the box.
+     *
+     * Outputs:
+     *      double - highest latitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getNorth() {
+        return north;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the western edge of the box.
+     *
+     * Outputs:
+     *      double - lowest longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getWest() {
+        return west;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the eastern edge of the box.
+     *
+     * Outputs:
+     *      double - highest longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getEast() {
+        return east;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the center of the busiest cell.
+     *
+     * Outputs:
+     *      double - latitude of the busiest cell's center
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getDensestLatitude() {
+        return (densestCell / CELL_COLUMNS + 0.5) * CELL_DEGREES - 90;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the center of the busiest cell.
+     *
+     * Outputs:
+     *      double - longitude of the busiest cell's center
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getDensestLongitude() {
+        return (densestCell % CELL_COLUMNS + 0.5) * CELL_DEGREES - 180;
+    }
+}
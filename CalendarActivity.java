@@ -0,0 +1,339 @@
+/*************************************************************************************************
+ * File:   CalendarActivity.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This activity shows upcoming shows a month at a time, listing each day from today
+ *          on that has shows with their times, names and venues. The days come from the calendar index,
+ *          so paging between months doesn't query the database.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import java.util.Calendar;
+
+public class CalendarActivity extends AppCompatActivity {
+
+    /** saved state key for the shown month **/
+    private static final String STATE_MONTH = "month";
+
+    /** shows by day, null until it is loaded **/
+    private ShowCalendarIndex calendarIndex = null;
+
+    /** first moment of the shown month **/
+    private final Calendar month = Calendar.getInstance();
+
+    /** name of the shown month **/
+    private TextView monthView;
+
+    /** days of the shown month that have shows **/
+    private final DaysAdapter daysAdapter = new DaysAdapter();
+
+    /*************************************************************************************************
+     * Description: This function creates the Calendar activity and its views, and starts loading
+     *              the calendar index in the background.
+     *
+     * Inputs:
+     *    @param savedInstanceState - previously saved state of application and data
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        // starts at the month that was shown, or the current one
+        if (savedInstanceState != null) {
+            month.setTimeInMillis(savedInstanceState.getLong(STATE_MONTH));
+        }
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        month.set(Calendar.HOUR_OF_DAY, 0);
+        month.set(Calendar.MINUTE, 0);
+        month.set(Calendar.SECOND, 0);
+        month.set(Calendar.MILLISECOND, 0);
+        // never starts before the current month
+        Calendar current = startOfToday();
+        current.set(Calendar.DAY_OF_MONTH, 1);
+        if (month.before(current)) {
+            month.setTimeInMillis(current.getTimeInMillis());
+        }
+
+        // row of the previous month button, month name and next month button
+        LinearLayout header = new LinearLayout(this);
+        header.setOrientation(LinearLayout.HORIZONTAL);
+        Button previous = new Button(this);
+        previous.setText("<");
+        previous.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                changeMonth(-1);
+            }
+        });
+        monthView = new TextView(this);
+        monthView.setTextSize(20);
+        Button next = new Button(this);
+        next.setText(">");
+        next.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                changeMonth(1);
+            }
+        });
+        header.addView(previous);
+        header.addView(monthView);
+        header.addView(next);
+
+        ListView daysView = new ListView(this);
+        daysView.setAdapter(daysAdapter);
+
+        LinearLayout root = new LinearLayout(this);
+        root.setOrientation(LinearLayout.VERTICAL);
+        root.addView(header);
+        root.addView(daysView);
+        setContentView(root);
+
+        showMonth();
+        new LoadCalendarTask().execute();
+    }
+
+    /*************************************************************************************************
+     * Description: This function saves the shown month, so it is shown again when the activity is
+     *              recreated.
+     *
+     * Inputs:
+     *    @param outState - state to save to
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putLong(STATE_MONTH, month.getTimeInMillis());
+    }
+
+    /*************************************************************************************************
+     * Description: This function moves to an earlier or later month, but not to a month that
+     *              is already over.
+     *
+     * Inputs:
+     *    @param months - number of months to move, negative for earlier
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void changeMonth(int months) {
+        Calendar moved = (Calendar) month.clone();
+        moved.add(Calendar.MONTH, months);
+        Calendar current = startOfToday();
+        current.set(Calendar.DAY_OF_MONTH, 1);
+        // if the month is over, there are no upcoming shows in it
+        if (moved.before(current)) {
+            return;
+        }
+        month.setTimeInMillis(moved.getTimeInMillis());
+        showMonth();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the first moment of today, in local time.
+     *
+     * Outputs:
+     *      Calendar - midnight at the start of today
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static Calendar startOfToday() {
+        Calendar today = Calendar.getInstance();
+        today.set(Calendar.HOUR_OF_DAY, 0);
+        today.set(Calendar.MINUTE, 0);
+        today.set(Calendar.SECOND, 0);
+        today.set(Calendar.MILLISECOND, 0);
+        return today;
+    }
+
+    /*************************************************************************************************
+     * Description: This function shows the name and the days with shows of the current month.
+     *              Days before today are left out, since their shows are over.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void showMonth() {
+        monthView.setText(ShowTimes.formatMonth(month.getTimeInMillis()));
+        // if the index hasn't loaded yet, the days are shown when it is
+        if (calendarIndex == null) {
+            daysAdapter.setDays(new int[0]);
+            return;
+        }
+        // starts from today if it is in this month
+        long first = Math.max(month.getTimeInMillis(), startOfToday().getTimeInMillis());
+        Calendar last = (Calendar) month.clone();
+        last.add(Calendar.MONTH, 1);
+        last.add(Calendar.MILLISECOND, -1);
+        daysAdapter.setDays(calendarIndex.daysWithShows(FacetIndex.dayBucket(first),
+                FacetIndex.dayBucket(last.getTimeInMillis())));
+    }
+
+    /*************************************************************************************************
+     * Description: This function exits this activity and goes back to the Main Activity.
+     *
+     * Inputs: pressed to run the function
+     *    @param view - the button that is clicked to run the function
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void goBack(View view) {
+        finish();
+    }
+
+    /*************************************************************************************************
+     * Description: This class shows one row per day, with the day's shows under its name. Each
+     *              row's text is made when the row is shown.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private class DaysAdapter extends BaseAdapter {
+
+        /** day numbers shown **/
+        private int[] days = new int[0];
+
+        /*************************************************************************************************
+         * Description: This function shows new days in the list.
+         *
+         * Inputs:
+         *    @param days - day numbers with shows, in order
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        void setDays(int[] days) {
+            this.days = days;
+            notifyDataSetChanged();
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets the number of rows.
+         *
+         * Outputs:
+         *      int - number of days
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public int getCount() {
+            return days.length;
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets a row's day.
+         *
+         * Inputs:
+         *    @param position - row's position
+         *
+         * Outputs:
+         *      Object - the day number
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public Object getItem(int position) {
+            return days[position];
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets a row's id, which is its day number.
+         *
+         * Inputs:
+         *    @param position - row's position
+         *
+         * Outputs:
+         *      long - the day number
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public long getItemId(int position) {
+            return days[position];
+        }
+
+        /*************************************************************************************************
+         * Description: This function fills a row with a day and its shows' times, names and venues,
+         *              reusing an old row when there is one.
+         *
+         * Inputs:
+         *    @param position - row's position
+         *    @param convertView - old row to reuse, or null
+         *    @param parent - the list
+         *
+         * Outputs:
+         *      View - the filled in row
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            TextView row = convertView != null ? (TextView) convertView : new TextView(CalendarActivity.this);
+            int[] shows = calendarIndex.showsOn(days[position]);
+            // names the day by its first show, which is always on it
+            StringBuilder text = new StringBuilder(ShowTimes.formatDay(calendarIndex.getStartMillis(shows[0])));
+            for (int showId : shows) {
+                text.append("\n").append(ShowTimes.formatTime(calendarIndex.getStartMillis(showId))).append("  ")
+                        .append(calendarIndex.getName(showId));
+                String venueName = calendarIndex.getVenueName(showId);
+                if (venueName != null) {
+                    text.append(" at ").append(venueName);
+                }
+            }
+            row.setText(text);
+            return row;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This class loads the calendar index in the background, building it the first
+     *              time, and then shows the current month's days.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private class LoadCalendarTask extends AsyncTask<Void, Void, ShowCalendarIndex> {
+
+        /*************************************************************************************************
+         * Description: This function gets the calendar index, building it the first time.
+         *
+         * Inputs:
+         *    @param params - unused
+         *
+         * Outputs:
+         *      ShowCalendarIndex - shows by day
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected ShowCalendarIndex doInBackground(Void... params) {
+            return Startup.getDatabase(CalendarActivity.this).getCalendarIndex();
+        }
+
+        /*************************************************************************************************
+         * Description: This function keeps the index and shows the current month's days.
+         *
+         * Inputs:
+         *    @param index - shows by day
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void onPostExecute(ShowCalendarIndex index) {
+            calendarIndex = index;
+            showMonth();
+        }
+    }
+}
@@ -3,7 +3,7 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This class contains all of the direct interactions with the SQLite Database,
  *          including creating the database & tables, inserting data, and querying the database.
@@ -16,10 +16,13 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
 import android.util.Log;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -28,7 +31,7 @@ import java.util.Map;
 public class DBHelper extends SQLiteOpenHelper {
 
     /** version and name **/
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 5;
     private static final String DATABASE_NAME = "MusicMapsDB";
 
     /** table names **/
@@ -37,6 +40,11 @@ public class DBHelper extends SQLiteOpenHelper {
     private static final String VENUE_TABLE_NAME = "venue";
     private static final String SHOW_TABLE_NAME = "show";
     private static final String ARTIST_SHOW_TABLE_NAME = "artistToshow";
+    private static final String DENSITY_TILE_TABLE_NAME = "density_tile";
+    private static final String DENSITY_LEVEL_TABLE_NAME = "density_level";
+    private static final String ARTIST_ROLLUP_TABLE_NAME = "artist_rollup";
+    private static final String ARTIST_VENUE_TABLE_NAME = "artist_venue";
+    private static final String ARTIST_CITY_TABLE_NAME = "artist_city";
 
     /** column names in genre table **/
     private static final String GENRE_ID = "_id";
@@ -80,6 +88,26 @@ public class DBHelper extends SQLiteOpenHelper {
     private static final String ARTISTSHOW_artist_id = "artist_id";
     private static final String ARTISTSHOW_show_id = "show_id";
 
+    /** density tile table column names **/
+    private static final String DENSITY_zoom = "zoom";
+    private static final String DENSITY_x = "x";
+    private static final String DENSITY_y = "y";
+    private static final String DENSITY_counts = "counts";
+    private static final String DENSITY_max_count = "max_count";
+
+    /** artist rollup, artist venue and artist city table column names **/
+    private static final String ROLLUP_artist_id = "artist_id";
+    private static final String ROLLUP_show_count = "show_count";
+    private static final String ROLLUP_venue_count = "venue_count";
+    private static final String ROLLUP_city_count = "city_count";
+    private static final String ROLLUP_first_start = "first_start";
+    private static final String ROLLUP_last_start = "last_start";
+    private static final String ROLLUP_next_show_id = "next_show_id";
+    private static final String ROLLUP_next_start = "next_start";
+    private static final String ROLLUP_venue_id = "venue_id";
+    private static final String ROLLUP_town = "town";
+    private static final String ROLLUP_state = "state";
+
     /** counts for incrementing ids for table **/
     private static int genreCount = 0;
     private static int artistCount = 0;
@@ -87,90 +115,331 @@ public class DBHelper extends SQLiteOpenHelper {
     private static int venueCount = 0;
     private static int artistShowCount = 0;
 
-    /** current database **/
-    private SQLiteDatabase currentDB = null;
+    /** in-memory genre, day and venue facets over show ids, built on first use **/
+    private static FacetIndex facetIndex = null;
+
+    /** in-memory artist to show posting lists, built on first use **/
+    private static ArtistShowIndex artistShowIndex = null;
+
+    /** in-memory quadtree of venue and show locations, built on first use **/
+    private static SpatialIndex spatialIndex = null;
+
+    /** in-memory show ids by day for the calendar, built on first use **/
+    private static ShowCalendarIndex calendarIndex = null;
+
+
+    /** column positions in the cursor returned by search **/
+    public static final int SEARCH_SHOW_ID = 0;
+    public static final int SEARCH_SHOW_NAME = 1;
+    public static final int SEARCH_START_DATETIME = 2;
+    public static final int SEARCH_VENUE_ID = 3;
+    public static final int SEARCH_VENUE_NAME = 4;
+    public static final int SEARCH_LATITUDE = 5;
+    public static final int SEARCH_LONGITUDE = 6;
+
+    /** column positions in the cursor returned by getVenueShowsCursor **/
+    public static final int VENUE_SHOWS_VENUE_ID = 0;
+    public static final int VENUE_SHOWS_VENUE_NAME = 1;
+    public static final int VENUE_SHOWS_LATITUDE = 2;
+    public static final int VENUE_SHOWS_LONGITUDE = 3;
+    public static final int VENUE_SHOWS_SHOW_ID = 4;
+    public static final int VENUE_SHOWS_SHOW_NAME = 5;
+
+    /** compiled search SQL for each shape of query, so equal shapes reuse one statement **/
+    private static final Map<String, String> searchPlans = new HashMap<String, String>();
+
+    /** most prefiltered show ids bound into the search SQL, larger sets are checked as rows are read **/
+    public static final int MAX_BOUND_CANDIDATES = 512;
 
     /*************************************************************************************************
-     * Description: This function creates the database helper and creates the database and tables
-     *              if they're not already created.
+     * Description: This function creates the database helper. It doesn't touch the disk, the
+     *              database is opened, and created if needed, by the first query. Use
+     *              Startup.getDatabase to share one helper across the app.
      *
      * Inputs:
      *    @param context - application context
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public DBHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
 
-        // gets current database
-        currentDB = this.getWritableDatabase();
-
-        // list of table names
-        String[] tables = {GENRE_TABLE_NAME, ARTIST_TABLE_NAME, VENUE_TABLE_NAME, SHOW_TABLE_NAME, ARTIST_SHOW_TABLE_NAME};
-
-        // for all table
-        for (String table: tables) {
-            // drop tables if they exist
-            currentDB.execSQL("DROP TABLE IF EXISTS " + table);
+    /*************************************************************************************************
+     * Description: This function creates the tables the first time the database is opened.
+     *
+     * Inputs:
+     *    @param database - the database from the SQLiteOpenHelper
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onCreate(SQLiteDatabase database) {
+        Startup.beginSection("DBHelper.createTables");
+        try {
+            // create tables
+            createTables(database);
+        } finally {
+            Startup.endSection();
         }
-
-        // create tables
-        createTables();
     }
 
     /*************************************************************************************************
-     * Description: This function creates the database helper and creates the database and tables
-     *              if they're not already created.
+     * Description: This function runs every time the database is opened and continues the id
+     *              counts from the rows already in the tables.
      *
      * Inputs:
      *    @param database - the database from the SQLiteOpenHelper
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
-    public void onCreate(SQLiteDatabase database) {
-        // create tables
-        createTables();
-        // gets current database
-        currentDB = database;
-        // resets current database to null
-        currentDB = null;
+    public void onOpen(SQLiteDatabase database) {
+        super.onOpen(database);
+        Startup.beginSection("DBHelper.loadCounts");
+        try {
+            synchronized (DBHelper.class) {
+                genreCount = maxID(database, GENRE_TABLE_NAME, GENRE_ID);
+                artistCount = maxID(database, ARTIST_TABLE_NAME, ARTIST_id);
+                showCount = maxID(database, SHOW_TABLE_NAME, SHOW_id);
+                venueCount = maxID(database, VENUE_TABLE_NAME, VENUE_id);
+                artistShowCount = maxID(database, ARTIST_SHOW_TABLE_NAME, ARTISTSHOW_id);
+            }
+        } finally {
+            Startup.endSection();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the highest id in a table, to count new ids up from.
+     *
+     * Inputs:
+     *    @param database - the open database
+     *    @param table - table's name
+     *    @param idColumn - name of the table's id column
+     *
+     * Outputs:
+     *      int - highest id, or 0 if the table is empty
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int maxID(SQLiteDatabase database, String table, String idColumn) {
+        return (int) database.compileStatement("SELECT IFNULL(MAX(" + idColumn + "), 0) FROM " + table + ";").simpleQueryForLong();
     }
 
     /*************************************************************************************************
-     * Description: This function runs to upgrade the database from one version to another.
+     * Description: This function runs to upgrade the database from one version to another. Each
+     *              version's step changes the tables in place, so the user's venues, artists and
+     *              shows are kept. Databases from before version 2 were rebuilt on every launch,
+     *              so they are still dropped and created again.
      *
      * Inputs:
      *    @param database - the database from the SQLiteOpenHelper
      *    @param oldVersion - old version number of the database
      *    @param newVersion - new version number of the database
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     public void onUpgrade(SQLiteDatabase database,
                           int oldVersion,
                           int newVersion) {
-        // list of table names
-        String[] tables = {GENRE_TABLE_NAME, ARTIST_TABLE_NAME, VENUE_TABLE_NAME, SHOW_TABLE_NAME, ARTIST_SHOW_TABLE_NAME};
+        // if the database is from before it was kept between launches
+        if (oldVersion < 2) {
+            // list of table names
+            String[] tables = {GENRE_TABLE_NAME, ARTIST_TABLE_NAME, VENUE_TABLE_NAME, SHOW_TABLE_NAME, ARTIST_SHOW_TABLE_NAME,
+                    DENSITY_TILE_TABLE_NAME, DENSITY_LEVEL_TABLE_NAME, ARTIST_ROLLUP_TABLE_NAME, ARTIST_VENUE_TABLE_NAME,
+                    ARTIST_CITY_TABLE_NAME};
 
-        // for all table
-        for (String table: tables) {
-            // drop tables if they exist
-            currentDB.execSQL("DROP TABLE IF EXISTS " + table);
+            // for all table
+            for (String table: tables) {
+                // drop tables if they exist
+                database.execSQL("DROP TABLE IF EXISTS " + table);
+            }
+            // calls on create
+            onCreate(database);
+            return;
+        }
+        // version 3 stores show times as milliseconds since the epoch
+        if (oldVersion < 3) {
+            migrateShowTimes(database);
+        }
+        // version 4 adds the artist profile rollups, filled from the shows already stored
+        if (oldVersion < 4) {
+            createArtistRollupTables(database);
+            fillArtistRollups(database);
         }
-        // calls on create
-        onCreate(database);
+        // version 5 builds the heatmap once from every stored show, instead of when the map opens
+        if (oldVersion < 5) {
+            createDensityTables(database);
+            buildDensityTiles(database);
+        }
+        // in-memory indexes may have been built from the old tables
+        invalidateIndexes();
     }
 
     /*************************************************************************************************
-     * Description: This creates the 5 database tables, create indices, and inserts the intial data.
+     * Description: This function creates the heatmap's density tables, if they don't exist.
      *
-     * Last Modified: 12/14/16
+     * Inputs:
+     *    @param database - the database being created or upgraded
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void createDensityTables(SQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + DENSITY_TILE_TABLE_NAME + "(" + DENSITY_zoom + " INTEGER, " + DENSITY_x + " INTEGER, " +
+                DENSITY_y + " INTEGER, " + DENSITY_counts + " BLOB, PRIMARY KEY (" + DENSITY_zoom + ", " + DENSITY_x + ", " + DENSITY_y + "))");
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + DENSITY_LEVEL_TABLE_NAME + "(" + DENSITY_zoom + " INTEGER PRIMARY KEY, " +
+                DENSITY_max_count + " INTEGER)");
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the artist profile rollup tables, if they don't exist.
+     *
+     * Inputs:
+     *    @param database - the database being created or upgraded
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void createArtistRollupTables(SQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + ARTIST_ROLLUP_TABLE_NAME + "(" + ROLLUP_artist_id + " INTEGER PRIMARY KEY, " +
+                ROLLUP_show_count + " INTEGER, " + ROLLUP_venue_count + " INTEGER, " + ROLLUP_city_count + " INTEGER, " +
+                ROLLUP_first_start + " INTEGER, " + ROLLUP_last_start + " INTEGER, " + ROLLUP_next_show_id + " INTEGER, " +
+                ROLLUP_next_start + " INTEGER)");
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + ARTIST_VENUE_TABLE_NAME + "(" + ROLLUP_artist_id + " INTEGER, " + ROLLUP_venue_id + " INTEGER, " +
+                ROLLUP_show_count + " INTEGER, PRIMARY KEY (" + ROLLUP_artist_id + ", " + ROLLUP_venue_id + "))");
+        database.execSQL("CREATE TABLE IF NOT EXISTS " + ARTIST_CITY_TABLE_NAME + "(" + ROLLUP_artist_id + " INTEGER, " + ROLLUP_town + " TEXT, " +
+                ROLLUP_state + " TEXT, " + ROLLUP_show_count + " INTEGER, PRIMARY KEY (" + ROLLUP_artist_id + ", " + ROLLUP_town + ", " +
+                ROLLUP_state + "))");
+    }
+
+    /*************************************************************************************************
+     * Description: This function fills the artist profile rollups from the artist to show join
+     *              table, counting shows the same way addShow does: venues that exist, and towns
+     *              that aren't blank with the state trimmed or empty. Any rows already in the
+     *              rollups are replaced.
+     *
+     * Inputs:
+     *    @param database - the database being upgraded
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void fillArtistRollups(SQLiteDatabase database) {
+        String joins = " FROM " + ARTIST_SHOW_TABLE_NAME + " j JOIN " + SHOW_TABLE_NAME + " s ON s." + SHOW_id + " = j." + ARTISTSHOW_show_id;
+        String venueJoin = " JOIN " + VENUE_TABLE_NAME + " v ON v." + VENUE_id + " = s." + SHOW_venue_id;
+        database.execSQL("DELETE FROM " + ARTIST_VENUE_TABLE_NAME);
+        database.execSQL("DELETE FROM " + ARTIST_CITY_TABLE_NAME);
+        database.execSQL("DELETE FROM " + ARTIST_ROLLUP_TABLE_NAME);
+        // shows at each venue
+        database.execSQL("INSERT INTO " + ARTIST_VENUE_TABLE_NAME + " (" + ROLLUP_artist_id + ", " + ROLLUP_venue_id + ", " + ROLLUP_show_count + ")" +
+                " SELECT j." + ARTISTSHOW_artist_id + ", s." + SHOW_venue_id + ", COUNT(*)" + joins + venueJoin +
+                " GROUP BY j." + ARTISTSHOW_artist_id + ", s." + SHOW_venue_id);
+        // shows in each town and state
+        database.execSQL("INSERT INTO " + ARTIST_CITY_TABLE_NAME + " (" + ROLLUP_artist_id + ", " + ROLLUP_town + ", " + ROLLUP_state + ", " +
+                ROLLUP_show_count + ") SELECT j." + ARTISTSHOW_artist_id + ", TRIM(v." + VENUE_town + "), TRIM(IFNULL(v." + VENUE_state + ", '')), COUNT(*)" +
+                joins + venueJoin + " WHERE v." + VENUE_town + " IS NOT NULL AND TRIM(v." + VENUE_town + ") <> ''" +
+                " GROUP BY j." + ARTISTSHOW_artist_id + ", TRIM(v." + VENUE_town + "), TRIM(IFNULL(v." + VENUE_state + ", ''))");
+        // totals for each artist
+        database.execSQL("INSERT INTO " + ARTIST_ROLLUP_TABLE_NAME + " (" + ROLLUP_artist_id + ", " + ROLLUP_show_count + ", " +
+                ROLLUP_venue_count + ", " + ROLLUP_city_count + ", " + ROLLUP_first_start + ", " + ROLLUP_last_start + ")" +
+                " SELECT j." + ARTISTSHOW_artist_id + ", COUNT(*)," +
+                " (SELECT COUNT(*) FROM " + ARTIST_VENUE_TABLE_NAME + " av WHERE av." + ROLLUP_artist_id + " = j." + ARTISTSHOW_artist_id + ")," +
+                " (SELECT COUNT(*) FROM " + ARTIST_CITY_TABLE_NAME + " ac WHERE ac." + ROLLUP_artist_id + " = j." + ARTISTSHOW_artist_id + ")," +
+                " MIN(s." + SHOW_start_datetime + "), MAX(s." + SHOW_start_datetime + ")" + joins +
+                " GROUP BY j." + ARTISTSHOW_artist_id);
+        // each artist's next show that hasn't started yet
+        String nextShow = makeNextShowSQL(ARTIST_ROLLUP_TABLE_NAME + "." + ROLLUP_artist_id);
+        long now = System.currentTimeMillis();
+        database.execSQL("UPDATE " + ARTIST_ROLLUP_TABLE_NAME + " SET " +
+                ROLLUP_next_show_id + " = (" + nextShow + "), " +
+                ROLLUP_next_start + " = (SELECT " + SHOW_start_datetime + " FROM " + SHOW_TABLE_NAME + " WHERE " + SHOW_id + " = (" + nextShow + "));",
+                new Object[]{now, now});
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the SQL that finds the id of an artist's earliest show
+     *              that starts at or after a time, given as the query's next argument.
+     *
+     * Inputs:
+     *      @param artistID - SQL for the artist's id, such as a column or "?"
+     *
+     * Outputs:
+     *      String - SQL query
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String makeNextShowSQL(String artistID) {
+        return "SELECT s." + SHOW_id + " FROM " + ARTIST_SHOW_TABLE_NAME + " j JOIN " + SHOW_TABLE_NAME + " s ON s." + SHOW_id +
+                " = j." + ARTISTSHOW_show_id + " WHERE j." + ARTISTSHOW_artist_id + " = " + artistID + " AND s." + SHOW_start_datetime + " >= ?" +
+                " ORDER BY s." + SHOW_start_datetime + " LIMIT 1";
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts show times stored as text to milliseconds since the
+     *              epoch. Text that is already a number is kept as that number, text typed as
+     *              ShowTimes.INPUT_PATTERN is converted, and anything else, such as the text of
+     *              the form field that older versions stored by mistake, becomes null.
+     *
+     * Inputs:
+     *    @param database - the database being upgraded
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void migrateShowTimes(SQLiteDatabase database) {
+        // cursor of every show with a start or end time stored as text
+        Cursor cursor = database.rawQuery("SELECT " + SHOW_id + ", " + SHOW_start_datetime + ", " + SHOW_end_datetime +
+                " FROM " + SHOW_TABLE_NAME + " WHERE typeof(" + SHOW_start_datetime + ") = 'text' OR typeof(" +
+                SHOW_end_datetime + ") = 'text';", null);
+        // if there is a result
+        if (cursor.moveToFirst()) {
+            do {
+                ContentValues values = new ContentValues();
+                values.put(SHOW_start_datetime, cursor.isNull(1) ? null : parseStoredTime(cursor.getString(1)));
+                values.put(SHOW_end_datetime, cursor.isNull(2) ? null : parseStoredTime(cursor.getString(2)));
+                database.update(SHOW_TABLE_NAME, values, SHOW_id + " = ?", new String[]{String.valueOf(cursor.getInt(0))});
+            } while (cursor.moveToNext());
+        }
+        // closes cursor
+        cursor.close();
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads a show time stored as text by an older version.
+     *
+     * Inputs:
+     *      @param stored - the stored text
+     *
+     * Outputs:
+     *      Long - milliseconds since the epoch, or null if it isn't a time
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static Long parseStoredTime(String stored) {
+        try {
+            return Long.valueOf(stored.trim());
+        } catch (NumberFormatException e) {
+            return ShowTimes.parse(stored);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This creates the 5 database tables, the density tables and the artist
+     *              rollup tables, create indices, and inserts the intial data.
+     *
+     * Inputs:
+     *    @param database - the database being created
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private void createTables() {
-        // gets current database
-        currentDB = this.getWritableDatabase();
+    private void createTables(SQLiteDatabase database) {
+        // ids start over in the new tables
+        synchronized (DBHelper.class) {
+            genreCount = 0;
+            artistCount = 0;
+            showCount = 0;
+            venueCount = 0;
+            artistShowCount = 0;
+        }
         // sql commands to create genre table
         String genreTable = "CREATE TABLE " + GENRE_TABLE_NAME + "(" + makeGenreTableSQL() + ")";
         // sql commands to create artist table
@@ -184,24 +453,32 @@ public class DBHelper extends SQLiteOpenHelper {
                 ", FOREIGN KEY (" + ARTISTSHOW_artist_id + ")" + "REFERENCES " + ARTIST_TABLE_NAME + "(" + ARTIST_id + ") ON DELETE CASCADE, " +
                 "FOREIGN KEY (" + ARTISTSHOW_show_id + ")" + "REFERENCES " + SHOW_TABLE_NAME + "(" + SHOW_id + ") ON DELETE CASCADE" + ")";
         // executes sql to build genre table
-        currentDB.execSQL(genreTable);
+        database.execSQL(genreTable);
         // executes sql to build artist table
-        currentDB.execSQL(artistTable);
+        database.execSQL(artistTable);
         // executes sql to build venue table
-        currentDB.execSQL(venueTable);
+        database.execSQL(venueTable);
         // executes sql to build show table
-        currentDB.execSQL(showTable);
+        database.execSQL(showTable);
         // executes sql to build artisttoshow table
-        currentDB.execSQL(artistToshowTable);
+        database.execSQL(artistToshowTable);
         // executes sql to create indexes
-        currentDB.execSQL("CREATE INDEX artist_index ON " + ARTIST_SHOW_TABLE_NAME + " (artist_id);");
-        currentDB.execSQL("CREATE INDEX show_index ON " + ARTIST_SHOW_TABLE_NAME + " (show_id);");
+        database.execSQL("CREATE INDEX artist_index ON " + ARTIST_SHOW_TABLE_NAME + " (artist_id);");
+        database.execSQL("CREATE INDEX show_index ON " + ARTIST_SHOW_TABLE_NAME + " (show_id);");
+        // executes sql to build the heatmap's density tables
+        createDensityTables(database);
+        // executes sql to build the artist profile rollup tables
+        createArtistRollupTables(database);
+        // in-memory indexes no longer match the new tables
+        invalidateIndexes();
         // inserts initial genres into the database
-        makeInitialGenres();
+        makeInitialGenres(database);
         // inserts initial venues into the database
-        makeInitialVenues();
+        makeInitialVenues(database);
         // inserts initial shows into the database
-        makeInitialShows();
+        makeInitialShows(database);
+        // builds the heatmap from the initial shows, later shows are added as they are stored
+        buildDensityTiles(database);
     }
 
     /*************************************************************************************************
@@ -357,9 +634,12 @@ public class DBHelper extends SQLiteOpenHelper {
     /*************************************************************************************************
      * Description: This function adds a hardcoded list of genres to the database.
      *
-     * Last Modified: 12/14/16
+     * Inputs:
+     *    @param database - the database being created
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private void makeInitialGenres() {
+    private void makeInitialGenres(SQLiteDatabase database) {
         // list of genre games
         String[] genres = {"Rock 'n Roll", "Pop", "Heavy Metal", "Rap", "Country", "Punk", "R & B", "Jazz", "Classical", "Alternative", "Hip Hop", "Soul", "Reggae", "Techno", "Grunge", "EDM", "Hard Rock", "Blues"};
         // for all genre names
@@ -372,16 +652,19 @@ public class DBHelper extends SQLiteOpenHelper {
             values.put(GENRE_ID, genreCount);
             values.put(GENRE_NAME, genre);
             // adds row to database
-            this.getWritableDatabase().insert(GENRE_TABLE_NAME, null, values);
+            database.insert(GENRE_TABLE_NAME, null, values);
         }
     }
 
     /*************************************************************************************************
      * Description: This function adds a hardcoded list of venues to the database.
      *
-     * Last Modified: 12/14/16
+     * Inputs:
+     *    @param database - the database being created
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private void makeInitialVenues() {
+    private void makeInitialVenues(SQLiteDatabase database) {
         // list of venus with names, websites, latitude, and longitude
         String[] venues = {"Hangar Theatre,http://www.hangartheatre.org/,42.4553429,-76.51731889999999,1",
                             "The Haunt,http://www.thehaunt.com/,42.4514511,-76.5051489,2",
@@ -406,16 +689,19 @@ public class DBHelper extends SQLiteOpenHelper {
             values.put(VENUE_latitude, Double.valueOf(lineSplit[2]));
             values.put(VENUE_longitude, Double.valueOf(lineSplit[3]));
             // adds row to database
-            this.getWritableDatabase().insert(VENUE_TABLE_NAME, null, values);
+            database.insert(VENUE_TABLE_NAME, null, values);
         }
     }
 
     /*************************************************************************************************
      * Description: This function adds a hardcoded list of shows to the database.
      *
-     * Last Modified: 12/14/16
+     * Inputs:
+     *    @param database - the database being created
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private void makeInitialShows() {
+    private void makeInitialShows(SQLiteDatabase database) {
         // list of shows with names, websites, and venue id
         String[] venues = {"Grassroots 2016,http://www.grassrootsfest.org/festival/,1",
                             "Grassroots 2015,http://www.grassrootsfest.org/festival/,2",
@@ -441,7 +727,7 @@ public class DBHelper extends SQLiteOpenHelper {
             values.put(SHOW_website, lineSplit[1]);
             values.put(SHOW_venue_id, Integer.valueOf(lineSplit[2]));
             // adds row to database
-            this.getWritableDatabase().insert(SHOW_TABLE_NAME, null, values);
+            database.insert(SHOW_TABLE_NAME, null, values);
         }
     }
 
@@ -591,6 +877,208 @@ public class DBHelper extends SQLiteOpenHelper {
         return cursor;
     }
 
+    /*************************************************************************************************
+     * Description: This function gets the shows that can match a search's genres, days and venues
+     *              from the facet index, before any row is read.
+     *
+     * Inputs:
+     *      @param query - the search to prefilter
+     *
+     * Outputs:
+     *      BitSet - ids of the shows that can match, or null if the search has no genre, time or venue filter
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BitSet prefilter(SearchQuery query) {
+        // if there is nothing for the facets to filter
+        if (query.genres.isEmpty() && query.venues.isEmpty() && !query.hasTimeWindow()) {
+            return null;
+        }
+        // day buckets are whole local days, so the exact start times are still checked in SQL
+        int fromDay = query.startMillis == Long.MIN_VALUE ? Integer.MIN_VALUE : FacetIndex.dayBucket(query.startMillis);
+        int toDay = query.endMillis == Long.MAX_VALUE ? Integer.MAX_VALUE : FacetIndex.dayBucket(query.endMillis);
+        return getFacetIndex().select(query.genres, fromDay, toDay, query.venues);
+    }
+
+    /*************************************************************************************************
+     * Description: This function runs a search query as one parameterized statement. Every value
+     *              in the query is bound as an argument, so queries with the same shape share the
+     *              same SQL and the same prepared statement. Up to MAX_BOUND_CANDIDATES
+     *              prefiltered show ids are bound into the statement, padded to a power of two so
+     *              they share a few shapes. Larger sets only bound the id range, and the caller
+     *              must skip rows whose ids aren't in the set.
+     *
+     * Inputs:
+     *      @param query - the search to run
+     *      @param candidates - ids of the shows that can match from prefilter, or null for every show
+     *
+     * Outputs:
+     *      Cursor - cursor of matching shows, with the columns at the SEARCH_ positions
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor search(SearchQuery query, BitSet candidates) {
+        // arguments to bind, in the order they appear in the SQL
+        List<String> args = new ArrayList<String>();
+        String sql = compileSearch(query, candidates, args);
+        // executes database query and gets cursor of matching shows
+        return this.getReadableDatabase().rawQuery(sql, args.toArray(new String[args.size()]));
+    }
+
+    /*************************************************************************************************
+     * Description: This function turns a search query into SQL and its arguments. The SQL only
+     *              depends on the shape of the query, and is cached by that shape.
+     *
+     * Inputs:
+     *      @param query - the search to compile
+     *      @param candidates - ids of the shows that can match, or null for every show
+     *      @param args - list to add the arguments to
+     *
+     * Outputs:
+     *      String - SQL query
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private String compileSearch(SearchQuery query, BitSet candidates, List<String> args) {
+        // distance sorting needs a center point
+        SearchQuery.Sort sort = query.sort;
+        if (sort == SearchQuery.Sort.DISTANCE && !query.hasCenter) {
+            sort = SearchQuery.Sort.START_TIME;
+        }
+        // number of candidate ids bound into the SQL, 0 when only their range is
+        int boundCount = 0;
+        if (candidates != null && candidates.cardinality() <= MAX_BOUND_CANDIDATES) {
+            boundCount = Math.max(8, Integer.highestOneBit(Math.max(1, candidates.cardinality() - 1)) << 1);
+        }
+        // the limit can only be done in SQL when there is no title text to check or rank afterwards,
+        // and every row the SQL returns is a candidate
+        boolean sqlLimit = query.limit > 0 && query.text.trim().isEmpty() && sort != SearchQuery.Sort.RELEVANCE
+                && (candidates == null || boundCount > 0);
+
+        // arguments for the where clause
+        if (query.hasCenter) {
+            args.add(String.valueOf(query.latitude - query.latitudeDegrees()));
+            args.add(String.valueOf(query.latitude + query.latitudeDegrees()));
+            args.add(String.valueOf(query.longitude - query.longitudeDegrees()));
+            args.add(String.valueOf(query.longitude + query.longitudeDegrees()));
+        }
+        if (query.hasTimeWindow()) {
+            args.add(String.valueOf(query.startMillis));
+            args.add(String.valueOf(query.endMillis));
+        }
+        if (boundCount > 0) {
+            // pads the list with the last id, which doesn't change what matches
+            int last = candidates.previousSetBit(candidates.length());
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                args.add(String.valueOf(id));
+            }
+            for (int i = candidates.cardinality(); i < boundCount; i++) {
+                args.add(String.valueOf(last));
+            }
+        } else if (candidates != null) {
+            args.add(String.valueOf(candidates.nextSetBit(0)));
+            args.add(String.valueOf(candidates.previousSetBit(candidates.length())));
+        }
+        // arguments for the order by clause
+        if (sort == SearchQuery.Sort.DISTANCE) {
+            String latitude = String.valueOf(query.latitude);
+            String longitude = String.valueOf(query.longitude);
+            args.add(latitude);
+            args.add(latitude);
+            args.add(longitude);
+            args.add(longitude);
+        }
+        // argument for the limit clause
+        if (sqlLimit) {
+            args.add(String.valueOf(query.limit));
+        }
+
+        // key describing the shape of the query
+        String shape = query.hasCenter + "," + query.hasTimeWindow() + "," + (candidates != null) + "," + boundCount + "," + sort + "," + sqlLimit;
+        synchronized (searchPlans) {
+            String sql = searchPlans.get(shape);
+            if (sql == null) {
+                sql = makeSearchSQL(query.hasCenter, query.hasTimeWindow(), candidates != null, boundCount, sort, sqlLimit);
+                searchPlans.put(shape, sql);
+            }
+            return sql;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the search SQL for one shape of query.
+     *
+     * Inputs:
+     *      @param hasCenter - if the results are limited to a range around a point
+     *      @param hasTimeWindow - if the results are limited by start time
+     *      @param hasCandidates - if the results are limited to prefiltered show ids
+     *      @param boundCount - number of show ids to match, or 0 to match a range of ids
+     *      @param sort - sort order of the results
+     *      @param hasLimit - if the number of results is limited
+     *
+     * Outputs:
+     *      String - SQL query with ? for every argument
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private String makeSearchSQL(boolean hasCenter, boolean hasTimeWindow, boolean hasCandidates, int boundCount,
+                                 SearchQuery.Sort sort, boolean hasLimit) {
+        String showID = SHOW_TABLE_NAME + "." + SHOW_id;
+        String showLatitude = VENUE_TABLE_NAME + "." + VENUE_latitude;
+        String showLongitude = VENUE_TABLE_NAME + "." + VENUE_longitude;
+        String showStart = SHOW_TABLE_NAME + "." + SHOW_start_datetime;
+        StringBuilder sql = new StringBuilder();
+        // columns in SEARCH_ order
+        sql.append("SELECT ").append(SHOW_TABLE_NAME).append(".").append(SHOW_id)
+                .append(", ").append(SHOW_TABLE_NAME).append(".").append(SHOW_name)
+                .append(", ").append(showStart)
+                .append(", ").append(VENUE_TABLE_NAME).append(".").append(VENUE_id)
+                .append(", ").append(VENUE_TABLE_NAME).append(".").append(VENUE_name)
+                .append(", ").append(showLatitude)
+                .append(", ").append(showLongitude);
+        sql.append(" FROM ").append(SHOW_TABLE_NAME).append(" JOIN ").append(VENUE_TABLE_NAME)
+                .append(" ON ").append(SHOW_TABLE_NAME).append(".").append(SHOW_venue_id)
+                .append(" = ").append(VENUE_TABLE_NAME).append(".").append(VENUE_id);
+        sql.append(" WHERE 1");
+        // bounding box around the center point
+        if (hasCenter) {
+            sql.append(" AND ").append(showLatitude).append(" BETWEEN ? AND ?");
+            sql.append(" AND ").append(showLongitude).append(" BETWEEN ? AND ?");
+        }
+        // start time window
+        if (hasTimeWindow) {
+            sql.append(" AND ").append(showStart).append(" BETWEEN ? AND ?");
+        }
+        // shows the facet index prefiltered, by id or by the range of ids
+        if (boundCount > 0) {
+            sql.append(" AND ").append(showID).append(" IN (?");
+            for (int i = 1; i < boundCount; i++) {
+                sql.append(", ?");
+            }
+            sql.append(")");
+        } else if (hasCandidates) {
+            sql.append(" AND ").append(showID).append(" BETWEEN ? AND ?");
+        }
+        // sort order
+        switch (sort) {
+            case DISTANCE:
+                sql.append(" ORDER BY (").append(showLatitude).append(" - ?) * (").append(showLatitude).append(" - ?) + (")
+                        .append(showLongitude).append(" - ?) * (").append(showLongitude).append(" - ?)");
+                break;
+            case NAME:
+                sql.append(" ORDER BY ").append(SHOW_TABLE_NAME).append(".").append(SHOW_name);
+                break;
+            default:
+                // relevance is ranked after the query, with start time breaking ties
+                sql.append(" ORDER BY ").append(showStart);
+        }
+        // most results to return
+        if (hasLimit) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.append(";").toString();
+    }
+
     /*************************************************************************************************
      * Description: This function adds an artist to the database.
      *
@@ -622,7 +1110,7 @@ public class DBHelper extends SQLiteOpenHelper {
         values.put(ARTIST_state, theState);
         values.put(ARTIST_zip_code, theZipCode);
         // insert row in database
-        currentDB.insert(ARTIST_TABLE_NAME, null, values);
+        this.getWritableDatabase().insert(ARTIST_TABLE_NAME, null, values);
     }
 
     /*************************************************************************************************
@@ -634,166 +1122,1054 @@ public class DBHelper extends SQLiteOpenHelper {
      *      @param theWebsite   - show's website
      *      @param thePictureURL   - show's picture url
      *      @param theArtists   - show's list of artists
-     *      @param theStartDateTime   - show's start date & time
-     *      @param theEndDateTime   - show's end date & time
-     *
-     * Last Modified: 12/14/16
-     *************************************************************************************************/
-    public void addShow(String theName, String theVenue, String theWebsite, String thePictureURL, String[] theArtists, String theStartDateTime, String theEndDateTime) {
-        // increments show id count
-        showCount ++;
-        // content values hold keys & values to put in database
-        ContentValues values = new ContentValues();
-        // puts values in contentvalues
-        values.put(SHOW_id, showCount);
-        values.put(SHOW_name, theName);
-        values.put(SHOW_venue_id, theVenue);
-        values.put(SHOW_website, theWebsite);
-        values.put(SHOW_picture_url, thePictureURL);
-        values.put(SHOW_start_datetime, theStartDateTime);
-        values.put(SHOW_end_datetime, theEndDateTime);
-        // insert row in database
-        currentDB.insert(SHOW_TABLE_NAME, null, values);
-        // makes rows in artisttoshow join table
-        makeArtistsToShows(showCount, theArtists);
-    }
-
-    /*************************************************************************************************
-     * Description: This function gets the id of the artist by looking up by name.
-     *
-     * Inputs:
-     *      @param artistName - the artist name to lookup
-     *
-     * Outputs:
-     *      int - id of the artist
+     *      @param theStartMillis   - show's start time in milliseconds since the epoch
+     *      @param theEndMillis   - show's end time in milliseconds since the epoch, or null
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public int findArtistByName(String artistName) {
-        // map of all artists
-        Map<Integer, String> artistMap = getAllArtists();
-        // iterator to go through map
-        Iterator it = artistMap.entrySet().iterator();
-        // while there is another entry
-        while (it.hasNext()) {
-            // gets pair of key and value
-            Map.Entry pair = (Map.Entry)it.next();
-            // if the input name equals the artist name
-            if (artistName.equals(pair.getValue())) {
-                // return the artist's id
-                return (int) pair.getKey();
+    public void addShow(String theName, String theVenue, String theWebsite, String thePictureURL, String[] theArtists, long theStartMillis, Long theEndMillis) {
+        SQLiteDatabase database = this.getWritableDatabase();
+        int showID;
+        int venueID;
+        int[] artistIDs;
+        // the show, its artists, the heatmap and the artist rollups are written together
+        database.beginTransaction();
+        try {
+            // increments show id count
+            showID = ++showCount;
+            // id of the venue picked from the dropdown
+            venueID = findVenueIdByName(theVenue);
+            // content values hold keys & values to put in database
+            ContentValues values = new ContentValues();
+            // puts values in contentvalues
+            values.put(SHOW_id, showID);
+            values.put(SHOW_name, theName);
+            values.put(SHOW_venue_id, venueID);
+            values.put(SHOW_website, theWebsite);
+            values.put(SHOW_picture_url, thePictureURL);
+            values.put(SHOW_start_datetime, theStartMillis);
+            values.put(SHOW_end_datetime, theEndMillis);
+            // insert row in database
+            database.insert(SHOW_TABLE_NAME, null, values);
+            // adds the show to the heatmap if its venue has a location
+            double[] location = findVenueLatLngByID(venueID);
+            if (!(location[0] == -1 && location[1] == -1)) {
+                addDensity(database, location[0], location[1], 1);
             }
-            // avoids a ConcurrentModificationException
-            it.remove();
+            // makes rows in artisttoshow join table and adds the show to each artist's rollups
+            artistIDs = makeArtistsToShows(database, showID, venueID, theStartMillis, theArtists);
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        // keeps the in-memory posting lists in step with the table if they have been built
+        ArtistShowIndex artistIndex = artistShowIndex;
+        if (artistIndex != null) {
+            for (int artistID : artistIDs) {
+                artistIndex.addEdge(artistID, showID);
+            }
+        }
+        // adds the show to the facets if they have been built
+        updateFacetIndex(showID, venueID, theStartMillis);
+        // adds the show to its venue's marker if the map's index has been built
+        SpatialIndex index = spatialIndex;
+        if (index != null) {
+            index.addShowToVenue(venueID, theName);
+        }
+        // adds the show to its day if the calendar's index has been built
+        ShowCalendarIndex calendar = calendarIndex;
+        if (calendar != null) {
+            calendar.addShow(showID, theStartMillis, theName, theVenue);
         }
-        // returns a null value
-        return -1;
     }
+
     /*************************************************************************************************
-     * Description: This function gets the venue's latitude and longitude by the venue id.
+     * Description: This function adds a newly inserted show to the facet index, if it is built.
      *
      * Inputs:
-     *      @param venueID - the venue ID to find
+     *      @param showID - id of the show
+     *      @param venueID - id of the show's venue
+     *      @param theStartMillis - show's start time in milliseconds since the epoch
      *
-     * Outputs:
-     *      double[] - index 0 is latitude, index 1 is longitude
-     *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public double[] findVenueLatLngByID(int venueID) {
-        // creates new map
-        Map<Integer, String> venueMap = new HashMap<Integer, String>();
-        // database query string
-        String selectQuery = "SELECT * FROM " + VENUE_TABLE_NAME + ";";
-        // executes database query and gets cursor of all artists
-        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, null);
+    private void updateFacetIndex(int showID, int venueID, long theStartMillis) {
+        FacetIndex index = facetIndex;
+        // if the index hasn't been built, it will pick up the show when it is
+        if (index == null) {
+            return;
+        }
+        index.addShow(showID, venueID, theStartMillis);
+        // cursor of the genres of the show's artists
+        Cursor cursor = getShowGenresCursor(showID);
         // if there is a result
-        if ((cursor.moveToFirst())) {
+        if (cursor.moveToFirst()) {
             do {
-                // if there is a venue found
-                if (venueID == cursor.getInt(9)) {
-                    // return the venue's latitude and longitude
-                    return new double[]{cursor.getDouble(5), cursor.getDouble(2)};
+                if (!cursor.isNull(1)) {
+                    index.addGenre(cursor.getInt(0), cursor.getString(1));
                 }
             } while (cursor.moveToNext());
         }
         // closes cursor
         cursor.close();
-        // returns array of null values
-        return new double[] {-1, -1};
     }
 
     /*************************************************************************************************
-     * Description: This function gets the venue name by the venue id.
-     *
-     * Inputs:
-     *      @param venueID - the venue ID to find
+     * Description: This function gets the facet index over all shows, building it the first time.
      *
      * Outputs:
-     *      string - venue name.
+     *      FacetIndex - genre, day and venue facets over show ids
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public String findVenueNameByID(int venueID) {
-        // creates new map
-        Map<Integer, String> venueMap = new HashMap<Integer, String>();
-        // database query string
-        String selectQuery = "SELECT * FROM " + VENUE_TABLE_NAME + ";";
-        // executes database query and gets cursor of all artists
-        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, null);
-        // if there is a result
-        if ((cursor.moveToFirst())) {
-            do {
-                // if there is a venue found
-                if (venueID == cursor.getInt(9)) {
-                    // return the venue's id
-                    return cursor.getString(6);
-                }
-            } while (cursor.moveToNext());
-        }
-        // closes cursor
-        cursor.close();
-        // returns map
-        return "";
+    public FacetIndex getFacetIndex() {
+        return getFacetIndex(null);
     }
 
     /*************************************************************************************************
-     * Description: This function adds artsits to shows to the database for a specific show.
+     * Description: This function gets the index like getFacetIndex, but a build can be cancelled. A
+     *              cancelled build throws OperationCanceledException at the next cursor window it
+     *              reads and nothing is kept, so the next call starts over.
      *
      * Inputs:
-     *      @param show_id - id of the show
-     *      @param artists - list of artists
+     *      @param signal - cancels the build, or null
      *
-     * Last Modified: 12/14/16
+     * Outputs:
+     *      FacetIndex - genre, day and venue facets over show ids
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private void makeArtistsToShows(int show_id, String[] artists) {
-        // for all artists in the list
-       for (String artistName: artists) {
-           // increments artistshow id
-           artistShowCount ++;
-           // content values hold keys & values to put in database
-           ContentValues values = new ContentValues();
-           // puts values in contentvalues
-           values.put(ARTISTSHOW_id, artistShowCount);
-           values.put(ARTISTSHOW_show_id, show_id);
-           // if the artist hasn't been created yet
-           if (findArtistByName(artistName) == -1) {
-               // increments artist id count
-               artistCount ++;
-               // adds artist to database
-               addArtist(artistName, null, -1, null, null, null, null, null);
-           }
-           // adds artist count
-           values.put(ARTISTSHOW_artist_id, artistCount);
-           // insert row in database
-           currentDB.insert(ARTIST_SHOW_TABLE_NAME, null, values);
+    public synchronized FacetIndex getFacetIndex(CancellationSignal signal) {
+        // if the index hasn't been built yet
+        if (facetIndex == null) {
+            Startup.beginSection("FacetIndex.build");
+            try {
+                facetIndex = FacetIndex.build(this, signal);
+            } finally {
+                Startup.endSection();
+            }
         }
+        return facetIndex;
     }
 
     /*************************************************************************************************
-     * Description: This function adds a venue to the database.
+     * Description: This function drops the in-memory indexes so they are rebuilt on next use.
      *
-     * Inputs:
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void invalidateIndexes() {
+        facetIndex = null;
+        artistShowIndex = null;
+        spatialIndex = null;
+        calendarIndex = null;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the calendar index of shows by day, building it the
+     *              first time.
+     *
+     * Outputs:
+     *      ShowCalendarIndex - show ids of each day, in start time order
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public ShowCalendarIndex getCalendarIndex() {
+        return getCalendarIndex(null);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the index like getCalendarIndex, but a build can be
+     *              cancelled. A cancelled build throws OperationCanceledException at the next
+     *              cursor window it reads and nothing is kept, so the next call starts over.
+     *
+     * Inputs:
+     *      @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      ShowCalendarIndex - show ids of each day, in start time order
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized ShowCalendarIndex getCalendarIndex(CancellationSignal signal) {
+        // if the index hasn't been built yet
+        if (calendarIndex == null) {
+            Startup.beginSection("ShowCalendarIndex.build");
+            try {
+                calendarIndex = ShowCalendarIndex.build(this, signal);
+            } finally {
+                Startup.endSection();
+            }
+        }
+        return calendarIndex;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a cursor of every show that has a start time, with its
+     *              name and venue name, in start time order.
+     *
+     * Inputs:
+     *      @param signal - cancels the query, or null
+     *
+     * Outputs:
+     *      Cursor - cursor of show ids, start times, show names and venue names
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor getShowCalendarCursor(CancellationSignal signal) {
+        // database query string
+        String selectQuery = "SELECT " + SHOW_TABLE_NAME + "." + SHOW_id + ", " + SHOW_TABLE_NAME + "." + SHOW_start_datetime + ", " +
+                SHOW_TABLE_NAME + "." + SHOW_name + ", " + VENUE_TABLE_NAME + "." + VENUE_name +
+                " FROM " + SHOW_TABLE_NAME + " LEFT JOIN " + VENUE_TABLE_NAME +
+                " ON " + SHOW_TABLE_NAME + "." + SHOW_venue_id + " = " + VENUE_TABLE_NAME + "." + VENUE_id +
+                " WHERE " + SHOW_TABLE_NAME + "." + SHOW_start_datetime + " IS NOT NULL" +
+                " ORDER BY " + SHOW_TABLE_NAME + "." + SHOW_start_datetime + ";";
+        // executes database query and gets cursor of all dated shows
+        return this.getReadableDatabase().rawQuery(selectQuery, null, signal);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the spatial index of venues and shows, building it the
+     *              first time.
+     *
+     * Outputs:
+     *      SpatialIndex - quadtree of venue and show locations
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public SpatialIndex getSpatialIndex() {
+        return getSpatialIndex(null);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the index like getSpatialIndex, but a build can be cancelled.
+     *              A cancelled build throws OperationCanceledException at the next cursor window it
+     *              reads and nothing is kept, so the next call starts over.
+     *
+     * Inputs:
+     *      @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      SpatialIndex - quadtree of venue and show locations
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized SpatialIndex getSpatialIndex(CancellationSignal signal) {
+        // if the index hasn't been built yet
+        if (spatialIndex == null) {
+            Startup.beginSection("SpatialIndex.build");
+            try {
+                spatialIndex = SpatialIndex.build(this, signal);
+            } finally {
+                Startup.endSection();
+            }
+        }
+        return spatialIndex;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a cursor of every venue that has a location, with one row
+     *              for each of its shows, in one query. The rows are ordered by venue and then
+     *              by start time, so each venue's shows are next to each other and in order.
+     *              Venues without shows have one row with a null show id and name.
+     *
+     * Inputs:
+     *      @param signal - cancels the query, or null
+     *
+     * Outputs:
+     *      Cursor - cursor with the columns at the VENUE_SHOWS_ positions
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor getVenueShowsCursor(CancellationSignal signal) {
+        // database query string
+        String selectQuery = "SELECT " + VENUE_TABLE_NAME + "." + VENUE_id + ", " + VENUE_TABLE_NAME + "." + VENUE_name + ", " +
+                VENUE_TABLE_NAME + "." + VENUE_latitude + ", " + VENUE_TABLE_NAME + "." + VENUE_longitude + ", " +
+                SHOW_TABLE_NAME + "." + SHOW_id + ", " + SHOW_TABLE_NAME + "." + SHOW_name +
+                " FROM " + VENUE_TABLE_NAME + " LEFT JOIN " + SHOW_TABLE_NAME +
+                " ON " + SHOW_TABLE_NAME + "." + SHOW_venue_id + " = " + VENUE_TABLE_NAME + "." + VENUE_id +
+                " WHERE " + makeHasLocationSQL(VENUE_TABLE_NAME) +
+                " ORDER BY " + VENUE_TABLE_NAME + "." + VENUE_id + ", " + SHOW_TABLE_NAME + "." + SHOW_start_datetime +
+                ", " + SHOW_TABLE_NAME + "." + SHOW_id + ";";
+        // executes database query and gets cursor of all located venues and their shows
+        return this.getReadableDatabase().rawQuery(selectQuery, null, signal);
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the SQL condition for a venue that has a location.
+     *              Venues that couldn't be found are stored with -1 for both coordinates.
+     *
+     * Inputs:
+     *      @param table - name or alias of the venue table in the query
+     *
+     * Outputs:
+     *      String - SQL condition
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String makeHasLocationSQL(String table) {
+        return table + "." + VENUE_latitude + " IS NOT NULL AND " + table + "." + VENUE_longitude + " IS NOT NULL AND NOT (" +
+                table + "." + VENUE_latitude + " = -1 AND " + table + "." + VENUE_longitude + " = -1)";
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the artist to show index, building it the first time.
+     *
+     * Outputs:
+     *      ArtistShowIndex - posting lists of the artist to show join table
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public ArtistShowIndex getArtistShowIndex() {
+        return getArtistShowIndex(null);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the index like getArtistShowIndex, but a build can be
+     *              cancelled. A cancelled build throws OperationCanceledException at the next
+     *              cursor window it reads and nothing is kept, so the next call starts over.
+     *
+     * Inputs:
+     *      @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      ArtistShowIndex - posting lists of the artist to show join table
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized ArtistShowIndex getArtistShowIndex(CancellationSignal signal) {
+        // if the index hasn't been built yet
+        if (artistShowIndex == null) {
+            Startup.beginSection("ArtistShowIndex.build");
+            try {
+                artistShowIndex = ArtistShowIndex.build(this, signal);
+            } finally {
+                Startup.endSection();
+            }
+        }
+        return artistShowIndex;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a cursor of all artist to show pairs, sorted by artist
+     *              and then by show.
+     *
+     * Inputs:
+     *      @param signal - cancels the query, or null
+     *
+     * Outputs:
+     *      Cursor - cursor of artist ids and show ids
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor getArtistShowPairsCursor(CancellationSignal signal) {
+        // database query string
+        String selectQuery = "SELECT " + ARTISTSHOW_artist_id + ", " + ARTISTSHOW_show_id + " FROM " + ARTIST_SHOW_TABLE_NAME +
+                " ORDER BY " + ARTISTSHOW_artist_id + ", " + ARTISTSHOW_show_id + ";";
+        // executes database query and gets cursor of all pairs
+        return this.getReadableDatabase().rawQuery(selectQuery, null, signal);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a cursor of the id, venue id and start time of all shows.
+     *              Start times that aren't stored as milliseconds come back as null, the same as
+     *              a show without a start time, instead of being read as 0.
+     *
+     * Inputs:
+     *      @param signal - cancels the query, or null
+     *
+     * Outputs:
+     *      Cursor - cursor of show ids, venue ids and start times
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor getShowFacetsCursor(CancellationSignal signal) {
+        // database query string
+        String selectQuery = "SELECT " + SHOW_id + ", " + SHOW_venue_id + ", CASE WHEN typeof(" + SHOW_start_datetime +
+                ") = 'integer' THEN " + SHOW_start_datetime + " END FROM " + SHOW_TABLE_NAME + ";";
+        // executes database query and gets cursor of all shows
+        return this.getReadableDatabase().rawQuery(selectQuery, null, signal);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a cursor of show ids and the genres of their artists.
+     *
+     * Inputs:
+     *      @param signal - cancels the query, or null
+     *
+     * Outputs:
+     *      Cursor - cursor of show ids and genres
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor getShowGenresCursor(CancellationSignal signal) {
+        // executes database query and gets cursor of all show genres
+        return this.getReadableDatabase().rawQuery(makeShowGenresSQL("") + ";", null, signal);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a cursor of the genres of the artists of one show.
+     *
+     * Inputs:
+     *      @param showID - id of the show
+     *
+     * Outputs:
+     *      Cursor - cursor of show ids and genres
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public Cursor getShowGenresCursor(int showID) {
+        // database query string
+        String selectQuery = makeShowGenresSQL(" WHERE " + ARTIST_SHOW_TABLE_NAME + "." + ARTISTSHOW_show_id + " = ?") + ";";
+        // executes database query and gets cursor of the show's genres
+        return this.getReadableDatabase().rawQuery(selectQuery, new String[]{String.valueOf(showID)});
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the SQL to join shows to the genres of their artists.
+     *
+     * Inputs:
+     *      @param where - where clause to add to the query, or an empty string
+     *
+     * Outputs:
+     *      String - SQL query
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private String makeShowGenresSQL(String where) {
+        return "SELECT DISTINCT " + ARTIST_SHOW_TABLE_NAME + "." + ARTISTSHOW_show_id + ", " + ARTIST_TABLE_NAME + "." + ARTIST_genre_id +
+                " FROM " + ARTIST_SHOW_TABLE_NAME + " JOIN " + ARTIST_TABLE_NAME +
+                " ON " + ARTIST_SHOW_TABLE_NAME + "." + ARTISTSHOW_artist_id + " = " + ARTIST_TABLE_NAME + "." + ARTIST_id + where;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the id of a venue by looking up by name.
+     *
+     * Inputs:
+     *      @param venueName - the venue name to lookup
+     *
+     * Outputs:
+     *      int - id of the venue, or -1 if there is no venue with that name
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int findVenueIdByName(String venueName) {
+        // database query string
+        String selectQuery = "SELECT " + VENUE_id + " FROM " + VENUE_TABLE_NAME + " WHERE " + VENUE_name + " = ?;";
+        // executes database query and gets cursor of matching venues
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, new String[]{venueName});
+        int venueID = -1;
+        // if there is a result
+        if (cursor.moveToFirst()) {
+            venueID = cursor.getInt(0);
+        }
+        // closes cursor
+        cursor.close();
+        return venueID;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the id of the artist by looking up by name.
+     *
+     * Inputs:
+     *      @param artistName - the artist name to lookup
+     *
+     * Outputs:
+     *      int - id of the artist
+     *
+     * Last Modified: 12/14/16
+     *************************************************************************************************/
+    public int findArtistByName(String artistName) {
+        // map of all artists
+        Map<Integer, String> artistMap = getAllArtists();
+        // iterator to go through map
+        Iterator it = artistMap.entrySet().iterator();
+        // while there is another entry
+        while (it.hasNext()) {
+            // gets pair of key and value
+            Map.Entry pair = (Map.Entry)it.next();
+            // if the input name equals the artist name
+            if (artistName.equals(pair.getValue())) {
+                // return the artist's id
+                return (int) pair.getKey();
+            }
+            // avoids a ConcurrentModificationException
+            it.remove();
+        }
+        // returns a null value
+        return -1;
+    }
+    /*************************************************************************************************
+     * Description: This function gets the venue's latitude and longitude by the venue id.
+     *
+     * Inputs:
+     *      @param venueID - the venue ID to find
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or -1 for both if it has none
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double[] findVenueLatLngByID(int venueID) {
+        // database query string
+        String selectQuery = "SELECT " + VENUE_latitude + ", " + VENUE_longitude + " FROM " + VENUE_TABLE_NAME +
+                " WHERE " + VENUE_id + " = ? AND " + makeHasLocationSQL(VENUE_TABLE_NAME) + ";";
+        // executes database query and gets cursor of the venue's location
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, new String[]{String.valueOf(venueID)});
+        // array of null values, if the venue isn't found or has no location
+        double[] location = new double[] {-1, -1};
+        // if there is a venue found
+        if (cursor.moveToFirst()) {
+            location = new double[]{cursor.getDouble(0), cursor.getDouble(1)};
+        }
+        // closes cursor
+        cursor.close();
+        return location;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the venue name by the venue id.
+     *
+     * Inputs:
+     *      @param venueID - the venue ID to find
+     *
+     * Outputs:
+     *      string - venue name.
+     *
+     * Last Modified: 12/14/16
+     *************************************************************************************************/
+    public String findVenueNameByID(int venueID) {
+        // creates new map
+        Map<Integer, String> venueMap = new HashMap<Integer, String>();
+        // database query string
+        String selectQuery = "SELECT * FROM " + VENUE_TABLE_NAME + ";";
+        // executes database query and gets cursor of all artists
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, null);
+        // if there is a result
+        if ((cursor.moveToFirst())) {
+            do {
+                // if there is a venue found
+                if (venueID == cursor.getInt(9)) {
+                    // return the venue's id
+                    return cursor.getString(6);
+                }
+            } while (cursor.moveToNext());
+        }
+        // closes cursor
+        cursor.close();
+        // returns map
+        return "";
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds artsits to shows to the database for a specific show, and
+     *              adds the show to each artist's show count, venues, cities and next show.
+     *
+     * Inputs:
+     *      @param database - database to write, which is already in a transaction
+     *      @param show_id - id of the show
+     *      @param venueID - id of the show's venue, or -1 if it has none
+     *      @param startMillis - show's start time in milliseconds since the epoch
+     *      @param artists - list of artists
+     *
+     * Outputs:
+     *      int[] - id of each artist, in the order of the list
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private int[] makeArtistsToShows(SQLiteDatabase database, int show_id, int venueID, long startMillis, String[] artists) {
+        int[] artistIDs = new int[artists.length];
+        // town and state of the venue, looked up once for all the artists
+        String[] city = findVenueCityByID(venueID);
+        // statements reused for every artist
+        SQLiteStatement venueStatement = database.compileStatement("UPDATE " + ARTIST_VENUE_TABLE_NAME + " SET " +
+                ROLLUP_show_count + " = " + ROLLUP_show_count + " + 1 WHERE " + ROLLUP_artist_id + " = ? AND " + ROLLUP_venue_id + " = ?;");
+        SQLiteStatement cityStatement = database.compileStatement("UPDATE " + ARTIST_CITY_TABLE_NAME + " SET " +
+                ROLLUP_show_count + " = " + ROLLUP_show_count + " + 1 WHERE " + ROLLUP_artist_id + " = ? AND " + ROLLUP_town + " = ? AND " +
+                ROLLUP_state + " = ?;");
+        try {
+            // for all artists in the list
+            for (int i = 0; i < artists.length; i++) {
+                String artistName = artists[i];
+                // increments artistshow id
+                artistShowCount ++;
+                // content values hold keys & values to put in database
+                ContentValues values = new ContentValues();
+                // puts values in contentvalues
+                values.put(ARTISTSHOW_id, artistShowCount);
+                values.put(ARTISTSHOW_show_id, show_id);
+                // id of the artist, if they have been created already
+                int artistID = findArtistByName(artistName);
+                // if the artist hasn't been created yet
+                if (artistID == -1) {
+                    // adds artist to database
+                    addArtist(artistName, null, -1, null, null, null, null, null);
+                    // the new artist has the latest id
+                    artistID = artistCount;
+                }
+                // adds artist id
+                values.put(ARTISTSHOW_artist_id, artistID);
+                // insert row in database
+                database.insert(ARTIST_SHOW_TABLE_NAME, null, values);
+                artistIDs[i] = artistID;
+                // counts the show at its venue and in its city, noting if either is new for the artist
+                boolean newVenue = false;
+                if (venueID != -1) {
+                    venueStatement.bindLong(1, artistID);
+                    venueStatement.bindLong(2, venueID);
+                    if (venueStatement.executeUpdateDelete() == 0) {
+                        database.execSQL("INSERT INTO " + ARTIST_VENUE_TABLE_NAME + " (" + ROLLUP_artist_id + ", " + ROLLUP_venue_id + ", " +
+                                ROLLUP_show_count + ") VALUES (?, ?, 1);", new Object[]{artistID, venueID});
+                        newVenue = true;
+                    }
+                }
+                boolean newCity = false;
+                if (city != null) {
+                    cityStatement.bindLong(1, artistID);
+                    cityStatement.bindString(2, city[0]);
+                    cityStatement.bindString(3, city[1]);
+                    if (cityStatement.executeUpdateDelete() == 0) {
+                        database.execSQL("INSERT INTO " + ARTIST_CITY_TABLE_NAME + " (" + ROLLUP_artist_id + ", " + ROLLUP_town + ", " +
+                                ROLLUP_state + ", " + ROLLUP_show_count + ") VALUES (?, ?, ?, 1);", new Object[]{artistID, city[0], city[1]});
+                        newCity = true;
+                    }
+                }
+                updateArtistRollup(database, artistID, show_id, startMillis, newVenue, newCity);
+            }
+        } finally {
+            venueStatement.close();
+            cityStatement.close();
+        }
+        return artistIDs;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a show to an artist's rollup row, creating the row for the
+     *              artist's first show. The show becomes the artist's next show if it hasn't
+     *              started yet and is sooner than the stored one, or the stored one has passed.
+     *
+     * Inputs:
+     *      @param database - database to write, which is already in a transaction
+     *      @param artistID - id of the artist
+     *      @param showID - id of the show
+     *      @param startMillis - show's start time in milliseconds since the epoch
+     *      @param newVenue - whether the show is the artist's first at its venue
+     *      @param newCity - whether the show is the artist's first in its city
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void updateArtistRollup(SQLiteDatabase database, int artistID, int showID, long startMillis, boolean newVenue, boolean newCity) {
+        long now = System.currentTimeMillis();
+        database.execSQL("INSERT OR IGNORE INTO " + ARTIST_ROLLUP_TABLE_NAME + " (" + ROLLUP_artist_id + ", " + ROLLUP_show_count + ", " +
+                ROLLUP_venue_count + ", " + ROLLUP_city_count + ") VALUES (?, 0, 0, 0);", new Object[]{artistID});
+        // every column is set from the old values, so both next show columns use the same test
+        String isNextShow = "(? >= ? AND (" + ROLLUP_next_start + " IS NULL OR " + ROLLUP_next_start + " < ? OR ? < " + ROLLUP_next_start + "))";
+        database.execSQL("UPDATE " + ARTIST_ROLLUP_TABLE_NAME + " SET " +
+                ROLLUP_show_count + " = " + ROLLUP_show_count + " + 1, " +
+                ROLLUP_venue_count + " = " + ROLLUP_venue_count + " + ?, " +
+                ROLLUP_city_count + " = " + ROLLUP_city_count + " + ?, " +
+                ROLLUP_first_start + " = MIN(IFNULL(" + ROLLUP_first_start + ", ?), ?), " +
+                ROLLUP_last_start + " = MAX(IFNULL(" + ROLLUP_last_start + ", ?), ?), " +
+                ROLLUP_next_show_id + " = CASE WHEN " + isNextShow + " THEN ? ELSE " + ROLLUP_next_show_id + " END, " +
+                ROLLUP_next_start + " = CASE WHEN " + isNextShow + " THEN ? ELSE " + ROLLUP_next_start + " END" +
+                " WHERE " + ROLLUP_artist_id + " = ?;",
+                new Object[]{newVenue ? 1 : 0, newCity ? 1 : 0, startMillis, startMillis, startMillis, startMillis,
+                        startMillis, now, now, startMillis, showID,
+                        startMillis, now, now, startMillis, startMillis,
+                        artistID});
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the town and state of a venue.
+     *
+     * Inputs:
+     *      @param venueID - the venue ID to find
+     *
+     * Outputs:
+     *      String[] - index 0 is the town, index 1 is the state or an empty string, or null if
+     *                 the venue isn't found or has no town
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private String[] findVenueCityByID(int venueID) {
+        // database query string
+        String selectQuery = "SELECT " + VENUE_town + ", " + VENUE_state + " FROM " + VENUE_TABLE_NAME + " WHERE " + VENUE_id + " = ?;";
+        // executes database query and gets cursor of the venue's town and state
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, new String[]{String.valueOf(venueID)});
+        String[] city = null;
+        // if there is a venue found with a town
+        if (cursor.moveToFirst() && !cursor.isNull(0) && !cursor.getString(0).trim().isEmpty()) {
+            city = new String[]{cursor.getString(0).trim(), nullToEmpty(cursor.getString(1)).trim()};
+        }
+        // closes cursor
+        cursor.close();
+        return city;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an artist's profile from the rollup tables, which are kept
+     *              up to date as shows are added, so no show rows are read. If the stored next
+     *              show has already started, the next one is found and stored first.
+     *
+     * Inputs:
+     *      @param artistID - id of the artist
+     *
+     * Outputs:
+     *      ArtistProfile - the artist's details and stats, or null if there is no such artist
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public ArtistProfile getArtistProfile(int artistID) {
+        String[] args = new String[]{String.valueOf(artistID)};
+        // database query string for the artist, their rollup row and their next show
+        String selectQuery = "SELECT a." + ARTIST_name + ", a." + ARTIST_genre_id + ", a." + ARTIST_town + ", a." + ARTIST_state + ", r." +
+                ROLLUP_show_count + ", r." + ROLLUP_first_start + ", r." + ROLLUP_last_start + ", s." + SHOW_name + ", r." + ROLLUP_next_start +
+                " FROM " + ARTIST_TABLE_NAME + " a LEFT JOIN " + ARTIST_ROLLUP_TABLE_NAME + " r ON r." + ROLLUP_artist_id + " = a." + ARTIST_id +
+                " LEFT JOIN " + SHOW_TABLE_NAME + " s ON s." + SHOW_id + " = r." + ROLLUP_next_show_id +
+                " WHERE a." + ARTIST_id + " = ?;";
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, args);
+        // if there is no such artist
+        if (!cursor.moveToFirst()) {
+            cursor.close();
+            return null;
+        }
+        // if the stored next show has passed, finds the new one and reads the row again
+        if (!cursor.isNull(8) && cursor.getLong(8) < System.currentTimeMillis()) {
+            cursor.close();
+            refreshNextShow(artistID);
+            cursor = this.getReadableDatabase().rawQuery(selectQuery, args);
+            cursor.moveToFirst();
+        }
+        String name = cursor.getString(0);
+        String genre = cursor.getString(1);
+        String town = cursor.getString(2);
+        String state = cursor.getString(3);
+        int shows = cursor.isNull(4) ? 0 : cursor.getInt(4);
+        long firstStart = cursor.isNull(5) ? EventResults.NO_TIME : cursor.getLong(5);
+        long lastStart = cursor.isNull(6) ? EventResults.NO_TIME : cursor.getLong(6);
+        String nextShowName = cursor.isNull(8) ? null : cursor.getString(7);
+        long nextStart = cursor.isNull(8) ? EventResults.NO_TIME : cursor.getLong(8);
+        // closes cursor
+        cursor.close();
+
+        // venues played, most played first
+        cursor = this.getReadableDatabase().rawQuery("SELECT v." + VENUE_name + ", av." + ROLLUP_show_count + " FROM " + ARTIST_VENUE_TABLE_NAME +
+                " av JOIN " + VENUE_TABLE_NAME + " v ON v." + VENUE_id + " = av." + ROLLUP_venue_id + " WHERE av." + ROLLUP_artist_id + " = ?" +
+                " ORDER BY av." + ROLLUP_show_count + " DESC;", args);
+        String[] venueNames = new String[cursor.getCount()];
+        int[] venueShowCounts = new int[venueNames.length];
+        for (int i = 0; cursor.moveToNext(); i++) {
+            venueNames[i] = cursor.getString(0);
+            venueShowCounts[i] = cursor.getInt(1);
+        }
+        cursor.close();
+
+        // cities played, most played first
+        cursor = this.getReadableDatabase().rawQuery("SELECT " + ROLLUP_town + ", " + ROLLUP_state + ", " + ROLLUP_show_count + " FROM " +
+                ARTIST_CITY_TABLE_NAME + " WHERE " + ROLLUP_artist_id + " = ? ORDER BY " + ROLLUP_show_count + " DESC;", args);
+        String[] cities = new String[cursor.getCount()];
+        int[] cityShowCounts = new int[cities.length];
+        for (int i = 0; cursor.moveToNext(); i++) {
+            String cityState = cursor.getString(1);
+            cities[i] = cityState.isEmpty() ? cursor.getString(0) : cursor.getString(0) + ", " + cityState;
+            cityShowCounts[i] = cursor.getInt(2);
+        }
+        cursor.close();
+
+        return new ArtistProfile(name, genre, town, state, shows, firstStart, lastStart, nextShowName, nextStart,
+                venueNames, venueShowCounts, cities, cityShowCounts);
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds an artist's next show that hasn't started yet and stores
+     *              it in their rollup row, or clears it if there is none. It is one update that
+     *              reads only the artist's join rows and the shows they point to.
+     *
+     * Inputs:
+     *      @param artistID - id of the artist
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void refreshNextShow(int artistID) {
+        long now = System.currentTimeMillis();
+        // the earliest show of the artist that starts from now on
+        String nextShow = makeNextShowSQL("?");
+        this.getWritableDatabase().execSQL("UPDATE " + ARTIST_ROLLUP_TABLE_NAME + " SET " +
+                ROLLUP_next_show_id + " = (" + nextShow + "), " +
+                ROLLUP_next_start + " = (SELECT " + SHOW_start_datetime + " FROM " + SHOW_TABLE_NAME + " WHERE " + SHOW_id + " = (" + nextShow + "))" +
+                " WHERE " + ROLLUP_artist_id + " = ?;",
+                new Object[]{artistID, now, artistID, now, artistID});
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds shows at a location to the density tile of every heatmap
+     *              zoom level, and raises each level's busiest count if needed.
+     *
+     * Inputs:
+     *      @param database - database to write, which may already be in a transaction
+     *      @param latitude - the shows' latitude
+     *      @param longitude - the shows' longitude
+     *      @param amount - number of shows to add
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void addDensity(SQLiteDatabase database, double latitude, double longitude, int amount) {
+        database.beginTransaction();
+        try {
+            for (int zoom = 0; zoom <= DensityTiles.MAX_ZOOM; zoom++) {
+                // tile x, tile y and cell of the location
+                int[] cell = DensityTiles.locate(latitude, longitude, zoom);
+                String[] key = {String.valueOf(zoom), String.valueOf(cell[0]), String.valueOf(cell[1])};
+                Cursor cursor = database.rawQuery("SELECT " + DENSITY_counts + " FROM " + DENSITY_TILE_TABLE_NAME + " WHERE " +
+                        DENSITY_zoom + " = ? AND " + DENSITY_x + " = ? AND " + DENSITY_y + " = ?;", key);
+                int[] counts = DensityTiles.decode(cursor.moveToFirst() ? cursor.getBlob(0) : null);
+                // closes cursor
+                cursor.close();
+                counts[cell[2]] += amount;
+                // content values hold keys & values to put in database
+                ContentValues values = new ContentValues();
+                values.put(DENSITY_zoom, zoom);
+                values.put(DENSITY_x, cell[0]);
+                values.put(DENSITY_y, cell[1]);
+                values.put(DENSITY_counts, DensityTiles.encode(counts));
+                database.insertWithOnConflict(DENSITY_TILE_TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                // keeps the busiest cell of the level, which the heatmap is scaled to
+                database.execSQL("INSERT OR REPLACE INTO " + DENSITY_LEVEL_TABLE_NAME + " (" + DENSITY_zoom + ", " + DENSITY_max_count +
+                        ") VALUES (?, MAX(?, IFNULL((SELECT " + DENSITY_max_count + " FROM " + DENSITY_LEVEL_TABLE_NAME +
+                        " WHERE " + DENSITY_zoom + " = ?), 0)));", new Object[]{zoom, counts[cell[2]], zoom});
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function builds the density tiles from every stored show, replacing any
+     *              tiles already there. It runs once, when the database is created or upgraded,
+     *              and after that the tiles are kept up to date as shows are added and venues
+     *              are located.
+     *
+     * Inputs:
+     *    @param database - the database being created or upgraded
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void buildDensityTiles(SQLiteDatabase database) {
+        // counts of every tile, by zoom, x and y, and the busiest count of each level
+        Map<String, int[]> tiles = new HashMap<String, int[]>();
+        int[] maxCounts = new int[DensityTiles.MAX_ZOOM + 1];
+        // cursor of every located venue that has shows, with its number of shows
+        Cursor cursor = database.rawQuery("SELECT " + VENUE_TABLE_NAME + "." + VENUE_latitude + ", " + VENUE_TABLE_NAME + "." + VENUE_longitude +
+                ", COUNT(*) FROM " + SHOW_TABLE_NAME + " JOIN " + VENUE_TABLE_NAME + " ON " + SHOW_TABLE_NAME + "." + SHOW_venue_id +
+                " = " + VENUE_TABLE_NAME + "." + VENUE_id + " WHERE " + makeHasLocationSQL(VENUE_TABLE_NAME) +
+                " GROUP BY " + VENUE_TABLE_NAME + "." + VENUE_id + ";", null);
+        // if there is a result
+        if (cursor.moveToFirst()) {
+            do {
+                for (int zoom = 0; zoom <= DensityTiles.MAX_ZOOM; zoom++) {
+                    int[] cell = DensityTiles.locate(cursor.getDouble(0), cursor.getDouble(1), zoom);
+                    String key = zoom + ":" + cell[0] + ":" + cell[1];
+                    int[] counts = tiles.get(key);
+                    if (counts == null) {
+                        counts = new int[DensityTiles.CELLS * DensityTiles.CELLS];
+                        tiles.put(key, counts);
+                    }
+                    counts[cell[2]] += cursor.getInt(2);
+                    maxCounts[zoom] = Math.max(maxCounts[zoom], counts[cell[2]]);
+                }
+            } while (cursor.moveToNext());
+        }
+        // closes cursor
+        cursor.close();
+        // writes every tile and level in one transaction
+        database.beginTransaction();
+        try {
+            database.delete(DENSITY_TILE_TABLE_NAME, null, null);
+            database.delete(DENSITY_LEVEL_TABLE_NAME, null, null);
+            for (Map.Entry<String, int[]> tile: tiles.entrySet()) {
+                String[] lineSplit = tile.getKey().split(":");
+                ContentValues values = new ContentValues();
+                values.put(DENSITY_zoom, Integer.valueOf(lineSplit[0]));
+                values.put(DENSITY_x, Integer.valueOf(lineSplit[1]));
+                values.put(DENSITY_y, Integer.valueOf(lineSplit[2]));
+                values.put(DENSITY_counts, DensityTiles.encode(tile.getValue()));
+                database.insertWithOnConflict(DENSITY_TILE_TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (int zoom = 0; zoom <= DensityTiles.MAX_ZOOM; zoom++) {
+                ContentValues values = new ContentValues();
+                values.put(DENSITY_zoom, zoom);
+                values.put(DENSITY_max_count, maxCounts[zoom]);
+                database.insertWithOnConflict(DENSITY_LEVEL_TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the counts needed to draw one density tile in one query:
+     *              the busiest cell on the zoom level, and the tile and the eight tiles around
+     *              it. Columns wrap around 180 degrees, rows off the top or bottom of the map
+     *              have no tiles.
+     *
+     * Inputs:
+     *      @param zoom - tile's zoom level
+     *      @param x - tile's column
+     *      @param y - tile's row
+     *
+     * Outputs:
+     *      DensityTiles.Neighborhood - the tile's counts with a one cell margin, or null if there
+     *                                  are no shows on the zoom level
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public DensityTiles.Neighborhood getDensityNeighborhood(int zoom, int x, int y) {
+        int tiles = 1 << zoom;
+        // columns of the tiles to the west, the tile itself and the east
+        int[] columns = {(x - 1 + tiles) % tiles, x, (x + 1) % tiles};
+        // database query string, the level row is returned even if none of the tiles have shows
+        String selectQuery = "SELECT " + DENSITY_LEVEL_TABLE_NAME + "." + DENSITY_max_count + ", " +
+                DENSITY_TILE_TABLE_NAME + "." + DENSITY_x + ", " + DENSITY_TILE_TABLE_NAME + "." + DENSITY_y + ", " +
+                DENSITY_TILE_TABLE_NAME + "." + DENSITY_counts +
+                " FROM " + DENSITY_LEVEL_TABLE_NAME + " LEFT JOIN " + DENSITY_TILE_TABLE_NAME +
+                " ON " + DENSITY_TILE_TABLE_NAME + "." + DENSITY_zoom + " = " + DENSITY_LEVEL_TABLE_NAME + "." + DENSITY_zoom +
+                " AND " + DENSITY_TILE_TABLE_NAME + "." + DENSITY_x + " IN (?, ?, ?)" +
+                " AND " + DENSITY_TILE_TABLE_NAME + "." + DENSITY_y + " BETWEEN ? AND ?" +
+                " WHERE " + DENSITY_LEVEL_TABLE_NAME + "." + DENSITY_zoom + " = ?;";
+        // executes database query and gets cursor of the tiles
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, new String[]{String.valueOf(columns[0]),
+                String.valueOf(columns[1]), String.valueOf(columns[2]), String.valueOf(y - 1), String.valueOf(y + 1), String.valueOf(zoom)});
+        DensityTiles.Neighborhood neighborhood = null;
+        // if there is a result
+        if (cursor.moveToFirst()) {
+            neighborhood = new DensityTiles.Neighborhood(cursor.getInt(0));
+            do {
+                // if the row has a tile
+                if (!cursor.isNull(1)) {
+                    int[] counts = DensityTiles.decode(cursor.getBlob(3));
+                    int tileX = cursor.getInt(1);
+                    int dy = cursor.getInt(2) - y;
+                    // a column can be more than one neighbour when there are fewer than three tiles across
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (columns[dx + 1] == tileX) {
+                            neighborhood.add(counts, dx, dy);
+                        }
+                    }
+                }
+            } while (cursor.moveToNext());
+        }
+        // closes cursor
+        cursor.close();
+        return neighborhood;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets venues that don't have a latitude and longitude yet, in id
+     *              order, with their full address.
+     *
+     * Inputs:
+     *      @param afterID - only venues with a larger id are returned
+     *      @param limit - most venues to return
+     *
+     * Outputs:
+     *      List<BatchGeocoder.PendingVenue> - venue ids and addresses
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public List<BatchGeocoder.PendingVenue> getVenuesMissingLocation(int afterID, int limit) {
+        List<BatchGeocoder.PendingVenue> venues = new ArrayList<BatchGeocoder.PendingVenue>();
+        // database query string
+        String selectQuery = "SELECT " + VENUE_id + ", " + VENUE_address + ", " + VENUE_town + ", " + VENUE_state + ", " + VENUE_zip_code +
+                " FROM " + VENUE_TABLE_NAME + " WHERE " + VENUE_id + " > ? AND (" + VENUE_latitude + " IS NULL OR " +
+                VENUE_longitude + " IS NULL OR (" + VENUE_latitude + " = -1 AND " + VENUE_longitude + " = -1))" +
+                " ORDER BY " + VENUE_id + " LIMIT ?;";
+        // executes database query and gets cursor of venues without a location
+        Cursor cursor = this.getReadableDatabase().rawQuery(selectQuery, new String[]{String.valueOf(afterID), String.valueOf(limit)});
+        // if there is a result
+        if (cursor.moveToFirst()) {
+            do {
+                // creates string of the total address, the same way the add venue form does
+                String fullAddress = nullToEmpty(cursor.getString(1)) + ", " + nullToEmpty(cursor.getString(2)) + ", " +
+                        nullToEmpty(cursor.getString(3)) + " " + nullToEmpty(cursor.getString(4));
+                venues.add(new BatchGeocoder.PendingVenue(cursor.getInt(0), fullAddress));
+            } while (cursor.moveToNext());
+        }
+        // closes cursor
+        cursor.close();
+        return venues;
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets the latitude and longitude of many venues in one transaction.
+     *
+     * Inputs:
+     *      @param venueIDs - ids of the venues
+     *      @param latitudes - latitude of each venue
+     *      @param longitudes - longitude of each venue
+     *      @param count - number of venues to update from the start of the arrays
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void updateVenueLocations(int[] venueIDs, double[] latitudes, double[] longitudes, int count) {
+        // nothing to write
+        if (count == 0) {
+            return;
+        }
+        SQLiteDatabase database = this.getWritableDatabase();
+        database.beginTransaction();
+        try {
+            // one statement reused for every venue
+            SQLiteStatement statement = database.compileStatement("UPDATE " + VENUE_TABLE_NAME + " SET " +
+                    VENUE_latitude + " = ?, " + VENUE_longitude + " = ? WHERE " + VENUE_id + " = ?;");
+            // counts a venue's shows, which now go on the heatmap
+            SQLiteStatement showCountStatement = database.compileStatement("SELECT COUNT(*) FROM " + SHOW_TABLE_NAME +
+                    " WHERE " + SHOW_venue_id + " = ?;");
+            try {
+                for (int i = 0; i < count; i++) {
+                    statement.bindDouble(1, latitudes[i]);
+                    statement.bindDouble(2, longitudes[i]);
+                    statement.bindLong(3, venueIDs[i]);
+                    statement.executeUpdateDelete();
+                    showCountStatement.bindLong(1, venueIDs[i]);
+                    int shows = (int) showCountStatement.simpleQueryForLong();
+                    if (shows > 0) {
+                        addDensity(database, latitudes[i], longitudes[i], shows);
+                    }
+                }
+            } finally {
+                statement.close();
+                showCountStatement.close();
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        // venues and their shows moved, so the map's index is rebuilt on next use
+        spatialIndex = null;
+    }
+
+    /*************************************************************************************************
+     * Description: This function turns a null string into an empty one.
+     *
+     * Inputs:
+     *      @param value - the string, or null
+     *
+     * Outputs:
+     *      String - the string, or an empty string
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a venue to the database in one transaction. Venues whose
+     *              address couldn't be found are stored with -1 for both coordinates, so the batch
+     *              geocoder can fill them in later.
+     *
+     * Inputs:
      *      @param theName - venue's name
      *      @param theWebsite - venue's website
      *      @param thePictureURL - venue's picture URL
@@ -804,25 +2180,44 @@ public class DBHelper extends SQLiteOpenHelper {
      *      @param latitude - venue's latitude
      *      @param longitude - venue's longitude
      *
-     * Last Modified: 12/14/16
+     * Outputs:
+     *      int - id of the new venue
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public void addVenue(String theName, String theWebsite, String thePictureURL, String theStreetAddress, String theTown, String theState, String theZipCode, double latitude, double longitude) {
-        // increments venue id count
-        venueCount ++;
-        // content values hold keys & values to put in database
-        ContentValues values = new ContentValues();
-        // puts values in contentvalues
-        values.put(VENUE_id, venueCount);
-        values.put(VENUE_name, theName);
-        values.put(VENUE_website, theWebsite);
-        values.put(VENUE_picture_url, thePictureURL);
-        values.put(VENUE_address, theStreetAddress);
-        values.put(VENUE_town, theTown);
-        values.put(VENUE_state, theState);
-        values.put(VENUE_zip_code, theZipCode);
-        values.put(VENUE_latitude, latitude);
-        values.put(VENUE_longitude, longitude);
-        // makes rows in artisttoshow join table
-        currentDB.insert(VENUE_TABLE_NAME, null, values);
+    public int addVenue(String theName, String theWebsite, String thePictureURL, String theStreetAddress, String theTown, String theState, String theZipCode, double latitude, double longitude) {
+        SQLiteDatabase database = this.getWritableDatabase();
+        database.beginTransaction();
+        try {
+            // increments venue id count
+            int venueID;
+            synchronized (DBHelper.class) {
+                venueID = ++venueCount;
+            }
+            // content values hold keys & values to put in database
+            ContentValues values = new ContentValues();
+            // puts values in contentvalues
+            values.put(VENUE_id, venueID);
+            values.put(VENUE_name, theName);
+            values.put(VENUE_website, theWebsite);
+            values.put(VENUE_picture_url, thePictureURL);
+            values.put(VENUE_address, theStreetAddress);
+            values.put(VENUE_town, theTown);
+            values.put(VENUE_state, theState);
+            values.put(VENUE_zip_code, theZipCode);
+            values.put(VENUE_latitude, latitude);
+            values.put(VENUE_longitude, longitude);
+            // inserts the venue row with its coordinates
+            database.insert(VENUE_TABLE_NAME, null, values);
+            database.setTransactionSuccessful();
+            // adds the venue to the map's index if it has been built and the venue was found
+            SpatialIndex index = spatialIndex;
+            if (index != null && !(latitude == -1 && longitude == -1)) {
+                index.add(venueID, SpatialIndex.KIND_VENUE, theName, null, 0, latitude, longitude);
+            }
+            return venueID;
+        } finally {
+            database.endTransaction();
+        }
     }
 }
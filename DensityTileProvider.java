@@ -0,0 +1,104 @@
+/*************************************************************************************************
+ * File:   DensityTileProvider.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class draws the heatmap tiles for the map from the stored show density tiles.
+ *          Each cell with shows is drawn as a soft spot whose strength is its count compared
+ *          to the busiest cell on the same zoom level. The cells of the tiles around it that
+ *          are next to its edges are drawn too, so spots that cross tile edges don't leave
+ *          seams. The map calls it on its own background threads.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+
+import java.io.ByteArrayOutputStream;
+
+public class DensityTileProvider implements TileProvider {
+
+    /** size of a tile in pixels **/
+    private static final int TILE_SIZE = 256;
+
+    /** radius of a cell's spot, as a multiple of the cell size **/
+    private static final float SPOT_RADIUS = 1.5f;
+
+    /** database object **/
+    private final DBHelper database;
+
+    /*************************************************************************************************
+     * Description: This function creates the tile provider.
+     *
+     * Inputs:
+     *    @param database - database holding the density tiles
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public DensityTileProvider(DBHelper database) {
+        this.database = database;
+    }
+
+    /*************************************************************************************************
+     * Description: This function draws one heatmap tile.
+     *
+     * Inputs:
+     *    @param x - tile's column
+     *    @param y - tile's row
+     *    @param zoom - tile's zoom level
+     *
+     * Outputs:
+     *      Tile - PNG of the tile, or NO_TILE if there are no shows in it
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        // if the map is zoomed in past the heatmap
+        if (zoom > DensityTiles.MAX_ZOOM) {
+            return NO_TILE;
+        }
+        // the tile's cells with a one cell margin, and the busiest cell, in one query
+        DensityTiles.Neighborhood neighborhood = database.getDensityNeighborhood(zoom, x, y);
+        // if there are no shows in the tile or close enough to spill into it
+        if (neighborhood == null || neighborhood.max == 0 || neighborhood.isEmpty()) {
+            return NO_TILE;
+        }
+        int[] counts = neighborhood.counts;
+        Bitmap bitmap = Bitmap.createBitmap(TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        float cellSize = (float) TILE_SIZE / DensityTiles.CELLS;
+        float radius = cellSize * SPOT_RADIUS;
+        double logMax = Math.log(1 + neighborhood.max);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            // busier cells are stronger and redder, on a log scale so one big city doesn't hide the rest
+            double strength = Math.log(1 + counts[i]) / logMax;
+            int alpha = (int) (80 + 150 * strength);
+            int green = (int) (220 * (1 - strength));
+            // the margin cells are drawn just outside the tile, and the canvas clips them
+            float centerX = (i % DensityTiles.PADDED_CELLS - 0.5f) * cellSize;
+            float centerY = (i / DensityTiles.PADDED_CELLS - 0.5f) * cellSize;
+            paint.setShader(new RadialGradient(centerX, centerY, radius, Color.argb(alpha, 255, green, 0),
+                    Color.TRANSPARENT, Shader.TileMode.CLAMP));
+            canvas.drawCircle(centerX, centerY, radius, paint);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        bitmap.recycle();
+        return new Tile(TILE_SIZE, TILE_SIZE, out.toByteArray());
+    }
+}
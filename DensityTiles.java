@@ -0,0 +1,159 @@
+/*************************************************************************************************
+ * File:   DensityTiles.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds the grid math for the show density tiles behind the heatmap.
+ *
+ *          For every zoom level up to MAX_ZOOM, the map tile at (zoom, x, y) has a CELLS by
+ *          CELLS grid of show counts, stored as one blob of big-endian ints in the database.
+ *          Adding a show adds 1 to one cell of one tile on each level, so the tiles are kept
+ *          up to date as shows are added instead of being recomputed from the show rows.
+ *
+ *          A tile is drawn from its own cells plus a one cell margin of its neighbours' cells,
+ *          since the spots of cells next to the edge spill over into the tile.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.nio.ByteBuffer;
+
+public final class DensityTiles {
+
+    /** highest zoom level with density tiles, the map shows clusters above it **/
+    public static final int MAX_ZOOM = 7;
+
+    /** cells across each tile **/
+    public static final int CELLS = 32;
+
+    /** cells across a tile with its one cell margin **/
+    public static final int PADDED_CELLS = CELLS + 2;
+
+    /*************************************************************************************************
+     * Description: This class holds the counts needed to draw one tile: its cells with a one cell
+     *              margin from the tiles around it, and the busiest cell on its zoom level.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static class Neighborhood {
+
+        /** PADDED_CELLS * PADDED_CELLS counts, row by row, with the tile's own cells from 1 to CELLS **/
+        public final int[] counts = new int[PADDED_CELLS * PADDED_CELLS];
+
+        /** count of the busiest cell on the zoom level **/
+        public final int max;
+
+        /*************************************************************************************************
+         * Description: This function creates an empty tile and margin.
+         *
+         * Inputs:
+         *    @param max - count of the busiest cell on the zoom level
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Neighborhood(int max) {
+            this.max = max;
+        }
+
+        /*************************************************************************************************
+         * Description: This function copies the cells of the tile or one of its neighbours that
+         *              fall inside the margin.
+         *
+         * Inputs:
+         *    @param tileCounts - CELLS * CELLS counts of the tile
+         *    @param dx - -1, 0 or 1 for a tile to the west, the tile itself or a tile to the east
+         *    @param dy - -1, 0 or 1 for a tile to the north, the tile itself or a tile to the south
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public void add(int[] tileCounts, int dx, int dy) {
+            for (int i = 0; i < tileCounts.length; i++) {
+                int column = dx * CELLS + i % CELLS + 1;
+                int row = dy * CELLS + i / CELLS + 1;
+                // if the cell is inside the tile or its margin
+                if (column >= 0 && column < PADDED_CELLS && row >= 0 && row < PADDED_CELLS) {
+                    counts[row * PADDED_CELLS + column] = tileCounts[i];
+                }
+            }
+        }
+
+        /*************************************************************************************************
+         * Description: This function checks if there are any shows in the tile or its margin.
+         *
+         * Outputs:
+         *      boolean - true if every count is 0
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public boolean isEmpty() {
+            for (int count: counts) {
+                if (count != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private DensityTiles() {
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds the tile and cell a location falls in at a zoom level.
+     *
+     * Inputs:
+     *    @param latitude - the location's latitude
+     *    @param longitude - the location's longitude
+     *    @param zoom - the zoom level
+     *
+     * Outputs:
+     *      int[] - tile x, tile y and the cell's index in the tile's grid
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static int[] locate(double latitude, double longitude, int zoom) {
+        // cells across the whole world at this zoom level
+        long worldCells = (long) CELLS << zoom;
+        long cellX = Math.min(worldCells - 1, (long) (SpatialIndex.toX(longitude) * worldCells));
+        long cellY = Math.min(worldCells - 1, (long) (SpatialIndex.toY(latitude) * worldCells));
+        return new int[]{(int) (cellX / CELLS), (int) (cellY / CELLS), (int) ((cellY % CELLS) * CELLS + cellX % CELLS)};
+    }
+
+    /*************************************************************************************************
+     * Description: This function stores a tile's counts as a blob.
+     *
+     * Inputs:
+     *    @param counts - CELLS * CELLS counts, row by row
+     *
+     * Outputs:
+     *      byte[] - the blob
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static byte[] encode(int[] counts) {
+        ByteBuffer buffer = ByteBuffer.allocate(counts.length * 4);
+        buffer.asIntBuffer().put(counts);
+        return buffer.array();
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads a tile's counts from a blob.
+     *
+     * Inputs:
+     *    @param blob - blob from encode, or null
+     *
+     * Outputs:
+     *      int[] - CELLS * CELLS counts, all 0 if there was no blob
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static int[] decode(byte[] blob) {
+        int[] counts = new int[CELLS * CELLS];
+        if (blob != null && blob.length == counts.length * 4) {
+            ByteBuffer.wrap(blob).asIntBuffer().get(counts);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,450 @@
+/*************************************************************************************************
+ * File:   EventResults.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds the events found by a search as parallel arrays, one per field,
+ *          instead of one object per event. The search, the result list and the search map all
+ *          read events by their position in it.
+ *
+ *          Show names and venue names are stored as codes into one dictionary of strings, so a
+ *          venue's name is kept once no matter how many of its shows are in the results. Start
+ *          times are milliseconds since the epoch. Picking out the winners of a search copies
+ *          the codes and numbers, and a smaller dictionary of only the strings they use, so
+ *          the picked results don't hold on to every candidate's strings.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class EventResults implements Parcelable {
+
+    /** start time of events that don't have one **/
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /** results with no events **/
+    public static final EventResults EMPTY = new Builder(0).build();
+
+    /** number of events **/
+    private final int count;
+
+    /** numbers of each event **/
+    private final int[] showIds;
+    private final int[] venueIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] startMillis;
+
+    /** codes into the dictionary for each event's strings **/
+    private final int[] nameCodes;
+    private final int[] venueNameCodes;
+
+    /** every distinct string used by these events **/
+    private final String[] dictionary;
+
+    /*************************************************************************************************
+     * Description: This function creates results from filled in arrays, which are kept without
+     *              copying.
+     *
+     * Inputs:
+     *    @param count - number of events
+     *    @param showIds - each event's show id
+     *    @param venueIds - each event's venue id
+     *    @param latitudes - each event's latitude
+     *    @param longitudes - each event's longitude
+     *    @param startMillis - each event's start time
+     *    @param nameCodes - each event's show name code
+     *    @param venueNameCodes - each event's venue name code
+     *    @param dictionary - strings the codes point to
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private EventResults(int count, int[] showIds, int[] venueIds, double[] latitudes, double[] longitudes,
+                         long[] startMillis, int[] nameCodes, int[] venueNameCodes, String[] dictionary) {
+        this.count = count;
+        this.showIds = showIds;
+        this.venueIds = venueIds;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.startMillis = startMillis;
+        this.nameCodes = nameCodes;
+        this.venueNameCodes = venueNameCodes;
+        this.dictionary = dictionary;
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads results written by writeToParcel.
+     *
+     * Inputs:
+     *    @param in - the parcel to read
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private EventResults(Parcel in) {
+        this(in.readInt(), in.createIntArray(), in.createIntArray(), in.createDoubleArray(), in.createDoubleArray(),
+                in.createLongArray(), in.createIntArray(), in.createIntArray(), in.createStringArray());
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of events.
+     *
+     * Outputs:
+     *      int - number of events
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int size() {
+        return count;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's show id.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      int - show id
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int getShowId(int position) {
+        return showIds[position];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's venue id.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      int - venue id
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int getVenueId(int position) {
+        return venueIds[position];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's latitude.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      double - venue's latitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getLatitude(int position) {
+        return latitudes[position];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's longitude.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      double - venue's longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getLongitude(int position) {
+        return longitudes[position];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's show name.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      String - show name
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public String getName(int position) {
+        return dictionary[nameCodes[position]];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's start time.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      long - milliseconds since the epoch, or NO_TIME
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public long getStartMillis(int position) {
+        return startMillis[position];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets an event's venue name.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      String - venue name
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public String getVenueName(int position) {
+        return dictionary[venueNameCodes[position]];
+    }
+
+    /*************************************************************************************************
+     * Description: This function picks out some of the events, in a new order. The codes are
+     *              remapped into a new dictionary holding only the strings the picked events
+     *              use, so the candidates' dictionary can be freed.
+     *
+     * Inputs:
+     *    @param positions - positions of the events to keep, in the order to keep them
+     *
+     * Outputs:
+     *      EventResults - the picked events
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public EventResults select(int[] positions) {
+        int size = positions.length;
+        int[] newShowIds = new int[size];
+        int[] newVenueIds = new int[size];
+        double[] newLatitudes = new double[size];
+        double[] newLongitudes = new double[size];
+        long[] newStartMillis = new long[size];
+        int[] newNameCodes = new int[size];
+        int[] newVenueNameCodes = new int[size];
+        // new code of each old code, or -1 if it isn't used yet
+        int[] remap = new int[dictionary.length];
+        Arrays.fill(remap, -1);
+        int codeCount = 0;
+        for (int i = 0; i < size; i++) {
+            int position = positions[i];
+            newShowIds[i] = showIds[position];
+            newVenueIds[i] = venueIds[position];
+            newLatitudes[i] = latitudes[position];
+            newLongitudes[i] = longitudes[position];
+            newStartMillis[i] = startMillis[position];
+            int nameCode = nameCodes[position];
+            if (remap[nameCode] < 0) {
+                remap[nameCode] = codeCount++;
+            }
+            newNameCodes[i] = remap[nameCode];
+            int venueNameCode = venueNameCodes[position];
+            if (remap[venueNameCode] < 0) {
+                remap[venueNameCode] = codeCount++;
+            }
+            newVenueNameCodes[i] = remap[venueNameCode];
+        }
+        // copies only the used strings into the new dictionary
+        String[] newDictionary = new String[codeCount];
+        for (int code = 0; code < remap.length; code++) {
+            if (remap[code] >= 0) {
+                newDictionary[remap[code]] = dictionary[code];
+            }
+        }
+        return new EventResults(size, newShowIds, newVenueIds, newLatitudes, newLongitudes,
+                newStartMillis, newNameCodes, newVenueNameCodes, newDictionary);
+    }
+
+    /*************************************************************************************************
+     * Description: This function says the results hold no file descriptors.
+     *
+     * Outputs:
+     *      int - 0
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /*************************************************************************************************
+     * Description: This function writes the arrays and dictionary to a parcel, so the results can
+     *              be passed to another activity.
+     *
+     * Inputs:
+     *    @param out - the parcel to write
+     *    @param flags - unused
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        out.writeInt(count);
+        out.writeIntArray(showIds);
+        out.writeIntArray(venueIds);
+        out.writeDoubleArray(latitudes);
+        out.writeDoubleArray(longitudes);
+        out.writeLongArray(startMillis);
+        out.writeIntArray(nameCodes);
+        out.writeIntArray(venueNameCodes);
+        out.writeStringArray(dictionary);
+    }
+
+    public static final Parcelable.Creator<EventResults> CREATOR = new Parcelable.Creator<EventResults>() {
+        @Override
+        public EventResults createFromParcel(Parcel in) {
+            return new EventResults(in);
+        }
+
+        @Override
+        public EventResults[] newArray(int size) {
+            return new EventResults[size];
+        }
+    };
+
+    /*************************************************************************************************
+     * Description: This class adds events one at a time, growing the arrays as needed and
+     *              putting each distinct string in the dictionary once.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static class Builder {
+
+        private int count = 0;
+        private int[] showIds;
+        private int[] venueIds;
+        private double[] latitudes;
+        private double[] longitudes;
+        private long[] startMillis;
+        private int[] nameCodes;
+        private int[] venueNameCodes;
+
+        /** codes of the strings added so far **/
+        private final Map<String, Integer> codes = new HashMap<String, Integer>();
+        private String[] dictionary = new String[16];
+
+        /*************************************************************************************************
+         * Description: This function creates an empty builder.
+         *
+         * Inputs:
+         *    @param capacity - expected number of events, the arrays grow past it if needed
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder(int capacity) {
+            capacity = Math.max(capacity, 1);
+            showIds = new int[capacity];
+            venueIds = new int[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            startMillis = new long[capacity];
+            nameCodes = new int[capacity];
+            venueNameCodes = new int[capacity];
+        }
+
+        /*************************************************************************************************
+         * Description: This function adds an event, doubling the arrays if they are full.
+         *
+         * Inputs:
+         *    @param showId - show's id
+         *    @param name - show's name
+         *    @param start - start time in milliseconds since the epoch, or NO_TIME
+         *    @param venueId - venue's id
+         *    @param venueName - venue's name
+         *    @param latitude - venue's latitude
+         *    @param longitude - venue's longitude
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder add(int showId, String name, long start, int venueId, String venueName,
+                           double latitude, double longitude) {
+            // if the arrays are full
+            if (count == showIds.length) {
+                int capacity = count * 2;
+                showIds = Arrays.copyOf(showIds, capacity);
+                venueIds = Arrays.copyOf(venueIds, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                startMillis = Arrays.copyOf(startMillis, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+                venueNameCodes = Arrays.copyOf(venueNameCodes, capacity);
+            }
+            showIds[count] = showId;
+            venueIds[count] = venueId;
+            latitudes[count] = latitude;
+            longitudes[count] = longitude;
+            startMillis[count] = start;
+            nameCodes[count] = encode(name);
+            venueNameCodes[count] = encode(venueName);
+            count++;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets a string's code, adding it to the dictionary the first
+         *              time it is seen. Nulls are stored as empty strings.
+         *
+         * Inputs:
+         *    @param value - the string
+         *
+         * Outputs:
+         *      int - string's code in the dictionary
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        private int encode(String value) {
+            // nulls are stored as empty strings
+            if (value == null) {
+                value = "";
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                if (code == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, code * 2);
+                }
+                dictionary[code] = value;
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        /*************************************************************************************************
+         * Description: This function creates the results, trimming the arrays and dictionary to
+         *              what was used.
+         *
+         * Outputs:
+         *      EventResults - the events added
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public EventResults build() {
+            // if the arrays are bigger than needed, trims them
+            if (count < showIds.length) {
+                showIds = Arrays.copyOf(showIds, count);
+                venueIds = Arrays.copyOf(venueIds, count);
+                latitudes = Arrays.copyOf(latitudes, count);
+                longitudes = Arrays.copyOf(longitudes, count);
+                startMillis = Arrays.copyOf(startMillis, count);
+                nameCodes = Arrays.copyOf(nameCodes, count);
+                venueNameCodes = Arrays.copyOf(venueNameCodes, count);
+            }
+            return new EventResults(count, showIds, venueIds, latitudes, longitudes, startMillis, nameCodes,
+                    venueNameCodes, Arrays.copyOf(dictionary, codes.size()));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*************************************************************************************************
+ * File:   EventResultsAdapter.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class shows search results in a list, one item_event row per event. Each
+ *          row's text is made when the row is shown, instead of making a string for every
+ *          result up front.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+public class EventResultsAdapter extends BaseAdapter {
+
+    /** inflates the rows **/
+    private final LayoutInflater inflater;
+
+    /** events to show **/
+    private EventResults results;
+
+    /*************************************************************************************************
+     * Description: This function creates the adapter.
+     *
+     * Inputs:
+     *    @param context - activity context
+     *    @param results - events to show
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public EventResultsAdapter(Context context, EventResults results) {
+        this.inflater = LayoutInflater.from(context);
+        this.results = results;
+    }
+
+    /*************************************************************************************************
+     * Description: This function shows new results in the list.
+     *
+     * Inputs:
+     *    @param results - events to show
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void setResults(EventResults results) {
+        this.results = results;
+        notifyDataSetChanged();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of rows.
+     *
+     * Outputs:
+     *      int - number of events
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public int getCount() {
+        return results.size();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the show name of a row's event.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      Object - show name
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public Object getItem(int position) {
+        return results.getName(position);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the show id of a row's event.
+     *
+     * Inputs:
+     *    @param position - event's position
+     *
+     * Outputs:
+     *      long - show id
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public long getItemId(int position) {
+        return results.getShowId(position);
+    }
+
+    /*************************************************************************************************
+     * Description: This function fills a row with an event, reusing an old row when there is one.
+     *
+     * Inputs:
+     *    @param position - position of the event in the results
+     *    @param convertView - old row to reuse, or null
+     *    @param parent - the list
+     *
+     * Outputs:
+     *      View - the row
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        View row = convertView != null ? convertView : inflater.inflate(R.layout.item_event, parent, false);
+        TextView text = (TextView) row.findViewById(R.id.event_name);
+        text.setText(results.getName(position) + "\n" + ShowTimes.formatDateAndTime(results.getStartMillis(position)) +
+                " at " + results.getVenueName(position));
+        return row;
+    }
+}
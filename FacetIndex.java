@@ -0,0 +1,262 @@
+/*************************************************************************************************
+ * File:   FacetIndex.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds precomputed bitsets of show ids for every genre, day and venue,
+ *          so that search filters can be combined with bitwise AND/OR before any show row
+ *          is read from the database.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+public class FacetIndex {
+
+    /** milliseconds in a day **/
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    /** every show id in the index **/
+    private final BitSet allShows = new BitSet();
+
+    /** show ids for each genre, day and venue **/
+    private final Map<String, BitSet> genreFacets = new HashMap<String, BitSet>();
+    private final TreeMap<Integer, BitSet> dayFacets = new TreeMap<Integer, BitSet>();
+    private final Map<Integer, BitSet> venueFacets = new HashMap<Integer, BitSet>();
+
+    /*************************************************************************************************
+     * Description: This class holds the number of shows in a result set for every facet value.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static class FacetCounts {
+
+        public final Map<String, Integer> genres = new HashMap<String, Integer>();
+        public final TreeMap<Integer, Integer> days = new TreeMap<Integer, Integer>();
+        public final Map<Integer, Integer> venues = new HashMap<Integer, Integer>();
+    }
+
+    /*************************************************************************************************
+     * Description: This function builds the index from the show and artist tables.
+     *
+     * Inputs:
+     *      @param database - database to read the shows from
+     *      @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      FacetIndex - index of every show in the database
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static FacetIndex build(DBHelper database, CancellationSignal signal) {
+        FacetIndex index = new FacetIndex();
+        // cursor of show ids, venue ids and start times
+        Cursor cursor = database.getShowFacetsCursor(signal);
+        try {
+            // if there is a result
+            if (cursor.moveToFirst()) {
+                do {
+                    Long startMillis = cursor.isNull(2) ? null : cursor.getLong(2);
+                    index.addShow(cursor.getInt(0), cursor.getInt(1), startMillis);
+                } while (cursor.moveToNext());
+            }
+        } finally {
+            // closes cursor, also if the build was cancelled
+            cursor.close();
+        }
+        // cursor of show ids and the genres of their artists
+        cursor = database.getShowGenresCursor(signal);
+        try {
+            // if there is a result
+            if (cursor.moveToFirst()) {
+                do {
+                    if (!cursor.isNull(1)) {
+                        index.addGenre(cursor.getInt(0), cursor.getString(1));
+                    }
+                } while (cursor.moveToNext());
+            }
+        } finally {
+            // closes cursor, also if the build was cancelled
+            cursor.close();
+        }
+        return index;
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts a time to the day bucket it falls in, in local time.
+     *
+     * Inputs:
+     *      @param millis - time in milliseconds since the epoch
+     *
+     * Outputs:
+     *      int - number of days since the epoch
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static int dayBucket(long millis) {
+        // shifts the time into the local time zone before dividing
+        long local = millis + TimeZone.getDefault().getOffset(millis);
+        return (int) Math.floor((double) local / DAY_MILLIS);
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a show to the venue and day facets.
+     *
+     * Inputs:
+     *      @param showId - id of the show
+     *      @param venueId - id of the show's venue
+     *      @param startMillis - show's start time, or null if it doesn't have one
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized void addShow(int showId, int venueId, Long startMillis) {
+        allShows.set(showId);
+        facet(venueFacets, venueId).set(showId);
+        // shows without a start time aren't in any day bucket
+        if (startMillis != null) {
+            facet(dayFacets, dayBucket(startMillis)).set(showId);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a show to a genre facet.
+     *
+     * Inputs:
+     *      @param showId - id of the show
+     *      @param genre - genre of one of the show's artists
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized void addGenre(int showId, String genre) {
+        facet(genreFacets, genre).set(showId);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the bitset for a facet value, creating it if needed.
+     *
+     * Inputs:
+     *      @param facets - map of facet values to bitsets
+     *      @param key - the facet value
+     *
+     * Outputs:
+     *      BitSet - show ids for the facet value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static <K> BitSet facet(Map<K, BitSet> facets, K key) {
+        BitSet bits = facets.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            facets.put(key, bits);
+        }
+        return bits;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shows that match the filters. Values within a facet
+     *              are OR'd together and the facets are AND'd together. A null or empty facet
+     *              doesn't filter anything.
+     *
+     * Inputs:
+     *      @param genres - genres to match, or null
+     *      @param fromDay - first day bucket to match, or Integer.MIN_VALUE
+     *      @param toDay - last day bucket to match, or Integer.MAX_VALUE
+     *      @param venues - venue ids to match, or null
+     *
+     * Outputs:
+     *      BitSet - show ids that match every filter
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized BitSet select(Collection<String> genres, int fromDay, int toDay, Collection<Integer> venues) {
+        // starts with every show
+        BitSet result = (BitSet) allShows.clone();
+        // if there is a genre filter
+        if (genres != null && !genres.isEmpty()) {
+            BitSet union = new BitSet();
+            for (String genre: genres) {
+                BitSet bits = genreFacets.get(genre);
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            result.and(union);
+        }
+        // if there is a date filter
+        if (fromDay != Integer.MIN_VALUE || toDay != Integer.MAX_VALUE) {
+            BitSet union = new BitSet();
+            for (BitSet bits: dayFacets.subMap(fromDay, true, toDay, true).values()) {
+                union.or(bits);
+            }
+            result.and(union);
+        }
+        // if there is a venue filter
+        if (venues != null && !venues.isEmpty()) {
+            BitSet union = new BitSet();
+            for (Integer venue: venues) {
+                BitSet bits = venueFacets.get(venue);
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            result.and(union);
+        }
+        return result;
+    }
+
+    /*************************************************************************************************
+     * Description: This function counts how many shows of a result set fall in every facet value.
+     *
+     * Inputs:
+     *      @param result - show ids of the current result set
+     *
+     * Outputs:
+     *      FacetCounts - counts for every genre, day and venue with at least one match
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized FacetCounts count(BitSet result) {
+        FacetCounts counts = new FacetCounts();
+        // one scratch set is reused for every intersection
+        BitSet scratch = new BitSet(result.length());
+        countInto(genreFacets, result, scratch, counts.genres);
+        countInto(dayFacets, result, scratch, counts.days);
+        countInto(venueFacets, result, scratch, counts.venues);
+        return counts;
+    }
+
+    /*************************************************************************************************
+     * Description: This function counts the intersection of a result set with every facet value,
+     *              in a scratch set that is cleared and reused instead of cloning each facet.
+     *
+     * Inputs:
+     *      @param facets - map of facet values to bitsets
+     *      @param result - show ids of the current result set
+     *      @param scratch - set to hold each intersection in
+     *      @param counts - map to put the non-zero counts into
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static <K> void countInto(Map<K, BitSet> facets, BitSet result, BitSet scratch, Map<K, Integer> counts) {
+        for (Map.Entry<K, BitSet> entry: facets.entrySet()) {
+            scratch.clear();
+            scratch.or(result);
+            scratch.and(entry.getValue());
+            int cardinality = scratch.cardinality();
+            if (cardinality > 0) {
+                counts.put(entry.getKey(), cardinality);
+            }
+        }
+    }
+}
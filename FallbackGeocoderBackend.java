@@ -0,0 +1,70 @@
+/*************************************************************************************************
+ * File:   FallbackGeocoderBackend.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class tries several backends in order and uses the first one that finds the
+ *          address, so an offline backend can be used first or as a fallback behind the
+ *          platform Geocoder.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.util.Log;
+
+import java.io.IOException;
+
+public class FallbackGeocoderBackend implements GeocoderBackend {
+
+    private static final String TAG = "FallbackGeocoder";
+
+    /** backends, in the order they are tried **/
+    private final GeocoderBackend[] backends;
+
+    /*************************************************************************************************
+     * Description: This function creates the chain of backends.
+     *
+     * Inputs:
+     *    @param backends - backends, in the order they are tried
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public FallbackGeocoderBackend(GeocoderBackend... backends) {
+        this.backends = backends.clone();
+    }
+
+    /*************************************************************************************************
+     * Description: This function tries each backend until one finds the address. A backend that
+     *              can't be reached is skipped. If none found it and one couldn't be reached, its
+     *              error is thrown so the lookup can be tried again later.
+     *
+     * Inputs:
+     *    @param address - the address to convert
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if the address wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public double[] geocode(String address) throws IOException {
+        IOException failure = null;
+        for (GeocoderBackend backend: backends) {
+            try {
+                double[] location = backend.geocode(address);
+                if (location != null) {
+                    return location;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, backend.getClass().getSimpleName() + " unavailable, trying the next backend", e);
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+}
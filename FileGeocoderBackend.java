@@ -0,0 +1,77 @@
+/*************************************************************************************************
+ * File:   FileGeocoderBackend.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class converts addresses from a local file instead of a network service, so
+ *          imports can be tested without the Geocoder. Each line of the file is
+ *          "address|latitude|longitude".
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FileGeocoderBackend implements GeocoderBackend {
+
+    /** locations by normalized address **/
+    private final Map<String, double[]> locations = new HashMap<String, double[]>();
+
+    /*************************************************************************************************
+     * Description: This function creates the backend by reading the whole file.
+     *
+     * Inputs:
+     *    @param file - file of "address|latitude|longitude" lines
+     *
+     * Throws:
+     *      IOException - if the file can't be read
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public FileGeocoderBackend(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            // for every line in the file
+            while ((line = reader.readLine()) != null) {
+                String[] lineSplit = line.split("\\|");
+                // skips lines that aren't in the right format
+                if (lineSplit.length != 3) {
+                    continue;
+                }
+                try {
+                    locations.put(GeocodeCache.normalize(lineSplit[0]),
+                            new double[]{Double.valueOf(lineSplit[1]), Double.valueOf(lineSplit[2])});
+                } catch (NumberFormatException e) {
+                    // skips lines with a bad latitude or longitude
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function looks up an address in the file.
+     *
+     * Inputs:
+     *    @param address - the address to convert
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if the address wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public double[] geocode(String address) {
+        double[] location = locations.get(GeocodeCache.normalize(address));
+        return location == null ? null : location.clone();
+    }
+}
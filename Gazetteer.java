@@ -0,0 +1,584 @@
+/*************************************************************************************************
+ * File:   Gazetteer.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds the bundled gazetteer of towns and street addresses, so they can be
+ *          turned into a latitude and longitude without a network connection.
+ *
+ *          The gazetteer is two assets. "gazetteer_names.txt" has one normalized address per
+ *          line, and "gazetteer_coords.bin" is a big-endian int count followed by a (float
+ *          latitude, float longitude) pair for each line, in the same order. Once per install
+ *          or update, the names are normalized and written sorted into a names index in app
+ *          storage, and the coordinates are copied out of the APK. Both are memory mapped and
+ *          the names are binary searched, so neither is read onto the heap.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class Gazetteer {
+
+    private static final String TAG = "Gazetteer";
+
+    /** names of the bundled assets **/
+    private static final String NAMES_ASSET = "gazetteer_names.txt";
+    private static final String COORDS_ASSET = "gazetteer_coords.bin";
+
+    /** sorted names index written to app storage **/
+    private static final String NAMES_INDEX_FILE = "gazetteer_names.idx";
+
+    /** files next to the copied coordinates and names index holding the install they were made from **/
+    private static final String COORDS_VERSION_FILE = COORDS_ASSET + ".version";
+    private static final String NAMES_INDEX_VERSION_FILE = NAMES_INDEX_FILE + ".version";
+
+    /** encoding of the names index **/
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** shared instance, loaded lazily **/
+    private static Gazetteer instance = null;
+
+    /** line number of each normalized address **/
+    private final AddressIndex names;
+
+    /** latitude of line i at 2 * i and longitude at 2 * i + 1 **/
+    private final FloatBuffer coordinates;
+
+    /** number of lines **/
+    private final int count;
+
+    /*************************************************************************************************
+     * Description: This class finds the line number of a normalized address in the names index,
+     *              a memory mapped file of the addresses sorted by their UTF-8 bytes. The file is
+     *              an int count, then an int offset and an int line number for each address in
+     *              sorted order, and then the addresses' bytes one after another. Lookups binary
+     *              search the offsets, so the addresses are never read onto the heap.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    static class AddressIndex {
+
+        /** the mapped file, or an empty buffer for an empty index **/
+        private final ByteBuffer index;
+
+        /** number of addresses **/
+        private final int size;
+
+        /** position of the first address's bytes **/
+        private final int keysStart;
+
+        /*************************************************************************************************
+         * Description: This function creates the index over a mapped names index file.
+         *
+         * Inputs:
+         *    @param index - the mapped file, already checked to be as long as its count needs
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        AddressIndex(ByteBuffer index) {
+            this.index = index;
+            this.size = index.capacity() < 4 ? 0 : index.getInt(0);
+            this.keysStart = 4 + 8 * size;
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets the line number of an address.
+         *
+         * Inputs:
+         *    @param key - the normalized address
+         *
+         * Outputs:
+         *      int - line number of the address, or -1 if it isn't in the index
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        int get(String key) {
+            byte[] bytes = key.getBytes(UTF_8);
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int compared = compareTo(bytes, middle);
+                if (compared == 0) {
+                    return index.getInt(4 + 8 * middle + 4);
+                } else if (compared < 0) {
+                    high = middle - 1;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return -1;
+        }
+
+        /*************************************************************************************************
+         * Description: This function compares an address with one in the index, byte by byte with
+         *              the bytes unsigned, the same order the index was sorted in.
+         *
+         * Inputs:
+         *    @param key - UTF-8 bytes of the address
+         *    @param entry - position of the address in sorted order
+         *
+         * Outputs:
+         *      int - negative, zero or positive if the key sorts before, with or after the entry
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        private int compareTo(byte[] key, int entry) {
+            int start = keysStart + index.getInt(4 + 8 * entry);
+            int end = entry + 1 < size ? keysStart + index.getInt(4 + 8 * (entry + 1)) : index.capacity();
+            int length = Math.min(key.length, end - start);
+            for (int i = 0; i < length; i++) {
+                int compared = (key[i] & 0xFF) - (index.get(start + i) & 0xFF);
+                if (compared != 0) {
+                    return compared;
+                }
+            }
+            return key.length - (end - start);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the gazetteer from loaded names and mapped coordinates.
+     *
+     * Inputs:
+     *    @param names - line number of each normalized address
+     *    @param coordinates - latitude and longitude pairs, in line order
+     *    @param count - number of lines
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    Gazetteer(AddressIndex names, FloatBuffer coordinates, int count) {
+        this.names = names;
+        this.coordinates = coordinates;
+        this.count = count;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shared gazetteer, loading it the first time it is
+     *              called. If the assets can't be read, an empty gazetteer is used so that
+     *              lookups simply miss. This reads files, so don't call it on the main thread.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      Gazetteer - the shared gazetteer
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized Gazetteer getInstance(Context context) {
+        // if the gazetteer hasn't been loaded yet
+        if (instance == null) {
+            Startup.beginSection("Gazetteer.load");
+            try {
+                instance = load(context.getApplicationContext());
+            } finally {
+                Startup.endSection();
+            }
+        }
+        return instance;
+    }
+
+    /*************************************************************************************************
+     * Description: This function maps the coordinates and the names index.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      Gazetteer - gazetteer of the bundled assets
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static Gazetteer load(Context context) {
+        try {
+            FloatBuffer coordinates = mapCoordinates(context);
+            int count = coordinates.capacity() / 2;
+            return new Gazetteer(new AddressIndex(mapNames(context, count)), coordinates, count);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to load the gazetteer", e);
+            return new Gazetteer(new AddressIndex(ByteBuffer.allocate(0)), FloatBuffer.allocate(0), 0);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function writes the names index if it isn't there already or was made
+     *              for an older install, and memory maps it.
+     *
+     * Inputs:
+     *    @param context - application context
+     *    @param count - number of lines with coordinates
+     *
+     * Outputs:
+     *      ByteBuffer - the mapped names index
+     *
+     * Throws:
+     *      IOException - if the names can't be read or the index can't be written or mapped
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static ByteBuffer mapNames(Context context, int count) throws IOException {
+        File file = new File(context.getFilesDir(), NAMES_INDEX_FILE);
+        File versionFile = new File(context.getFilesDir(), NAMES_INDEX_VERSION_FILE);
+        long installVersion = getInstallVersion(context);
+        MappedByteBuffer mapped = readVersion(versionFile) == installVersion ? mapIndex(file) : null;
+        // writes the index if it is missing, from another install, or shorter than its count
+        if (mapped == null) {
+            writeNamesIndex(context, file, count);
+            mapped = mapIndex(file);
+            if (mapped == null) {
+                throw new IOException(NAMES_INDEX_FILE + " is truncated");
+            }
+            writeVersion(versionFile, installVersion);
+        }
+        return mapped.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /*************************************************************************************************
+     * Description: This function normalizes the names asset and writes it sorted into the names
+     *              index. The names are only on the heap while the index is written, once per
+     *              install. When an address is listed more than once, its last line is kept.
+     *
+     * Inputs:
+     *    @param context - application context
+     *    @param file - the index file to write
+     *    @param count - number of lines with coordinates, later lines are left out
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void writeNamesIndex(Context context, File file, int count) throws IOException {
+        // normalized names in line order
+        final List<byte[]> keys = new ArrayList<byte[]>(count);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(NAMES_ASSET), "UTF-8"));
+        try {
+            String line;
+            // for every name that has coordinates
+            while (keys.size() < count && (line = reader.readLine()) != null) {
+                keys.add(AddressNormalizer.normalize(line).getBytes(UTF_8));
+            }
+        } finally {
+            reader.close();
+        }
+        if (keys.size() != count) {
+            Log.w(TAG, NAMES_ASSET + " has " + keys.size() + " names for " + count + " coordinates");
+        }
+        // sorts the line numbers by name, keeping equal names in line order
+        List<Integer> order = new ArrayList<Integer>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return compareBytes(keys.get(a), keys.get(b));
+            }
+        });
+        // keeps the last line of each name
+        List<Integer> unique = new ArrayList<Integer>(order.size());
+        for (int i = 0; i < order.size(); i++) {
+            if (i + 1 < order.size() && compareBytes(keys.get(order.get(i)), keys.get(order.get(i + 1))) == 0) {
+                continue;
+            }
+            unique.add(order.get(i));
+        }
+        // writes a temporary file first so a crash can't leave half an index
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeInt(unique.size());
+            int offset = 0;
+            for (int line: unique) {
+                out.writeInt(offset);
+                out.writeInt(line);
+                offset += keys.get(line).length;
+            }
+            for (int line: unique) {
+                out.write(keys.get(line));
+            }
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Unable to replace " + file);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function compares two names by their bytes, with the bytes unsigned.
+     *
+     * Inputs:
+     *    @param a - first name's bytes
+     *    @param b - second name's bytes
+     *
+     * Outputs:
+     *      int - negative, zero or positive if a sorts before, with or after b
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int compareBytes(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int compared = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /*************************************************************************************************
+     * Description: This function memory maps a written names index.
+     *
+     * Inputs:
+     *    @param file - the index file
+     *
+     * Outputs:
+     *      MappedByteBuffer - the mapped file, or null if it is missing or shorter than its count
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static MappedByteBuffer mapIndex(File file) throws IOException {
+        if (!file.exists() || file.length() < 4) {
+            return null;
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = mapped.getInt(0);
+            if (count < 0 || 4 + 8L * count > channel.size()) {
+                return null;
+            }
+            return mapped;
+        } finally {
+            in.close();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function copies the coordinates asset to app storage, if it isn't there
+     *              already or was copied from an older install, and memory maps it. Assets are
+     *              compressed inside the APK, so they can't be mapped directly.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      FloatBuffer - latitude and longitude pairs, after the count
+     *
+     * Throws:
+     *      IOException - if the asset can't be copied or mapped
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static FloatBuffer mapCoordinates(Context context) throws IOException {
+        File file = new File(context.getFilesDir(), COORDS_ASSET);
+        File versionFile = new File(context.getFilesDir(), COORDS_VERSION_FILE);
+        long installVersion = getInstallVersion(context);
+        // an update may ship new names, so a copy from another install can't be trusted to line up
+        MappedByteBuffer mapped = readVersion(versionFile) == installVersion ? map(file) : null;
+        // copies the asset if it is missing, from another install, or doesn't match its own count
+        if (mapped == null) {
+            copyAsset(context, COORDS_ASSET, file);
+            mapped = map(file);
+            if (mapped == null) {
+                throw new IOException(COORDS_ASSET + " is truncated");
+            }
+            writeVersion(versionFile, installVersion);
+        }
+        mapped.order(ByteOrder.BIG_ENDIAN);
+        int count = mapped.getInt(0);
+        mapped.position(4);
+        FloatBuffer coordinates = mapped.slice().order(ByteOrder.BIG_ENDIAN).asFloatBuffer();
+        coordinates.limit(count * 2);
+        return coordinates.slice();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets when the app was installed or last updated, which changes
+     *              whenever a new APK, and so new assets, is installed.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      long - time of the last install or update, or -1 if it can't be found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static long getInstallVersion(Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return -1;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads the install version stored next to the copied file.
+     *
+     * Inputs:
+     *    @param versionFile - the version file
+     *
+     * Outputs:
+     *      long - the stored version, or Long.MIN_VALUE if there is none
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static long readVersion(File versionFile) {
+        if (!versionFile.exists()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(versionFile));
+            try {
+                return in.readLong();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function stores the install version the file was copied from. It is
+     *              written after the copy, so a crash in between only causes another copy.
+     *
+     * Inputs:
+     *    @param versionFile - the version file
+     *    @param version - the install version
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void writeVersion(File versionFile, long version) throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(versionFile));
+        try {
+            out.writeLong(version);
+        } finally {
+            out.close();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function memory maps a copied coordinates file.
+     *
+     * Inputs:
+     *    @param file - the copied file
+     *
+     * Outputs:
+     *      MappedByteBuffer - the mapped file, or null if it is missing or shorter than its count
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static MappedByteBuffer map(File file) throws IOException {
+        if (!file.exists() || file.length() < 4) {
+            return null;
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = mapped.getInt(0);
+            if (count < 0 || 4 + 8L * count != channel.size()) {
+                return null;
+            }
+            return mapped;
+        } finally {
+            in.close();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function copies an asset to a file, writing a temporary file first so a
+     *              crash can't leave half a copy.
+     *
+     * Inputs:
+     *    @param context - application context
+     *    @param assetName - asset to copy
+     *    @param file - file to write
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void copyAsset(Context context, String assetName, File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        InputStream in = context.getAssets().open(assetName);
+        try {
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Unable to replace " + file);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds the coordinates of an already normalized address.
+     *
+     * Inputs:
+     *    @param normalizedAddress - an address from AddressNormalizer
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if it isn't in the gazetteer
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double[] find(String normalizedAddress) {
+        int line = names.get(normalizedAddress);
+        if (line < 0 || line >= count) {
+            return null;
+        }
+        return new double[]{coordinates.get(2 * line), coordinates.get(2 * line + 1)};
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of places in the gazetteer.
+     *
+     * Outputs:
+     *      int - number of places
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,275 @@
+/*************************************************************************************************
+ * File:   GeocodeCache.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class caches Geocoder results by normalized address, in a bounded in-memory
+ *          LRU backed by a SQLite table whose rows expire after a while. It keeps its own
+ *          database file, so the cache survives the app's tables being recreated.
+ *
+ *          Approximate results, ZIP code or town centroids used when the address itself wasn't
+ *          found, are only kept on disk and expire after a day, so the address is retried.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GeocodeCache extends SQLiteOpenHelper {
+
+    /** version and name **/
+    private static final int DATABASE_VERSION = 2;
+    private static final String DATABASE_NAME = "GeocodeCacheDB";
+
+    /** table and column names **/
+    private static final String CACHE_TABLE_NAME = "geocode_cache";
+    private static final String CACHE_address = "address";
+    private static final String CACHE_latitude = "latitude";
+    private static final String CACHE_longitude = "longitude";
+    private static final String CACHE_created = "created";
+    private static final String CACHE_approximate = "approximate";
+
+    /** most addresses kept in memory **/
+    private static final int MEMORY_CAPACITY = 256;
+
+    /** how long a stored result is trusted, 30 days **/
+    private static final long TTL_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    /** how long an approximate result is used before the address is tried again, 1 day **/
+    private static final long APPROXIMATE_TTL_MILLIS = 24L * 60 * 60 * 1000;
+
+    /** shared instance **/
+    private static GeocodeCache instance = null;
+
+    /** most recently used results, by normalized address **/
+    private final Map<String, double[]> memory = new LinkedHashMap<String, double[]>(MEMORY_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+            return size() > MEMORY_CAPACITY;
+        }
+    };
+
+    /** hit and miss counts **/
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /*************************************************************************************************
+     * Description: This function creates the cache's database helper.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private GeocodeCache(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shared cache.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      GeocodeCache - the shared cache
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized GeocodeCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new GeocodeCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the cache table.
+     *
+     * Inputs:
+     *    @param database - the database from the SQLiteOpenHelper
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onCreate(SQLiteDatabase database) {
+        database.execSQL("CREATE TABLE " + CACHE_TABLE_NAME + "(" + CACHE_address + " TEXT PRIMARY KEY, " +
+                CACHE_latitude + " REAL, " + CACHE_longitude + " REAL, " + CACHE_created + " INTEGER, " + CACHE_approximate + " INTEGER DEFAULT 0)");
+    }
+
+    /*************************************************************************************************
+     * Description: This function throws away the cache when its format changes.
+     *
+     * Inputs:
+     *    @param database - the database from the SQLiteOpenHelper
+     *    @param oldVersion - old version number of the database
+     *    @param newVersion - new version number of the database
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onUpgrade(SQLiteDatabase database, int oldVersion, int newVersion) {
+        database.execSQL("DROP TABLE IF EXISTS " + CACHE_TABLE_NAME);
+        onCreate(database);
+    }
+
+    /*************************************************************************************************
+     * Description: This function normalizes an address so that the same place typed differently
+     *              shares one cache entry.
+     *
+     * Inputs:
+     *    @param address - the address as typed
+     *
+     * Outputs:
+     *      String - the address from AddressNormalizer
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String normalize(String address) {
+        return AddressNormalizer.normalize(address);
+    }
+
+    /*************************************************************************************************
+     * Description: This function looks up an address in memory only, so it is safe to call from
+     *              the main thread.
+     *
+     * Inputs:
+     *    @param address - the address to find
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if it isn't in memory
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double[] getFromMemory(String address) {
+        double[] location;
+        synchronized (memory) {
+            location = memory.get(normalize(address));
+        }
+        if (location != null) {
+            memoryHits.incrementAndGet();
+        }
+        return location;
+    }
+
+    /*************************************************************************************************
+     * Description: This function looks up an address in memory and then on disk. Disk hits are
+     *              copied into memory. This reads the database, so don't call it on the main thread.
+     *
+     * Inputs:
+     *    @param address - the address to find
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if it isn't cached
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double[] get(String address) {
+        String key = normalize(address);
+        double[] location;
+        synchronized (memory) {
+            location = memory.get(key);
+        }
+        // if it was in memory
+        if (location != null) {
+            memoryHits.incrementAndGet();
+            return location;
+        }
+        // looks for a row that hasn't expired, approximate rows expiring sooner
+        long now = System.currentTimeMillis();
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT " + CACHE_latitude + ", " + CACHE_longitude + ", " + CACHE_approximate +
+                " FROM " + CACHE_TABLE_NAME + " WHERE " + CACHE_address + " = ? AND " + CACHE_created + " > CASE " +
+                CACHE_approximate + " WHEN 0 THEN ? ELSE ? END;",
+                new String[]{key, String.valueOf(now - TTL_MILLIS), String.valueOf(now - APPROXIMATE_TTL_MILLIS)});
+        boolean approximate = false;
+        if (cursor.moveToFirst()) {
+            approximate = cursor.getInt(2) != 0;
+            location = approximate ? new double[]{cursor.getDouble(0), cursor.getDouble(1), GeocoderBackend.APPROXIMATE}
+                    : new double[]{cursor.getDouble(0), cursor.getDouble(1)};
+        }
+        // closes cursor
+        cursor.close();
+        // if it was on disk
+        if (location != null) {
+            diskHits.incrementAndGet();
+            // approximate results stay on disk, where they expire
+            if (!approximate) {
+                synchronized (memory) {
+                    memory.put(key, location);
+                }
+            }
+        } else {
+            misses.incrementAndGet();
+        }
+        return location;
+    }
+
+    /*************************************************************************************************
+     * Description: This function stores a Geocoder result on disk, and in memory unless it is
+     *              approximate.
+     *
+     * Inputs:
+     *    @param address - the address that was geocoded
+     *    @param latitude - the address's latitude
+     *    @param longitude - the address's longitude
+     *    @param approximate - true if it is only a ZIP code or town centroid
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void put(String address, double latitude, double longitude, boolean approximate) {
+        String key = normalize(address);
+        if (!approximate) {
+            synchronized (memory) {
+                memory.put(key, new double[]{latitude, longitude});
+            }
+        }
+        // content values hold keys & values to put in database
+        ContentValues values = new ContentValues();
+        values.put(CACHE_address, key);
+        values.put(CACHE_latitude, latitude);
+        values.put(CACHE_longitude, longitude);
+        values.put(CACHE_created, System.currentTimeMillis());
+        values.put(CACHE_approximate, approximate ? 1 : 0);
+        // replaces any older row for the address
+        getWritableDatabase().insertWithOnConflict(CACHE_TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the fraction of lookups that were answered by the cache.
+     *
+     * Outputs:
+     *      double - hits divided by lookups, 0 if there haven't been any lookups
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double getHitRate() {
+        long hits = memoryHits.get() + diskHits.get();
+        long lookups = hits + misses.get();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /*************************************************************************************************
+     * Description: This function describes the cache's hit counts, for logging.
+     *
+     * Outputs:
+     *      String - memory hits, disk hits, misses and hit rate
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public String getMetrics() {
+        return "memoryHits=" + memoryHits.get() + " diskHits=" + diskHits.get() + " misses=" + misses.get() +
+                String.format(Locale.US, " hitRate=%.2f", getHitRate());
+    }
+}
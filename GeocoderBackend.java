@@ -0,0 +1,41 @@
+/*************************************************************************************************
+ * File:   GeocoderBackend.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This interface is anything that can convert a street address to a latitude and
+ *          longitude, so the platform Geocoder can be swapped for another source.
+ *
+ *          A result may have a third element, APPROXIMATE, when it is only the centroid of the
+ *          address's ZIP code or town, so it isn't trusted as long as the address itself.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.io.IOException;
+
+public interface GeocoderBackend {
+
+    /** value of a result's third element when it is a ZIP code or town centroid **/
+    double APPROXIMATE = 1;
+
+    /*************************************************************************************************
+     * Description: This function converts an address to a latitude and longitude. It may be called
+     *              from several threads at once.
+     *
+     * Inputs:
+     *    @param address - the address to convert
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, index 2 is APPROXIMATE for a
+     *                 centroid, or null if the address wasn't found
+     *
+     * Throws:
+     *      IOException - if the backend couldn't be reached, so the lookup can be tried again
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    double[] geocode(String address) throws IOException;
+}
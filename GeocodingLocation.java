@@ -1,69 +1,522 @@
 /*************************************************************************************************
- * File:   MainActivity.java
+ * File:   GeocodingLocation.java
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This file allows the conversion from a street address to a latitude and longitude.
+ *
+ *          Lookups run on a small fixed pool of worker threads with a bounded queue, through a
+ *          GeocoderBackend. Unless another one is set, street addresses in the bundled gazetteer
+ *          are answered offline, then the Android Geocoder is asked, and if it can't be reached
+ *          the address's ZIP code or town centroid is used. Requests for
+ *          an address that is already being looked up share that lookup instead of starting
+ *          another one.
  ************************************************************************************************/
 
 package com.joemenduni.musicmaps;
 
 import android.content.Context;
-import android.location.Address;
-import android.location.Geocoder;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
 import android.util.Log;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GeocodingLocation {
 
     private static final String TAG = "GeocodingLocation";
 
-    public static void getAddressFromLocation(final String locationAddress,
-                                              final Context context, final Handler handler) {
-        Thread thread = new Thread() {
+    /** number of worker threads and most lookups that can wait for one **/
+    private static final int WORKER_COUNT = 2;
+    private static final int QUEUE_CAPACITY = 64;
+
+    /** converts addresses, created from the application context on first use **/
+    private static GeocoderBackend backend = null;
+
+    /** lookups that haven't finished yet, by normalized address **/
+    private static final ConcurrentHashMap<String, GeocodeTask> inFlight = new ConcurrentHashMap<String, GeocodeTask>();
+
+    /** worker threads, which stop when they have been idle for a while **/
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    return new Thread(runnable, "Geocoder-" + count.incrementAndGet());
+                }
+            });
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets the backend that converts addresses, for example a local
+     *              or offline one instead of the Android Geocoder.
+     *
+     * Inputs:
+     *    @param geocoderBackend - the backend to use for every lookup after this
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized void setBackend(GeocoderBackend geocoderBackend) {
+        backend = geocoderBackend;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the backend that converts addresses. If none was set, it
+     *              creates a chain of the offline gazetteer's street addresses, the Android
+     *              Geocoder and then the offline ZIP code and town centroids.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      GeocoderBackend - the backend in use
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized GeocoderBackend getBackend(Context context) {
+        if (backend == null) {
+            // the approximate centroids stay last, so they are only used when nothing else found the address
+            backend = new FallbackGeocoderBackend(new OfflineGeocoderBackend(context, true),
+                    new PlatformGeocoderBackend(context), new OfflineGeocoderBackend(context, false));
+        }
+        return backend;
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts an address to a latitude and longitude and sends them
+     *              to the handler as a message with what = 1. A failed lookup is sent as -1 for
+     *              both. Cancelling the returned request stops the message from being sent.
+     *
+     * Inputs:
+     *    @param locationAddress - the address to convert
+     *    @param context - application context
+     *    @param handler - handler that gets the result message
+     *
+     * Outputs:
+     *      Future<double[]> - the pending request
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static Future<double[]> getAddressFromLocation(final String locationAddress,
+                                                          final Context context, final Handler handler) {
+        return request(locationAddress, context, handler);
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts an address to a latitude and longitude in the background.
+     *
+     * Inputs:
+     *    @param locationAddress - the address to convert
+     *    @param context - application context
+     *
+     * Outputs:
+     *      Future<double[]> - index 0 is latitude, index 1 is longitude, or null if the address
+     *                         wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static Future<double[]> geocode(String locationAddress, Context context) {
+        return request(locationAddress, context, null);
+    }
+
+    /*************************************************************************************************
+     * Description: This function starts a lookup, or joins the one already running for the same
+     *              address. Addresses in the memory cache are answered without a worker.
+     *
+     * Inputs:
+     *    @param locationAddress - the address to convert
+     *    @param context - application context
+     *    @param handler - handler that gets the result message, or null
+     *
+     * Outputs:
+     *      GeocodeRequest - the caller's request
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static GeocodeRequest request(String locationAddress, Context context, Handler handler) {
+        final GeocoderBackend lookupBackend = getBackend(context);
+        final GeocodeCache cache = GeocodeCache.getInstance(context);
+        String key = GeocodeCache.normalize(locationAddress);
+        // if the address was geocoded recently, answers without a worker
+        final double[] cached = cache.getFromMemory(locationAddress);
+        if (cached != null) {
+            GeocodeTask task = new GeocodeTask(key, new Callable<double[]>() {
+                @Override
+                public double[] call() {
+                    return cached;
+                }
+            });
+            task.run();
+            return task.join(handler);
+        }
+        while (true) {
+            GeocodeTask task = inFlight.get(key);
+            // if nobody is looking up the address yet
+            if (task == null) {
+                GeocodeTask created = new GeocodeTask(key, makeLookup(locationAddress, lookupBackend, cache));
+                task = inFlight.putIfAbsent(key, created);
+                if (task == null) {
+                    GeocodeRequest request = created.join(handler);
+                    submit(created);
+                    return request;
+                }
+            }
+            // shares the lookup that is already running
+            GeocodeRequest request = task.join(handler);
+            if (request != null) {
+                return request;
+            }
+            // the lookup was cancelled while joining it, so starts again
+            inFlight.remove(key, task);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function queues a lookup on the workers, failing it if the queue is full.
+     *
+     * Inputs:
+     *    @param task - the lookup to run
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void submit(GeocodeTask task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Geocoder queue is full", e);
+            task.fail(e);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the work done for one address on a worker thread.
+     *
+     * Inputs:
+     *    @param locationAddress - the address to convert
+     *    @param lookupBackend - backend that converts the address
+     *    @param cache - geocoding cache
+     *
+     * Outputs:
+     *      Callable<double[]> - lookup that checks the disk cache and then the backend
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static Callable<double[]> makeLookup(final String locationAddress, final GeocoderBackend lookupBackend,
+                                                 final GeocodeCache cache) {
+        return new Callable<double[]>() {
             @Override
-            public void run() {
-                Geocoder geocoder = new Geocoder(context, Locale.getDefault());
-                double latitude = -1;
-                double longitude = -1;
+            public double[] call() {
+                // checks the disk cache before asking the geocoder
+                double[] stored = cache.get(locationAddress);
+                if (stored != null) {
+                    return stored;
+                }
                 try {
-                    List
-                            addressList = geocoder.getFromLocationName(locationAddress, 1);
-                    if (addressList != null && addressList.size() > 0) {
-                        Address address = (Address) addressList.get(0);
-                        StringBuilder sb = new StringBuilder();
-                        latitude = address.getLatitude();
-                        longitude = address.getLongitude();
+                    double[] location = lookupBackend.geocode(locationAddress);
+                    if (location != null) {
+                        // remembers the result for the next time the address is used, briefly if it is
+                        // only a centroid so the address is looked up exactly again soon
+                        cache.put(locationAddress, location[0], location[1],
+                                OfflineGeocoderBackend.isApproximate(location));
                     }
+                    return location;
                 } catch (IOException e) {
                     Log.e(TAG, "Unable to connect to Geocoder", e);
                 } finally {
-                    Message message = Message.obtain();
-                    message.setTarget(handler);
-                    if (latitude != -1 && longitude != -1) {
-                        message.what = 1;
-                        Bundle bundle = new Bundle();
-                        bundle.putDouble("latitude", latitude);
-                        bundle.putDouble("longitude", longitude);
-                        message.setData(bundle);
-                    } else {
-                        message.what = 1;
-                        Bundle bundle = new Bundle();
-                        bundle.putDouble("latitude", -1);
-                        message.setData(bundle);
+                    // logs the hit rate on debug builds only, since this runs for every lookup
+                    if (BuildConfig.DEBUG) {
+                        Log.d(TAG, "Geocode cache " + cache.getMetrics());
                     }
-                    message.sendToTarget();
                 }
+                return null;
             }
         };
-        thread.start();
+    }
+
+    /*************************************************************************************************
+     * Description: This function sends a latitude and longitude to a handler. A failed lookup is
+     *              sent as -1 for both.
+     *
+     * Inputs:
+     *    @param handler - handler that gets the result message
+     *    @param latitude - latitude found, or -1
+     *    @param longitude - longitude found, or -1
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void sendLocation(Handler handler, double latitude, double longitude) {
+        Message message = Message.obtain();
+        message.setTarget(handler);
+        message.what = 1;
+        Bundle bundle = new Bundle();
+        bundle.putDouble("latitude", latitude);
+        bundle.putDouble("longitude", longitude);
+        message.setData(bundle);
+        message.sendToTarget();
+    }
+
+    /*************************************************************************************************
+     * Description: This class is one lookup, shared by every request for the same address. It is
+     *              only cancelled once every request sharing it has been cancelled.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class GeocodeTask extends FutureTask<double[]> {
+
+        private final String key;
+        private final List<GeocodeRequest> requests = new ArrayList<GeocodeRequest>();
+        private int waiters = 0;
+        private boolean finished = false;
+
+        /*************************************************************************************************
+         * Description: This function creates a lookup for an address.
+         *
+         * Inputs:
+         *    @param key - normalized address, its key in the in flight lookups
+         *    @param lookup - the cache and geocoder lookup to run
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        GeocodeTask(String key, Callable<double[]> lookup) {
+            super(lookup);
+            this.key = key;
+        }
+
+        /*************************************************************************************************
+         * Description: This function adds a request to the lookup. If the lookup already finished,
+         *              the request is answered right away.
+         *
+         * Inputs:
+         *    @param handler - handler to send the location to, or null for none
+         *
+         * Outputs:
+         *      GeocodeRequest - the new request, or null if the lookup was cancelled
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        synchronized GeocodeRequest join(Handler handler) {
+            if (isCancelled()) {
+                return null;
+            }
+            waiters++;
+            GeocodeRequest request = new GeocodeRequest(this, handler);
+            // if the lookup already finished, answers the request now
+            if (finished) {
+                deliver(request);
+            } else {
+                requests.add(request);
+            }
+            return request;
+        }
+
+        /*************************************************************************************************
+         * Description: This function removes a cancelled request, and cancels the lookup if nobody
+         *              is left waiting for it.
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        synchronized void release() {
+            waiters--;
+            if (waiters == 0 && !isDone()) {
+                cancel(true);
+                executor.remove(this);
+            }
+        }
+
+        /*************************************************************************************************
+         * Description: This function finishes the lookup with an error, such as when the workers
+         *              are too busy to run it.
+         *
+         * Inputs:
+         *    @param cause - the error
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        void fail(Throwable cause) {
+            setException(cause);
+        }
+
+        /*************************************************************************************************
+         * Description: This function runs when the lookup finishes or is cancelled. It stops
+         *              sharing the lookup and answers every request waiting for it.
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void done() {
+            inFlight.remove(key, this);
+            List<GeocodeRequest> waiting;
+            synchronized (this) {
+                finished = true;
+                waiting = new ArrayList<GeocodeRequest>(requests);
+                requests.clear();
+            }
+            for (GeocodeRequest request: waiting) {
+                deliver(request);
+            }
+        }
+
+        /*************************************************************************************************
+         * Description: This function sends the result to a request's handler, unless it was
+         *              cancelled. A failed lookup sends -1 for both coordinates.
+         *
+         * Inputs:
+         *    @param request - the request to answer
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        private void deliver(GeocodeRequest request) {
+            if (request.handler == null || request.cancelled || isCancelled()) {
+                return;
+            }
+            double[] location = null;
+            try {
+                location = get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Log.e(TAG, "Geocoding failed", e);
+            }
+            if (location != null) {
+                sendLocation(request.handler, location[0], location[1]);
+            } else {
+                sendLocation(request.handler, -1, -1);
+            }
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This class is one caller's view of a shared lookup. Cancelling it only cancels
+     *              this caller, the lookup keeps going while anyone else is waiting for it.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class GeocodeRequest implements Future<double[]> {
+
+        private final GeocodeTask task;
+        private final Handler handler;
+        private volatile boolean cancelled = false;
+
+        /*************************************************************************************************
+         * Description: This function creates a request for a shared lookup.
+         *
+         * Inputs:
+         *    @param task - the shared lookup
+         *    @param handler - handler to send the location to, or null for none
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        GeocodeRequest(GeocodeTask task, Handler handler) {
+            this.task = task;
+            this.handler = handler;
+        }
+
+        /*************************************************************************************************
+         * Description: This function cancels this request, and the lookup if nobody else is waiting
+         *              for it.
+         *
+         * Inputs:
+         *    @param mayInterruptIfRunning - unused, the lookup is interrupted when nobody is waiting
+         *
+         * Outputs:
+         *      boolean - false if the request was already cancelled or done
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (task) {
+                if (cancelled || task.isDone()) {
+                    return false;
+                }
+                cancelled = true;
+                task.release();
+            }
+            return true;
+        }
+
+        /*************************************************************************************************
+         * Description: This function checks if this request was cancelled.
+         *
+         * Outputs:
+         *      boolean - true if it was cancelled
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /*************************************************************************************************
+         * Description: This function checks if this request was cancelled or the lookup finished.
+         *
+         * Outputs:
+         *      boolean - true if there is nothing left to wait for
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public boolean isDone() {
+            return cancelled || task.isDone();
+        }
+
+        /*************************************************************************************************
+         * Description: This function waits for the lookup to finish.
+         *
+         * Outputs:
+         *      double[] - latitude and longitude, or null if the address wasn't found
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public double[] get() throws InterruptedException, ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return task.get();
+        }
+
+        /*************************************************************************************************
+         * Description: This function waits for the lookup to finish, for at most a given time.
+         *
+         * Inputs:
+         *    @param timeout - longest time to wait
+         *    @param unit - unit of the timeout
+         *
+         * Outputs:
+         *      double[] - latitude and longitude, or null if the address wasn't found
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        public double[] get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return task.get(timeout, unit);
+        }
     }
 }
@@ -0,0 +1,178 @@
+/*************************************************************************************************
+ * File:   IdleWarmer.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class loads the caches the search and map screens need while the user is on
+ *          the main menu, so opening them doesn't pay for it. MainActivity starts it once the
+ *          main thread is idle, and cancels it as soon as the user leaves the menu.
+ *
+ *          The steps run one at a time on a lowest priority thread, from cheapest to most
+ *          expensive. Before each step it checks that it hasn't been cancelled and that there
+ *          is memory to spare, and it does nothing at all on low RAM devices. The index builds
+ *          also stop partway through when the run is cancelled, at the next cursor window they
+ *          read, so a screen waiting on the same index builds it itself without waiting for
+ *          the warmer to finish.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public final class IdleWarmer {
+
+    private static final String TAG = "IdleWarmer";
+
+    /** most of the heap that may already be in use for another step to start **/
+    private static final double MAX_HEAP_USE = 0.5;
+
+    /** runs the steps in the background **/
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /** names of the steps in warm, in order, for the trace sections and log **/
+    private static final String[] STEPS = {"settings", "database", "markerIcons", "zipCodes", "facets",
+            "artistShows", "calendar", "spatialIndex"};
+
+    /** counts starts and cancels, a run stops when it no longer matches **/
+    private static volatile int generation = 0;
+
+    /** stops the index build of the current run, null before the first run **/
+    private static volatile CancellationSignal signal = null;
+
+    private IdleWarmer() {
+    }
+
+    /*************************************************************************************************
+     * Description: This function starts warming the caches in the background, unless the device
+     *              is short on memory. Caches that are already loaded are skipped quickly, and
+     *              ones that were dropped since the last run are loaded again.
+     *
+     * Inputs:
+     *    @param context - any context
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static void start(Context context) {
+        final Context appContext = context.getApplicationContext();
+        ActivityManager activityManager = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+        // if the device has little memory, the caches are only built when they are needed
+        if (activityManager != null && activityManager.isLowRamDevice()) {
+            return;
+        }
+        final int run = ++generation;
+        final CancellationSignal runSignal = new CancellationSignal();
+        signal = runSignal;
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                warm(appContext, run, runSignal);
+            }
+        });
+    }
+
+    /*************************************************************************************************
+     * Description: This function stops warming before the next step, and stops an index build
+     *              that is running at the next cursor window it reads. Screens that do heavy work
+     *              call it so the warmer doesn't compete with them.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static void cancel() {
+        generation++;
+        CancellationSignal runSignal = signal;
+        if (runSignal != null) {
+            runSignal.cancel();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function runs each step while the run is still current and there is
+     *              memory to spare.
+     *
+     * Inputs:
+     *    @param context - application context
+     *    @param run - generation of this run
+     *    @param runSignal - cancels this run's index builds
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void warm(Context context, int run, CancellationSignal runSignal) {
+        DBHelper database = Startup.getDatabase(context);
+        for (int step = 0; step < STEPS.length; step++) {
+            // if the user started something or memory is getting tight
+            if (run != generation || !hasMemoryToSpare()) {
+                return;
+            }
+            Startup.beginSection("IdleWarmer." + STEPS[step]);
+            try {
+                switch (step) {
+                    case 0:
+                        SettingsStore.getInstance(context);
+                        break;
+                    case 1:
+                        // opens the database, creating it the first time
+                        database.getReadableDatabase();
+                        break;
+                    case 2:
+                        MarkerIconCache.getInstance(context).prepareClusterIcons();
+                        break;
+                    case 3:
+                        ZipCodeIndex.getInstance(context);
+                        break;
+                    case 4:
+                        database.getFacetIndex(runSignal);
+                        break;
+                    case 5:
+                        database.getArtistShowIndex(runSignal);
+                        break;
+                    case 6:
+                        database.getCalendarIndex(runSignal);
+                        break;
+                    default:
+                        database.getSpatialIndex(runSignal);
+                }
+            } catch (OperationCanceledException e) {
+                // cancelled partway through a build, which kept nothing
+                return;
+            } catch (RuntimeException e) {
+                // the screen that needs it will try again and report the error
+                Log.w(TAG, "Warming " + STEPS[step] + " failed", e);
+                return;
+            } finally {
+                Startup.endSection();
+            }
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks that less than MAX_HEAP_USE of the heap is in use, so
+     *              warming the caches won't crowd out the app.
+     *
+     * Outputs:
+     *      boolean - true if there is memory to spare
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static boolean hasMemoryToSpare() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used < runtime.maxMemory() * MAX_HEAP_USE;
+    }
+}
@@ -3,7 +3,7 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Main Activity, which contains a
  *          bunch of buttons for the user to select to go to.
@@ -12,64 +12,89 @@
 package com.joemenduni.musicmaps;
 
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.v7.app.AppCompatActivity;
 import android.view.View;
 import android.widget.TextView;
 
 public class MainActivity extends AppCompatActivity {
 
-    /** database object **/
-    DBHelper database;
-
     /** name of the user preferences files **/
     public static final String PREFS_NAME = "AppPrefsFile";
 
-    /** user preferences **/
-    private SharedPreferences settings;
-
     /** form field for name **/
     TextView nameView;
 
+    /** starts warming the caches once the menu is drawn and the main thread has nothing to do **/
+    private final MessageQueue.IdleHandler warmWhenIdle = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            IdleWarmer.start(MainActivity.this);
+            // only runs once per resume
+            return false;
+        }
+    };
+
     /*************************************************************************************************
-     * Description: This function creates and inflates the Main activity and layout.
+     * Description: This function creates and inflates the Main activity and layout. Nothing is
+     *              read from the disk here, the database and settings are loaded when needed.
      *
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_main);
-
-        // initializes database object
-        database = new DBHelper(this);
-
-        // gets user preferences from file
-        settings = getSharedPreferences(PREFS_NAME, 0);
-
-        // makes pointer to view
-        nameView = (TextView) findViewById(R.id.welcomeText);
-
+        Startup.beginSection("MainActivity.onCreate");
+        try {
+            super.onCreate(savedInstanceState);
+            setContentView(R.layout.activity_main);
+
+            // makes pointer to view
+            nameView = (TextView) findViewById(R.id.welcomeText);
+        } finally {
+            Startup.endSection();
+        }
     }
 
     /*************************************************************************************************
      * Description: This function runs when the activity is resumed and updates the user's name
-     *              from the shared preferences.
+     *              from the settings, which are loaded in the background the first time. Once
+     *              the menu is idle, the caches for the other screens are warmed.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onResume() {
         super.onResume();
-        // if there is a preference stored in name
-        if (settings.contains("name")) {
-            String name = settings.getString("name", null);
-            nameView.setText("Welcome," + name + "!");
-        }
+        // warms the search and map caches while the user is on the menu
+        Looper.myQueue().addIdleHandler(warmWhenIdle);
+        Startup.loadSettings(this, new Startup.OnReadyListener<SettingsStore>() {
+            @Override
+            public void onReady(SettingsStore settings) {
+                String name = settings.getUserName();
+                // if there is a preference stored in name
+                if (name != null) {
+                    nameView.setText("Welcome," + name + "!");
+                }
+            }
+        });
+    }
+
+    /*************************************************************************************************
+     * Description: This function runs when the activity is paused and stops warming the caches,
+     *              so the next screen has the device to itself.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onPause() {
+        Looper.myQueue().removeIdleHandler(warmWhenIdle);
+        IdleWarmer.cancel();
+        super.onPause();
     }
 
     /*************************************************************************************************
@@ -143,10 +168,12 @@ public class MainActivity extends AppCompatActivity {
      * Inputs: pressed to run the function
      *    @param view - the button that is clicked to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void gotoMap(View view) {
         Intent mapIntent = new Intent(getApplicationContext(), MapActivity.class);
+        // stops warming, the next screen loads what it needs right away
+        IdleWarmer.cancel();
         startActivity(mapIntent);
     }
 
@@ -156,13 +183,41 @@ public class MainActivity extends AppCompatActivity {
      * Inputs: pressed to run the function
      *    @param view - the button that is clicked to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void gotoSearch(View view) {
         Intent searchIntent = new Intent(getApplicationContext(), SearchActivity.class);
+        // stops warming, the next screen loads what it needs right away
+        IdleWarmer.cancel();
         startActivity(searchIntent);
     }
 
+    /*************************************************************************************************
+     * Description: This function goes to the calendar of upcoming shows.
+     *
+     * Inputs: pressed to run the function
+     *    @param view - the button that is clicked to run the function
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void gotoCalendar(View view) {
+        Intent calendarIntent = new Intent(getApplicationContext(), CalendarActivity.class);
+        startActivity(calendarIntent);
+    }
+
+    /*************************************************************************************************
+     * Description: This function goes to the list of artists, where a profile can be opened.
+     *
+     * Inputs: pressed to run the function
+     *    @param view - the button that is clicked to run the function
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void gotoArtists(View view) {
+        Intent artistsIntent = new Intent(getApplicationContext(), ArtistProfileActivity.class);
+        startActivity(artistsIntent);
+    }
+
 
 
 
@@ -3,27 +3,35 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Maps Activity, which has a map
  *          that displays markers for all the venues and shows, based on what the user wants.
+ *
+ *          Venues are read from the database's spatial index with their shows, so each venue
+ *          is one marker that lists its shows, and nearby venues are drawn as one cluster
+ *          marker with a count. Only the visible part of the map plus a margin is loaded, see
+ *          MarkerLayer.
+ *
+ *          Zoomed out to DensityTiles.MAX_ZOOM or less, the markers are replaced by a heatmap
+ *          drawn from precomputed density tiles, see DensityTileProvider.
  ************************************************************************************************/
 package com.joemenduni.musicmaps;
 
-import android.database.Cursor;
+import android.os.AsyncTask;
 import android.support.v4.app.FragmentActivity;
 import android.os.Bundle;
 
-import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
-import com.google.android.gms.maps.model.BitmapDescriptorFactory;
-import com.google.android.gms.maps.model.LatLng;
-import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
 
+import java.lang.ref.WeakReference;
 
-public class MapActivity extends FragmentActivity implements OnMapReadyCallback {
+
+public class MapActivity extends FragmentActivity implements OnMapReadyCallback, GoogleMap.OnCameraIdleListener {
 
     /** google map object **/
     private GoogleMap mMap;
@@ -31,13 +39,22 @@ public class MapActivity extends FragmentActivity implements OnMapReadyCallback
     /** database object **/
     DBHelper database;
 
+    /** draws the venues and shows on the map **/
+    private MarkerLayer markerLayer;
+
+    /** heatmap shown when zoomed out, null until the density tiles are ready **/
+    private TileOverlay heatmapOverlay = null;
+
+    /** loads the spatial index, null when it isn't running **/
+    private LoadIndexTask loadIndexTask = null;
+
     /*************************************************************************************************
      * Description: This function creates and inflates the Search Maps activity and layout.
      *
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -48,15 +65,33 @@ public class MapActivity extends FragmentActivity implements OnMapReadyCallback
                 .findFragmentById(R.id.map);
         mapFragment.getMapAsync(this);
 
-        // initializes database object
-        database = new DBHelper(this);
+        // gets the shared database object, which opens on its first query
+        database = Startup.getDatabase(this);
+    }
+
+    /*************************************************************************************************
+     * Description: This function stops loading the spatial index and drawing the markers when
+     *              the map is closed.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onDestroy() {
+        if (loadIndexTask != null) {
+            loadIndexTask.cancel(true);
+            loadIndexTask = null;
+        }
+        if (markerLayer != null) {
+            markerLayer.dispose();
+        }
+        super.onDestroy();
     }
 
     /**
      * Manipulates the map once available.
      * This callback is triggered when the map is ready to be used.
      * This is where we can add markers or lines, add listeners or move the camera. In this case,
-     * we just add a marker near Sydney, Australia.
+     * we load the venues and shows in the background and draw the ones in view.
      * If Google Play services is not installed on the device, the user will be prompted to install
      * it inside the SupportMapFragment. This method will only be triggered once the user has
      * installed Google Play services and returned to the app.
@@ -65,56 +100,105 @@ public class MapActivity extends FragmentActivity implements OnMapReadyCallback
     public void onMapReady(GoogleMap googleMap) {
         // google map object
         mMap = googleMap;
+        markerLayer = new MarkerLayer(this, mMap);
+        mMap.setOnCameraIdleListener(this);
+        mMap.setOnMarkerClickListener(markerLayer);
+        mMap.setInfoWindowAdapter(markerLayer);
+        // reads the venues and shows off the main thread
+        loadIndexTask = new LoadIndexTask(this);
+        loadIndexTask.execute();
+    }
 
-        // cursor of all venues
-        Cursor cursor = database.getAllVenuesCursors();
-        LatLng latLng = null;
-
-        // if there is data in the cursor
-        if ((cursor.moveToFirst())) {
-            do {
-                // venue name
-                String name = cursor.getString(6);
-                // venue latitude
-                Double latitude = cursor.getDouble(5);
-                // venue longitude
-                Double longitude = cursor.getDouble(2);
-                // creates location object
-                latLng = new LatLng(latitude, longitude);
-                // adds marker for venue
-                mMap.addMarker(new MarkerOptions().position(latLng).title(name).icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED)));
-            // while there is another object in the cursor
-            } while (cursor.moveToNext());
+    /*************************************************************************************************
+     * Description: This function switches between the heatmap and the markers when the camera
+     *              stops, then lets the markers load the new view.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onCameraIdle() {
+        // if the density tiles aren't ready yet
+        if (heatmapOverlay == null) {
+            return;
         }
-        // closes cursor
-        cursor.close();
-        // cursor of all shows
-        cursor = database.getAllShowsCursors();
-        latLng = null;
-
-        // if there is data in the cursor
-        if ((cursor.moveToFirst())) {
-            do {
-                // show name
-                String name = cursor.getString(3);
-                // show latitude & longitude
-                double[] latlng = database.findVenueLatLngByID(cursor.getInt(0));
-                // puts latitude a little away from real so that we can see both pins
-                Double latitude = latlng[0] + .00001;
-                // puts longitude a little away from real so that we can see both pins
-                Double longitude = latlng[1] + .00001;
-                // creates location object
-                latLng = new LatLng(latitude, longitude);
-                // adds marker for show
-                mMap.addMarker(new MarkerOptions().position(latLng).title(name).icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_BLUE)));
-                // while there is another object in the cursor
-            } while (cursor.moveToNext());
+        // tiles are drawn for whole zoom levels, so 7.5 still uses the level 7 tiles
+        boolean heatmap = (int) mMap.getCameraPosition().zoom <= DensityTiles.MAX_ZOOM;
+        heatmapOverlay.setVisible(heatmap);
+        markerLayer.setEnabled(!heatmap);
+        if (!heatmap) {
+            markerLayer.onCameraIdle();
         }
-        // closes cursor
-        cursor.close();
-        // moves camera to last read location
-        mMap.moveCamera(CameraUpdateFactory.newLatLng(latLng));
     }
 
+    /*************************************************************************************************
+     * Description: This class loads the spatial index in the background, then moves the camera
+     *              and draws the heatmap or the markers in view. It only holds a weak reference
+     *              to the activity, so a closed map can be freed while the index is loading.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class LoadIndexTask extends AsyncTask<Void, Void, SpatialIndex> {
+
+        /** activity that started the task, if it is still around **/
+        private final WeakReference<MapActivity> activityRef;
 
+        /** database to read the index from **/
+        private final DBHelper database;
+
+        /*************************************************************************************************
+         * Description: This function creates the task.
+         *
+         * Inputs:
+         *    @param activity - activity showing the map
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        LoadIndexTask(MapActivity activity) {
+            this.activityRef = new WeakReference<MapActivity>(activity);
+            this.database = activity.database;
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets the spatial index.
+         *
+         * Inputs:
+         *    @param params - unused
+         *
+         * Outputs:
+         *      SpatialIndex - every venue and show
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected SpatialIndex doInBackground(Void... params) {
+            return database.getSpatialIndex();
+        }
+
+        /*************************************************************************************************
+         * Description: This function fits the camera to every point, adds the heatmap overlay and
+         *              draws the markers in view, unless the activity is gone.
+         *
+         * Inputs:
+         *    @param index - every venue and show
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void onPostExecute(SpatialIndex index) {
+            MapActivity activity = activityRef.get();
+            // if the activity is gone or going, there is nothing to draw
+            if (isCancelled() || activity == null || activity.isFinishing()) {
+                return;
+            }
+            activity.loadIndexTask = null;
+            // fits the camera to every point, using the bounds found while they were read
+            SupportMapFragment mapFragment = (SupportMapFragment) activity.getSupportFragmentManager().findFragmentById(R.id.map);
+            activity.markerLayer.fitCamera(index.getBounds(), mapFragment.getView());
+            activity.heatmapOverlay = activity.mMap.addTileOverlay(new TileOverlayOptions()
+                    .tileProvider(new DensityTileProvider(database)).fadeIn(false).visible(false));
+            // picks the heatmap or markers for the new camera before any markers are drawn
+            activity.onCameraIdle();
+            activity.markerLayer.setIndex(index);
+        }
+    }
 }
@@ -0,0 +1,248 @@
+/*************************************************************************************************
+ * File:   MarkerIconCache.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class keeps one BitmapDescriptor for each kind of marker icon, shared by every
+ *          map screen, so drawing thousands of markers doesn't create thousands of icons. Icons
+ *          are kept by hue for venue and show pins, and by label for cluster circles. It can be
+ *          used from any thread.
+ *
+ *          The cluster circles can be drawn ahead of time with prepareClusterIcons, before the
+ *          map is ready, since only turning them into BitmapDescriptors needs the map.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MarkerIconCache {
+
+    /** smallest counts of each cluster icon, so large clusters share an icon **/
+    private static final int[] CLUSTER_BUCKETS = {10, 25, 50, 100, 250, 500, 1000};
+
+    /** shared instance **/
+    private static MarkerIconCache instance = null;
+
+    /** screen density, for drawing cluster icons **/
+    private final float density;
+
+    /** pin icons, by hue **/
+    private final ConcurrentHashMap<Float, BitmapDescriptor> pins = new ConcurrentHashMap<Float, BitmapDescriptor>();
+
+    /** cluster icons, by label **/
+    private final ConcurrentHashMap<String, BitmapDescriptor> clusters = new ConcurrentHashMap<String, BitmapDescriptor>();
+
+    /** cluster circles drawn ahead of time, by label, until they are made into icons **/
+    private final ConcurrentHashMap<String, Bitmap> preparedClusters = new ConcurrentHashMap<String, Bitmap>();
+
+    /*************************************************************************************************
+     * Description: This function creates the cache.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private MarkerIconCache(Context context) {
+        density = context.getResources().getDisplayMetrics().density;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shared cache.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      MarkerIconCache - the shared cache
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized MarkerIconCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new MarkerIconCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the pin icon for a kind of point. Venues are red and shows
+     *              are blue.
+     *
+     * Inputs:
+     *    @param kind - SpatialIndex.KIND_VENUE or SpatialIndex.KIND_SHOW
+     *
+     * Outputs:
+     *      BitmapDescriptor - the shared pin icon
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BitmapDescriptor forKind(int kind) {
+        return forHue(kind == SpatialIndex.KIND_VENUE ? BitmapDescriptorFactory.HUE_RED : BitmapDescriptorFactory.HUE_BLUE);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the default pin icon in a color.
+     *
+     * Inputs:
+     *    @param hue - one of the BitmapDescriptorFactory.HUE_ values
+     *
+     * Outputs:
+     *      BitmapDescriptor - the shared pin icon
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BitmapDescriptor forHue(float hue) {
+        BitmapDescriptor icon = pins.get(hue);
+        if (icon == null) {
+            icon = BitmapDescriptorFactory.defaultMarker(hue);
+            BitmapDescriptor existing = pins.putIfAbsent(hue, icon);
+            if (existing != null) {
+                icon = existing;
+            }
+        }
+        return icon;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the icon for a cluster, drawing it the first time. Large
+     *              counts share an icon such as "100+".
+     *
+     * Inputs:
+     *    @param count - number of points in the cluster
+     *
+     * Outputs:
+     *      BitmapDescriptor - circle with the count
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public BitmapDescriptor forCluster(int count) {
+        int bucket = bucketOf(count);
+        String label = labelOf(count, bucket);
+        BitmapDescriptor icon = clusters.get(label);
+        // if the icon hasn't been made yet
+        if (icon == null) {
+            Bitmap bitmap = preparedClusters.remove(label);
+            // if the circle wasn't drawn ahead of time
+            if (bitmap == null) {
+                bitmap = drawCluster(label, bucket);
+            }
+            icon = BitmapDescriptorFactory.fromBitmap(bitmap);
+            BitmapDescriptor existing = clusters.putIfAbsent(label, icon);
+            if (existing != null) {
+                icon = existing;
+            }
+        }
+        return icon;
+    }
+
+    /*************************************************************************************************
+     * Description: This function draws the most common cluster circles ahead of time: small counts
+     *              and every shared "N+" label. It doesn't need the map, so it can run while the
+     *              app is idle.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void prepareClusterIcons() {
+        prepareCluster(2, CLUSTER_BUCKETS[0] - 1);
+        for (int bucketStart: CLUSTER_BUCKETS) {
+            prepareCluster(bucketStart, bucketStart);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function draws the circles for a range of counts that haven't been drawn
+     *              yet.
+     *
+     * Inputs:
+     *    @param from - first count
+     *    @param to - last count
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void prepareCluster(int from, int to) {
+        for (int count = from; count <= to; count++) {
+            int bucket = bucketOf(count);
+            String label = labelOf(count, bucket);
+            if (!clusters.containsKey(label) && !preparedClusters.containsKey(label)) {
+                preparedClusters.putIfAbsent(label, drawCluster(label, bucket));
+            }
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the size bucket of a count.
+     *
+     * Inputs:
+     *    @param count - points in the cluster
+     *
+     * Outputs:
+     *      int - size bucket, 0 for counts below the first bucket
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int bucketOf(int count) {
+        for (int i = CLUSTER_BUCKETS.length - 1; i >= 0; i--) {
+            if (count >= CLUSTER_BUCKETS[i]) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the label of a count, such as "7" or "100+". Counts in a
+     *              bucket share its label, so they share an icon.
+     *
+     * Inputs:
+     *    @param count - points in the cluster
+     *    @param bucket - size bucket of the count
+     *
+     * Outputs:
+     *      String - label to write in the circle
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String labelOf(int count, int bucket) {
+        return bucket == 0 ? String.valueOf(count) : CLUSTER_BUCKETS[bucket - 1] + "+";
+    }
+
+    /*************************************************************************************************
+     * Description: This function draws a cluster circle with a label in the middle.
+     *
+     * Inputs:
+     *    @param label - count to write in the circle
+     *    @param bucket - size bucket, bigger clusters get bigger circles
+     *
+     * Outputs:
+     *      Bitmap - the cluster icon
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private Bitmap drawCluster(String label, int bucket) {
+        int size = (int) ((36 + 4 * bucket) * density);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.rgb(63, 81, 181));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(14 * density);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setFakeBoldText(true);
+        canvas.drawText(label, size / 2f, size / 2f - (paint.descent() + paint.ascent()) / 2, paint);
+        return bitmap;
+    }
+}
@@ -0,0 +1,697 @@
+/*************************************************************************************************
+ * File:   MarkerLayer.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class draws the points of a SpatialIndex on a map, for the map screens.
+ *
+ *          Only the visible part of the map plus a margin around it is loaded. When the camera
+ *          stops, the clusters are queried again only if the view has left the loaded area or
+ *          the zoom level changed, and the markers are diffed by cluster key, so markers that
+ *          are still there stay and the rest are removed. The number of markers stays about
+ *          the same wherever the map is panned.
+ *
+ *          The query and the marker options are done on a background thread, with icons from
+ *          the shared MarkerIconCache and options reused from a pool. Only removing and adding
+ *          the markers runs on the main thread, a batch at a time. The screen calls dispose
+ *          when it is destroyed, so no refresh keeps it or its map alive afterwards.
+ *
+ *          A venue is one marker whatever its number of shows, and its info window lists them.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.google.android.gms.maps.CameraUpdateFactory;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class MarkerLayer implements GoogleMap.OnCameraIdleListener, GoogleMap.OnMarkerClickListener,
+        GoogleMap.InfoWindowAdapter {
+
+    /** most markers drawn at once **/
+    private static final int MAX_MARKERS = 300;
+
+    /** area loaded around the view on each side, as a fraction of the view's size **/
+    private static final double MARGIN = 0.5;
+
+    /** zoom level used when every point is in one place **/
+    private static final float POINT_ZOOM = 15;
+
+    /** boxes smaller than this many degrees are treated as one place **/
+    private static final double MIN_SPAN = 0.002;
+
+    /** boxes wider than this many degrees of longitude can't be fitted in one view **/
+    private static final double MAX_FIT_SPAN = 180;
+
+    /** zoom level used to show the busiest area when the points are too spread out **/
+    private static final float DENSEST_ZOOM = 6;
+
+    /** space left around the points when the camera is fitted to them **/
+    private static final int FIT_PADDING_DP = 48;
+
+    /** most shows listed in a venue's info window **/
+    private static final int MAX_LISTED_SHOWS = 10;
+
+    /** markers added on the main thread between frames **/
+    private static final int ADD_BATCH_SIZE = 50;
+
+    /** most unused marker options kept for reuse **/
+    private static final int POOL_SIZE = MAX_MARKERS;
+
+    /** builds marker options for every map screen, one refresh at a time **/
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "MarkerLayer");
+        }
+    });
+
+    /** marker options that have been added to the map and can be filled in again **/
+    private static final ArrayDeque<MarkerOptions> pool = new ArrayDeque<MarkerOptions>();
+
+    /** activity context, for building info windows **/
+    private final Context context;
+
+    /** shared icons **/
+    private final MarkerIconCache icons;
+
+    /** runs the marker changes on the main thread **/
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** google map object **/
+    private final GoogleMap map;
+
+    /** points to draw, null until they are loaded **/
+    private SpatialIndex index = null;
+
+    /** markers on the map, by cluster key **/
+    private final Map<String, Marker> markers = new HashMap<String, Marker>();
+
+    /** counts refreshes, so the results of an older one are thrown away. Read by the worker to
+        skip refreshes that are already out of date **/
+    private volatile int generation = 0;
+
+    /** set once the screen is destroyed, after which nothing is drawn **/
+    private boolean disposed = false;
+
+    /** area and cluster level of the markers on the map, loadedLevel is -1 if nothing is loaded **/
+    private double loadedSouth;
+    private double loadedWest;
+    private double loadedNorth;
+    private double loadedEast;
+    private int loadedLevel = -1;
+
+    /** whether markers are drawn, the map may show a heatmap instead when zoomed out **/
+    private boolean enabled = true;
+
+    /*************************************************************************************************
+     * Description: This function creates the layer. The caller sets it as the map's camera idle
+     *              listener, marker click listener and info window adapter.
+     *
+     * Inputs:
+     *    @param context - activity context
+     *    @param map - the map to draw on
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public MarkerLayer(Context context, GoogleMap map) {
+        this.context = context;
+        this.icons = MarkerIconCache.getInstance(context);
+        this.map = map;
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets the points to draw and draws them. Setting new points
+     *              while markers are on the map only removes the markers that changed and adds
+     *              the new ones, the markers that are in both stay on the map.
+     *
+     * Inputs:
+     *    @param spatialIndex - the points to draw
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void setIndex(SpatialIndex spatialIndex) {
+        index = spatialIndex;
+        loadedLevel = -1;
+        refresh();
+    }
+
+    /*************************************************************************************************
+     * Description: This function turns the markers on or off. Turning them off removes them, and
+     *              turning them on draws the ones in view.
+     *
+     * Inputs:
+     *    @param enabled - whether to draw markers
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void setEnabled(boolean enabled) {
+        // if nothing changes
+        if (this.enabled == enabled) {
+            return;
+        }
+        this.enabled = enabled;
+        if (enabled) {
+            refresh();
+        } else {
+            clear();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function loads the markers again when the camera stops, if it has moved
+     *              out of the loaded area or changed zoom level.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onCameraIdle() {
+        refresh();
+    }
+
+    /*************************************************************************************************
+     * Description: This function zooms in on a cluster when it is tapped. Single venues and shows,
+     *              and stacked clusters that zooming in can't split, show their info window instead.
+     *
+     * Inputs:
+     *    @param marker - the marker that was tapped
+     *
+     * Outputs:
+     *      boolean - true if the tap was handled here
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public boolean onMarkerClick(Marker marker) {
+        SpatialIndex.Cluster cluster = (SpatialIndex.Cluster) marker.getTag();
+        // if it is a single venue or show, or a cluster whose points are listed instead
+        if (cluster == null || cluster.count == 1 || cluster.stacked) {
+            return false;
+        }
+        map.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(), map.getCameraPosition().zoom + 2));
+        return true;
+    }
+
+    /*************************************************************************************************
+     * Description: This function moves the camera so every point in a bounding box is on screen.
+     *              A single place is shown at a street level zoom, and an empty box leaves the
+     *              camera where it is. Points spread over more than half the world can't be
+     *              fitted usefully, so the camera shows the busiest cell instead.
+     *
+     * Inputs:
+     *    @param bounds - bounding box of the points
+     *    @param mapView - the map's view, for its size
+     *
+     * Outputs:
+     *      boolean - false if there were no points to fit
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean fitCamera(BoundsAccumulator bounds, View mapView) {
+        // if there is nothing to show
+        if (bounds.getCount() == 0) {
+            return false;
+        }
+        // if every point is in about the same place
+        if (bounds.getNorth() - bounds.getSouth() < MIN_SPAN && bounds.getEast() - bounds.getWest() < MIN_SPAN) {
+            LatLng center = new LatLng((bounds.getSouth() + bounds.getNorth()) / 2, (bounds.getWest() + bounds.getEast()) / 2);
+            map.moveCamera(CameraUpdateFactory.newLatLngZoom(center, POINT_ZOOM));
+            return true;
+        }
+        // if the points are too spread out, shows where most of them are
+        if (bounds.getEast() - bounds.getWest() > MAX_FIT_SPAN) {
+            LatLng densest = new LatLng(bounds.getDensestLatitude(), bounds.getDensestLongitude());
+            map.moveCamera(CameraUpdateFactory.newLatLngZoom(densest, DENSEST_ZOOM));
+            return true;
+        }
+        // uses the map's size, or the screen's if the map hasn't been laid out yet
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int width = mapView != null && mapView.getWidth() > 0 ? mapView.getWidth() : metrics.widthPixels;
+        int height = mapView != null && mapView.getHeight() > 0 ? mapView.getHeight() : metrics.heightPixels;
+        LatLngBounds box = new LatLngBounds(new LatLng(bounds.getSouth(), bounds.getWest()), new LatLng(bounds.getNorth(), bounds.getEast()));
+        map.moveCamera(CameraUpdateFactory.newLatLngBounds(box, width, height, (int) (FIT_PADDING_DP * metrics.density)));
+        return true;
+    }
+
+    /*************************************************************************************************
+     * Description: This function keeps the map's default info window frame.
+     *
+     * Inputs:
+     *    @param marker - the marker that was tapped
+     *
+     * Outputs:
+     *      View - null, so getInfoContents is used
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public View getInfoWindow(Marker marker) {
+        return null;
+    }
+
+    /*************************************************************************************************
+     * Description: This function lists a venue's shows, or a stacked cluster's venues and shows,
+     *              in the marker's info window. Other markers show their title as usual.
+     *
+     * Inputs:
+     *    @param marker - the marker that was tapped
+     *
+     * Outputs:
+     *      View - list of the venue's shows or the cluster's points, or null for the default contents
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public View getInfoContents(Marker marker) {
+        SpatialIndex.Cluster cluster = (SpatialIndex.Cluster) marker.getTag();
+        // if it isn't a venue with shows or a stacked cluster
+        if (cluster == null || (cluster.count != 1 && !cluster.stacked) || cluster.details == null) {
+            return null;
+        }
+        LinearLayout layout = new LinearLayout(context);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        // venue name, or the cluster's counts
+        TextView title = new TextView(context);
+        title.setText(cluster.count == 1 ? cluster.name : marker.getTitle());
+        title.setTypeface(Typeface.DEFAULT_BOLD);
+        layout.addView(title);
+        // one line for each show or point, up to the limit
+        String[] showNames = cluster.details.split("\n");
+        for (int i = 0; i < showNames.length && i < MAX_LISTED_SHOWS; i++) {
+            TextView show = new TextView(context);
+            show.setText(showNames[i]);
+            layout.addView(show);
+        }
+        if (showNames.length > MAX_LISTED_SHOWS) {
+            TextView more = new TextView(context);
+            more.setText("and " + (showNames.length - MAX_LISTED_SHOWS) + " more");
+            layout.addView(more);
+        }
+        return layout;
+    }
+
+    /*************************************************************************************************
+     * Description: This function removes every marker.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void clear() {
+        for (Marker marker: markers.values()) {
+            marker.remove();
+        }
+        markers.clear();
+        loadedLevel = -1;
+        // stops any refresh that is still running from adding markers
+        generation++;
+    }
+
+    /*************************************************************************************************
+     * Description: This function stops the layer when its screen is destroyed. Any refresh on the
+     *              worker is thrown away and the marker changes already posted to the main
+     *              thread are dropped, so neither keeps the activity or its map alive.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void dispose() {
+        disposed = true;
+        // makes any refresh still on the worker out of date
+        generation++;
+        mainHandler.removeCallbacksAndMessages(null);
+        markers.clear();
+        index = null;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of markers on the map.
+     *
+     * Outputs:
+     *      int - number of markers
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int size() {
+        return markers.size();
+    }
+
+    /*************************************************************************************************
+     * Description: This function loads the clusters in the view plus the margin, if the view
+     *              isn't already covered. The clusters are queried and the options for new
+     *              markers are made in the background, then the markers are updated.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void refresh() {
+        // if the screen is gone, the points haven't loaded yet or markers are off
+        if (disposed || index == null || !enabled) {
+            return;
+        }
+        LatLngBounds visible = map.getProjection().getVisibleRegion().latLngBounds;
+        final float zoom = map.getCameraPosition().zoom;
+        int level = SpatialIndex.levelForZoom(zoom);
+        // if the loaded markers already cover the view at this zoom level
+        if (level == loadedLevel && isLoaded(visible)) {
+            return;
+        }
+        // grows the view by the margin on each side
+        double south = visible.southwest.latitude;
+        double north = visible.northeast.latitude;
+        double west = visible.southwest.longitude;
+        double east = visible.northeast.longitude;
+        double latMargin = (north - south) * MARGIN;
+        double lngSpan = west <= east ? east - west : east - west + 360;
+        double lngMargin = lngSpan * MARGIN;
+        south = Math.max(-90, south - latMargin);
+        north = Math.min(90, north + latMargin);
+        // if the grown view goes all the way around the world
+        if (lngSpan + 2 * lngMargin >= 360) {
+            west = -180;
+            east = 180;
+        } else {
+            west = wrapLongitude(west - lngMargin);
+            east = wrapLongitude(east + lngMargin);
+        }
+        loadedSouth = south;
+        loadedWest = west;
+        loadedNorth = north;
+        loadedEast = east;
+        loadedLevel = level;
+        // values the background thread works from
+        final int refreshGeneration = ++generation;
+        final SpatialIndex points = index;
+        final Set<String> onMap = new HashSet<String>(markers.keySet());
+        final double[] box = {south, west, north, east};
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                // if a newer refresh has started or the screen is gone
+                if (refreshGeneration != generation) {
+                    return;
+                }
+                List<SpatialIndex.Cluster> clusters = points.clusters(box[0], box[1], box[2], box[3], zoom, MAX_MARKERS);
+                // keys of the clusters that should be on the map
+                final Set<String> keys = new HashSet<String>();
+                // clusters that aren't on the map yet, and their marker options
+                final List<SpatialIndex.Cluster> added = new ArrayList<SpatialIndex.Cluster>();
+                final List<MarkerOptions> options = new ArrayList<MarkerOptions>();
+                // clusters that are on the map already, whose markers get the new cluster
+                final List<SpatialIndex.Cluster> kept = new ArrayList<SpatialIndex.Cluster>();
+                for (SpatialIndex.Cluster cluster: clusters) {
+                    keys.add(cluster.key);
+                    if (!onMap.contains(cluster.key)) {
+                        added.add(cluster);
+                        options.add(makeMarkerOptions(cluster));
+                    } else {
+                        kept.add(cluster);
+                    }
+                }
+                // if the results went out of date while they were made
+                if (refreshGeneration != generation) {
+                    recycle(options, 0);
+                    return;
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyRefresh(refreshGeneration, keys, kept, added, options);
+                    }
+                });
+            }
+        });
+    }
+
+    /*************************************************************************************************
+     * Description: This function removes the markers that are no longer loaded or were merged or
+     *              split, updates the ones that stay, then starts adding the new ones. It runs on
+     *              the main thread.
+     *
+     * Inputs:
+     *    @param refreshGeneration - generation of the refresh that made the results
+     *    @param keys - keys of the clusters that should be on the map
+     *    @param kept - clusters that were on the map when the refresh started
+     *    @param added - clusters that weren't on the map when the refresh started
+     *    @param options - marker options for each added cluster
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void applyRefresh(int refreshGeneration, Set<String> keys, List<SpatialIndex.Cluster> kept,
+                              List<SpatialIndex.Cluster> added, List<MarkerOptions> options) {
+        // if a newer refresh has started, its results will be used instead
+        if (refreshGeneration != generation) {
+            recycle(options, 0);
+            return;
+        }
+        Iterator<Map.Entry<String, Marker>> iterator = markers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Marker> entry = iterator.next();
+            if (!keys.contains(entry.getKey())) {
+                entry.getValue().remove();
+                iterator.remove();
+            }
+        }
+        for (SpatialIndex.Cluster cluster : kept) {
+            Marker marker = markers.get(cluster.key);
+            // an older refresh may have removed it, and this refresh didn't add it again
+            if (marker != null) {
+                updateMarker(marker, cluster);
+            }
+        }
+        addBatch(refreshGeneration, added, options, 0);
+    }
+
+    /*************************************************************************************************
+     * Description: This function points a marker that stays on the map at its cluster from the
+     *              latest refresh, and updates its title and snippet to match. The key doesn't
+     *              change when a venue's shows are renamed, so the old cluster's names would be
+     *              shown otherwise. An open info window is drawn again.
+     *
+     * Inputs:
+     *    @param marker - the marker on the map
+     *    @param cluster - the marker's cluster from the latest refresh
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void updateMarker(Marker marker, SpatialIndex.Cluster cluster) {
+        marker.setTag(cluster);
+        marker.setTitle(makeTitle(cluster));
+        marker.setSnippet(makeSnippet(cluster));
+        // the info window is a snapshot, so it is drawn again with the new contents
+        if (marker.isInfoWindowShown()) {
+            marker.showInfoWindow();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds one batch of markers and posts the next batch, so adding
+     *              many markers doesn't hold up the main thread for a long time.
+     *
+     * Inputs:
+     *    @param refreshGeneration - generation of the refresh that made the results
+     *    @param added - clusters to add
+     *    @param options - marker options for each cluster
+     *    @param from - first cluster of this batch
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void addBatch(final int refreshGeneration, final List<SpatialIndex.Cluster> added,
+                          final List<MarkerOptions> options, int from) {
+        // if a newer refresh has started, its results will be used instead
+        if (refreshGeneration != generation) {
+            recycle(options, from);
+            return;
+        }
+        final int to = Math.min(from + ADD_BATCH_SIZE, added.size());
+        for (int i = from; i < to; i++) {
+            SpatialIndex.Cluster cluster = added.get(i);
+            Marker marker = markers.get(cluster.key);
+            if (marker == null) {
+                marker = map.addMarker(options.get(i));
+                marker.setTag(cluster);
+                markers.put(cluster.key, marker);
+            } else {
+                // a marker from an older refresh added it already
+                updateMarker(marker, cluster);
+            }
+        }
+        // the map copies the options, so they can be used again
+        recycle(options.subList(from, to), 0);
+        if (to < added.size()) {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    addBatch(refreshGeneration, added, options, to);
+                }
+            });
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks whether the loaded area covers a view. Views or loaded
+     *              areas that cross 180 degrees are always loaded again.
+     *
+     * Inputs:
+     *    @param visible - the visible part of the map
+     *
+     * Outputs:
+     *      boolean - true if the view is inside the loaded area
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private boolean isLoaded(LatLngBounds visible) {
+        if (visible.southwest.longitude > visible.northeast.longitude || loadedWest > loadedEast) {
+            return false;
+        }
+        return visible.southwest.latitude >= loadedSouth && visible.northeast.latitude <= loadedNorth &&
+                visible.southwest.longitude >= loadedWest && visible.northeast.longitude <= loadedEast;
+    }
+
+    /*************************************************************************************************
+     * Description: This function brings a longitude that went past the date line back between -180
+     *              and 180.
+     *
+     * Inputs:
+     *    @param longitude - a longitude less than 360 degrees out of range
+     *
+     * Outputs:
+     *      double - the same meridian between -180 and 180
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static double wrapLongitude(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        return longitude;
+    }
+
+    /*************************************************************************************************
+     * Description: This function fills in marker options for a cluster. Venues are red, shows are
+     *              blue and clusters are a circle with their count. Every field that is set for
+     *              any marker is set here, since the options may have been used before.
+     *
+     * Inputs:
+     *    @param cluster - the cluster to draw
+     *
+     * Outputs:
+     *      MarkerOptions - options for the cluster's marker
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private MarkerOptions makeMarkerOptions(SpatialIndex.Cluster cluster) {
+        MarkerOptions options = obtainOptions().position(new LatLng(cluster.latitude, cluster.longitude))
+                .title(makeTitle(cluster)).snippet(makeSnippet(cluster));
+        // if it is a single venue or show
+        if (cluster.count == 1) {
+            return options.icon(icons.forKind(cluster.kind)).anchor(0.5f, 1f);
+        }
+        return options.icon(icons.forCluster(cluster.count)).anchor(0.5f, 0.5f);
+    }
+
+    /*************************************************************************************************
+     * Description: This function makes a marker's title. Single points use their name, and clusters
+     *              only mention the kinds that are in them.
+     *
+     * Inputs:
+     *    @param cluster - the cluster to draw
+     *
+     * Outputs:
+     *      String - the marker's title
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String makeTitle(SpatialIndex.Cluster cluster) {
+        // if it is a single venue or show
+        if (cluster.count == 1) {
+            return cluster.name;
+        }
+        // only mentions the kinds that are in the cluster
+        if (cluster.venueCount == 0) {
+            return cluster.showCount + " shows";
+        }
+        if (cluster.showCount == 0) {
+            return cluster.venueCount + " venues";
+        }
+        return cluster.venueCount + " venues, " + cluster.showCount + " shows";
+    }
+
+    /*************************************************************************************************
+     * Description: This function makes a marker's snippet. A single venue shows its number of
+     *              shows, and everything else has none.
+     *
+     * Inputs:
+     *    @param cluster - the cluster to draw
+     *
+     * Outputs:
+     *      String - the marker's snippet, or null
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String makeSnippet(SpatialIndex.Cluster cluster) {
+        // if it is a single venue, its shows are listed in the info window
+        if (cluster.count == 1 && cluster.kind == SpatialIndex.KIND_VENUE) {
+            return cluster.showCount == 0 ? "No shows" : cluster.showCount == 1 ? "1 show" : cluster.showCount + " shows";
+        }
+        return null;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets marker options from the pool, or new ones if it is empty.
+     *
+     * Outputs:
+     *      MarkerOptions - options to fill in
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static MarkerOptions obtainOptions() {
+        synchronized (pool) {
+            MarkerOptions options = pool.poll();
+            return options != null ? options : new MarkerOptions();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function puts marker options that are no longer needed back in the pool,
+     *              until the pool is full.
+     *
+     * Inputs:
+     *    @param options - the options
+     *    @param from - index of the first option to put back
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static void recycle(List<MarkerOptions> options, int from) {
+        synchronized (pool) {
+            for (int i = from; i < options.size() && pool.size() < POOL_SIZE; i++) {
+                pool.add(options.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*************************************************************************************************
+ * File:   OfflineGeocoderBackend.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class converts addresses without a network connection, from the bundled
+ *          gazetteer and ZIP code table. A street address found in the gazetteer gives its own
+ *          location. Otherwise the address's ZIP code centroid is used, and then its town, and
+ *          the result is marked approximate.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+
+public class OfflineGeocoderBackend implements GeocoderBackend {
+
+    /** application context, for loading the gazetteer on first use **/
+    private final Context context;
+
+    /** true to only answer with street addresses, never a ZIP code or town centroid **/
+    private final boolean streetLevelOnly;
+
+    /*************************************************************************************************
+     * Description: This function creates the backend.
+     *
+     * Inputs:
+     *    @param context - application context
+     *    @param streetLevelOnly - true to only answer when the whole address is in the gazetteer
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public OfflineGeocoderBackend(Context context, boolean streetLevelOnly) {
+        this.context = context.getApplicationContext();
+        this.streetLevelOnly = streetLevelOnly;
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts an address from the gazetteer, then the ZIP code
+     *              table and then the gazetteer's towns.
+     *
+     * Inputs:
+     *    @param address - the address to convert
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if the address wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public double[] geocode(String address) {
+        Gazetteer gazetteer = Gazetteer.getInstance(context);
+        // the whole address, with any zip code taken off the end
+        String normalized = AddressNormalizer.normalize(address).replaceAll(" ?[0-9]{5}( [0-9]{4})?$", "");
+        double[] location = gazetteer.find(normalized);
+        if (location != null || streetLevelOnly) {
+            return location;
+        }
+        // the centroid of the address's zip code
+        int zip = AddressNormalizer.zipCode(address);
+        if (zip != -1) {
+            location = ZipCodeIndex.getInstance(context).lookup(zip);
+            if (location != null) {
+                return approximate(location);
+            }
+        }
+        // the centroid of the address's town
+        String town = AddressNormalizer.townAndState(address);
+        location = town == null ? null : gazetteer.find(town);
+        return location == null ? null : approximate(location);
+    }
+
+    /*************************************************************************************************
+     * Description: This function marks a centroid result as approximate.
+     *
+     * Inputs:
+     *    @param location - index 0 is latitude, index 1 is longitude
+     *
+     * Outputs:
+     *      double[] - the location with APPROXIMATE as index 2
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static double[] approximate(double[] location) {
+        return new double[]{location[0], location[1], APPROXIMATE};
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if a result is only a ZIP code or town centroid.
+     *
+     * Inputs:
+     *    @param location - a result from any backend
+     *
+     * Outputs:
+     *      boolean - true if the result is marked APPROXIMATE
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static boolean isApproximate(double[] location) {
+        return location.length > 2 && location[2] == APPROXIMATE;
+    }
+}
@@ -0,0 +1,65 @@
+/*************************************************************************************************
+ * File:   PlatformGeocoderBackend.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class converts addresses with the Android Geocoder, keeping one Geocoder for
+ *          each thread that uses it.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+public class PlatformGeocoderBackend implements GeocoderBackend {
+
+    /** one Geocoder for each thread **/
+    private final ThreadLocal<Geocoder> geocoders;
+
+    /*************************************************************************************************
+     * Description: This function creates the backend.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public PlatformGeocoderBackend(Context context) {
+        final Context appContext = context.getApplicationContext();
+        geocoders = new ThreadLocal<Geocoder>() {
+            @Override
+            protected Geocoder initialValue() {
+                return new Geocoder(appContext, Locale.getDefault());
+            }
+        };
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts an address with the Android Geocoder.
+     *
+     * Inputs:
+     *    @param address - the address to convert
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if the address wasn't found
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public double[] geocode(String address) throws IOException {
+        List<Address> addressList = geocoders.get().getFromLocationName(address, 1);
+        if (addressList != null && addressList.size() > 0) {
+            Address found = addressList.get(0);
+            return new double[]{found.getLatitude(), found.getLongitude()};
+        }
+        return null;
+    }
+}
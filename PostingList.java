@@ -0,0 +1,263 @@
+/*************************************************************************************************
+ * File:   PostingList.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class stores a sorted set of ids as delta-encoded variable length bytes,
+ *          which keeps a list of mostly increasing ids to about one or two bytes per id.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.util.Arrays;
+
+public class PostingList {
+
+    /** encoded gaps between the sorted ids **/
+    private byte[] data = new byte[8];
+
+    /** number of bytes used in data **/
+    private int length = 0;
+
+    /** number of ids in the list **/
+    private int size = 0;
+
+    /** largest id in the list **/
+    private int last = -1;
+
+    /*************************************************************************************************
+     * Description: This function adds an id to the list. Ids larger than every id in the list
+     *              are appended in place, anything else re-encodes the list.
+     *
+     * Inputs:
+     *      @param id - the id to add, must not be negative
+     *
+     * Outputs:
+     *      boolean - true if the id was added, false if it was already in the list
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean add(int id) {
+        // if the id goes at the end of the list
+        if (id > last) {
+            append(id);
+            return true;
+        }
+        // decodes the list to insert the id in the middle
+        int[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        // if the id is already in the list
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        // re-encodes the list with the new id
+        clear();
+        for (int i = 0; i < ids.length; i++) {
+            if (i == position) {
+                append(id);
+            }
+            append(ids[i]);
+        }
+        return true;
+    }
+
+    /*************************************************************************************************
+     * Description: This function appends an id larger than every id in the list.
+     *
+     * Inputs:
+     *      @param id - the id to append
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void append(int id) {
+        // makes room for the largest possible varint
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        // writes the gap 7 bits at a time, with the high bit marking that more bytes follow
+        int gap = id - last;
+        while ((gap & ~0x7F) != 0) {
+            data[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        data[length++] = (byte) gap;
+        last = id;
+        size++;
+    }
+
+    /*************************************************************************************************
+     * Description: This function empties the list.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void clear() {
+        length = 0;
+        size = 0;
+        last = -1;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of ids in the list.
+     *
+     * Outputs:
+     *      int - number of ids
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int size() {
+        return size;
+    }
+
+    /*************************************************************************************************
+     * Description: This function decodes the list into a sorted array of ids.
+     *
+     * Outputs:
+     *      int[] - sorted ids
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int[] toArray() {
+        int[] ids = new int[size];
+        Decoder decoder = new Decoder(this);
+        for (int i = 0; i < size; i++) {
+            ids[i] = decoder.next();
+        }
+        return ids;
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if an id is in the list.
+     *
+     * Inputs:
+     *      @param id - the id to find
+     *
+     * Outputs:
+     *      boolean - true if the id is in the list
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean contains(int id) {
+        // ids past the end can't be in the list
+        if (id > last || id < 0) {
+            return false;
+        }
+        Decoder decoder = new Decoder(this);
+        while (decoder.hasNext()) {
+            int next = decoder.next();
+            if (next >= id) {
+                return next == id;
+            }
+        }
+        return false;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the ids that are in both lists by walking both encoded
+     *              lists at the same time.
+     *
+     * Inputs:
+     *      @param a - first list
+     *      @param b - second list
+     *
+     * Outputs:
+     *      int[] - sorted ids found in both lists
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static int[] intersect(PostingList a, PostingList b) {
+        int[] result = new int[Math.min(a.size, b.size)];
+        int count = 0;
+        // if either list is empty there is nothing to walk
+        if (result.length == 0) {
+            return result;
+        }
+        Decoder left = new Decoder(a);
+        Decoder right = new Decoder(b);
+        int x = left.next();
+        int y = right.next();
+        while (true) {
+            if (x == y) {
+                result[count++] = x;
+                if (!left.hasNext() || !right.hasNext()) {
+                    break;
+                }
+                x = left.next();
+                y = right.next();
+            } else if (x < y) {
+                if (!left.hasNext()) {
+                    break;
+                }
+                x = left.next();
+            } else {
+                if (!right.hasNext()) {
+                    break;
+                }
+                y = right.next();
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /*************************************************************************************************
+     * Description: This class reads the ids out of a list in order.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class Decoder {
+
+        private final byte[] data;
+        private final int length;
+        private int position = 0;
+        private int current = -1;
+
+        /*************************************************************************************************
+         * Description: This function starts reading a list from its first id.
+         *
+         * Inputs:
+         *    @param list - the list to read
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        Decoder(PostingList list) {
+            this.data = list.data;
+            this.length = list.length;
+        }
+
+        /*************************************************************************************************
+         * Description: This function checks if there are more ids to read.
+         *
+         * Outputs:
+         *      boolean - true if next can be called
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        boolean hasNext() {
+            return position < length;
+        }
+
+        /*************************************************************************************************
+         * Description: This function reads the next id by adding its gap to the last id read.
+         *
+         * Outputs:
+         *      int - the next id in the list
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        int next() {
+            // reads the gap 7 bits at a time
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            current += gap;
+            return current;
+        }
+    }
+}
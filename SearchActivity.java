@@ -3,7 +3,7 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Search Activity, which allows a user to
  *          enter in search queries and get results, either by text or plotted on a map.
@@ -11,24 +11,29 @@
 package com.joemenduni.musicmaps;
 
 import android.content.Intent;
-import android.database.Cursor;
 import android.location.Location;
-import android.os.Handler;
-import android.os.Message;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
+import android.widget.ListView;
 import android.widget.SeekBar;
+import android.widget.Spinner;
 import android.widget.TextView;
 
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.location.LocationServices;
 
-import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,10 +44,43 @@ public class SearchActivity extends AppCompatActivity {
     EditText searchZipCode;
     SeekBar searchRange;
     TextView currentRange;
-
-    /** default values for latitude and longitude **/
-    Double latitude;
-    Double longitude;
+    Spinner searchGenre;
+    Spinner searchWhen;
+    Spinner searchVenue;
+
+    /** choices in the when dropdown, in order **/
+    private static final int WHEN_ANY_TIME = 0;
+    private static final int WHEN_TODAY = 1;
+    private static final int WHEN_THIS_WEEK = 2;
+    private static final int WHEN_THIS_WEEKEND = 3;
+    private static final int WHEN_THIS_MONTH = 4;
+    private static final String[] WHEN_CHOICES = {"Any time", "Today", "This week", "This weekend", "This month"};
+
+    /** list of text search results and its adapter **/
+    ListView searchResultsList;
+    EventResultsAdapter resultsAdapter;
+
+    /** compiled zip code regex (from string resource) **/
+    Pattern zipPattern;
+
+    /** genre, start time and venue filters from the dropdowns, an empty filter matches everything **/
+    Set<String> genreFilter = new HashSet<String>();
+    long startFilter = Long.MIN_VALUE;
+    long endFilter = Long.MAX_VALUE;
+    Set<Integer> venueFilter = new HashSet<Integer>();
+
+    /** genre names, and venue ids and names, of the dropdown choices after the first one **/
+    List<String> genreChoices = new ArrayList<String>();
+    List<Integer> venueChoices = new ArrayList<Integer>();
+    List<String> venueNames = new ArrayList<String>();
+
+    /** text of each dropdown choice, with its number of results after a search, and their adapters **/
+    List<String> genreLabels = new ArrayList<String>();
+    List<String> whenLabels = new ArrayList<String>();
+    List<String> venueLabels = new ArrayList<String>();
+    ArrayAdapter<String> genreAdapter;
+    ArrayAdapter<String> whenAdapter;
+    ArrayAdapter<String> venueAdapter;
 
     /** google api client **/
     GoogleApiClient mGoogleApiClient;
@@ -50,13 +88,32 @@ public class SearchActivity extends AppCompatActivity {
     /** database object **/
     DBHelper database;
 
+    /** runs search queries against the database **/
+    SearchEngine searchEngine;
+
+    /** user preferences, null until they are loaded in the background **/
+    SettingsStore settings;
+
+    /** set once the activity is destroyed, so settings that load later aren't used **/
+    private boolean destroyed = false;
+
+    /** keeps the range bar on the saved range when it changes in settings **/
+    private final SettingsStore.OnSettingChangedListener settingsListener = new SettingsStore.OnSettingChangedListener() {
+        @Override
+        public void onSettingChanged(SettingsStore changed, String key) {
+            if (SettingsStore.KEY_RANGE.equals(key)) {
+                searchRange.setProgress(changed.getRangeMiles());
+            }
+        }
+    };
+
     /*************************************************************************************************
      * Description: This function creates and inflates the Search activity and layout.
      *
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -69,6 +126,35 @@ public class SearchActivity extends AppCompatActivity {
         // sets listener for seekbar
         searchRange.setOnSeekBarChangeListener(seekbar_listener);
 
+        // gets the shared database object, which opens on its first query
+        database = Startup.getDatabase(this);
+        searchEngine = new SearchEngine(database);
+
+        // fills the genre and when dropdowns
+        setFilterChoices();
+
+        // attaches the results adapter once, each search only swaps its results
+        resultsAdapter = new EventResultsAdapter(this, EventResults.EMPTY);
+        searchResultsList.setAdapter(resultsAdapter);
+
+        // starts the range bar on the user's saved range, reading the settings off the main thread
+        Startup.loadSettings(this, new Startup.OnReadyListener<SettingsStore>() {
+            @Override
+            public void onReady(SettingsStore loaded) {
+                // if the activity was closed while the settings loaded
+                if (destroyed) {
+                    return;
+                }
+                settings = loaded;
+                searchRange.setProgress(settings.getRangeMiles());
+                currentRange.setText(settings.getRangeMiles() + " miles");
+                settings.addListener(settingsListener);
+            }
+        });
+
+        // compiles the zip code regex once instead of on every search
+        zipPattern = Pattern.compile(getString(R.string.zipCodeRegex));
+
         // builds google api client for getting location
         if (mGoogleApiClient == null) {
             mGoogleApiClient = new GoogleApiClient.Builder(this)
@@ -77,9 +163,6 @@ public class SearchActivity extends AppCompatActivity {
                     .addApi(LocationServices.API)
                     .build();
         }
-
-        // initializes database object
-        database = new DBHelper(this);
     }
 
     /*************************************************************************************************
@@ -105,17 +188,48 @@ public class SearchActivity extends AppCompatActivity {
     }
 
     /*************************************************************************************************
-     * Description: This function exits this activity and goes back to the Main Activity.
+     * Description: This function runs when the activity is destroyed and stops listening for
+     *              settings changes.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onDestroy() {
+        destroyed = true;
+        // if the settings have loaded
+        if (settings != null) {
+            settings.removeListener(settingsListener);
+        }
+        super.onDestroy();
+    }
+
+    /*************************************************************************************************
+     * Description: This function exits this activity and goes back to the Main Activity, also
+     *              closing the search map if it was left open behind this activity.
      *
      * Inputs: pressed to run the function
      *    @param view - the button that is clicked to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void goBack(View view) {
+        Intent mainIntent = new Intent(this, MainActivity.class);
+        mainIntent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        startActivity(mainIntent);
         finish();
     }
 
+    /*************************************************************************************************
+     * Description: This function goes back to the Main Activity the same way as the back button
+     *              in the layout.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onBackPressed() {
+        goBack(null);
+    }
+
     /*************************************************************************************************
      * Description: This function sets pointers to the views in the display.
      *
@@ -126,21 +240,148 @@ public class SearchActivity extends AppCompatActivity {
         searchZipCode = (EditText) findViewById(R.id.searchZip);
         searchRange = (SeekBar) findViewById(R.id.searchSeek);
         currentRange = (TextView) findViewById(R.id.currentRange);
+        searchResultsList = (ListView) findViewById(R.id.searchResults);
+        searchGenre = (Spinner) findViewById(R.id.searchGenre);
+        searchWhen = (Spinner) findViewById(R.id.searchWhen);
+        searchVenue = (Spinner) findViewById(R.id.searchVenue);
+    }
+
+    /*************************************************************************************************
+     * Description: This function sets the choices in the genre, when and venue dropdowns, and
+     *              selects the first choice of each, which doesn't filter anything.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void setFilterChoices() {
+        // every genre in the database
+        genreChoices.addAll(database.getAllGenres());
+        // every venue in the database, by name
+        final Map<Integer, String> venues = database.getAllVenuesMap();
+        venueChoices.addAll(venues.keySet());
+        Collections.sort(venueChoices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return String.CASE_INSENSITIVE_ORDER.compare(String.valueOf(venues.get(a)), String.valueOf(venues.get(b)));
+            }
+        });
+        for (Integer venueID: venueChoices) {
+            venueNames.add(venues.get(venueID));
+        }
+        // fills the labels without counts until there is a search
+        showFacetCounts(null, 0);
+        genreAdapter = new ArrayAdapter<String>(this, android.R.layout.simple_spinner_item, genreLabels);
+        genreAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        searchGenre.setAdapter(genreAdapter);
+        whenAdapter = new ArrayAdapter<String>(this, android.R.layout.simple_spinner_item, whenLabels);
+        whenAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        searchWhen.setAdapter(whenAdapter);
+        venueAdapter = new ArrayAdapter<String>(this, android.R.layout.simple_spinner_item, venueLabels);
+        venueAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        searchVenue.setAdapter(venueAdapter);
+    }
+
+    /*************************************************************************************************
+     * Description: This function labels each dropdown choice with the number of results of the
+     *              last search that it matches, such as "Rock (3)". The first choice of each
+     *              dropdown shows every result.
+     *
+     * Inputs:
+     *    @param counts - number of results in each genre, day and venue, or null for no counts
+     *    @param total - number of results
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void showFacetCounts(FacetIndex.FacetCounts counts, int total) {
+        genreLabels.clear();
+        genreLabels.add(label("Any genre", counts == null ? -1 : total));
+        for (String genre: genreChoices) {
+            genreLabels.add(label(genre, counts == null ? -1 : countOf(counts.genres, genre)));
+        }
+        whenLabels.clear();
+        long now = System.currentTimeMillis();
+        for (int choice = 0; choice < WHEN_CHOICES.length; choice++) {
+            int count = -1;
+            if (counts != null && choice == WHEN_ANY_TIME) {
+                count = total;
+            } else if (counts != null) {
+                // adds up the results on each day of the window
+                long[] window = timeWindow(choice, now);
+                count = 0;
+                for (int dayCount: counts.days.subMap(FacetIndex.dayBucket(window[0]), true,
+                        FacetIndex.dayBucket(window[1]), true).values()) {
+                    count += dayCount;
+                }
+            }
+            whenLabels.add(label(WHEN_CHOICES[choice], count));
+        }
+        venueLabels.clear();
+        venueLabels.add(label("Any venue", counts == null ? -1 : total));
+        for (int i = 0; i < venueChoices.size(); i++) {
+            venueLabels.add(label(venueNames.get(i), counts == null ? -1 : countOf(counts.venues, venueChoices.get(i))));
+        }
+        // if the dropdowns have been set up, shows the new labels
+        if (genreAdapter != null) {
+            genreAdapter.notifyDataSetChanged();
+            whenAdapter.notifyDataSetChanged();
+            venueAdapter.notifyDataSetChanged();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a count to a dropdown choice's name.
+     *
+     * Inputs:
+     *    @param name - the choice's name
+     *    @param count - number of results, or -1 for none
+     *
+     * Outputs:
+     *      String - the name, followed by the count in brackets if there is one
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static String label(String name, int count) {
+        return count < 0 ? name : name + " (" + count + ")";
     }
 
     /*************************************************************************************************
-     * Description: This function clears all the form fields, including resetting the dropdown list.
+     * Description: This function gets the count of a facet value, which is left out when it is 0.
+     *
+     * Inputs:
+     *    @param counts - counts of a facet's values
+     *    @param key - the facet value
+     *
+     * Outputs:
+     *      int - number of results with the value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static <K> int countOf(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        return count == null ? 0 : count;
+    }
+
+    /*************************************************************************************************
+     * Description: This function clears all the form fields and the results list, including
+     *              resetting the dropdown list and putting the range back to the user's saved range.
      *
      * Inputs:
      *    @param view - the button that is pressed to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void clearFields(View view) {
         searchTitle.setText("");
         searchZipCode.setText("");
-        searchRange.setProgress(50);
-        currentRange.setText("50 miles");
+        // if the settings have loaded, otherwise they set the range when they do
+        if (settings != null) {
+            searchRange.setProgress(settings.getRangeMiles());
+            currentRange.setText(settings.getRangeMiles() + " miles");
+        }
+        searchGenre.setSelection(0);
+        searchWhen.setSelection(WHEN_ANY_TIME);
+        searchVenue.setSelection(0);
+        resultsAdapter.setResults(EventResults.EMPTY);
+        showFacetCounts(null, 0);
     }
 
     /*************************************************************************************************
@@ -161,77 +402,38 @@ public class SearchActivity extends AppCompatActivity {
     };
 
     /*************************************************************************************************
-     * Description: This class stores data about an event to displayed from the search, either in the
-     *              textviews or on the map.
-     *
-     * Last Modified: 12/14/16
-     *************************************************************************************************/
-    public class Event implements Serializable {
-
-        String name;
-        String startDateTime;
-        String venueName;
-        double latitude;
-        double longitude;
-
-        public Event(String name, String startDateTime, String venueName, double latitude, double longitude) {
-            this.name = name;
-            this.startDateTime = startDateTime;
-            this.venueName = venueName;
-            this.latitude = latitude;
-            this.longitude = longitude;
-        }
-    }
-
-
-    /*************************************************************************************************
-     * Description: This function displays the results of the search as text.
+     * Description: This function displays the results of the search as text in the results list,
+     *              emptying it if nothing matched.
      *
      * Inputs:
      *    @param view - the button that is pressed to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void displaySearchResults(View view) {
         // gets search results
-        List<Event> eventList = getSearchResults();
-        // list of string to be used in the adapter
-        List<String> eventStringList = new ArrayList<String>();
-        // for every event
-        for (Event event: eventList) {
-            // add the display string to the string list
-            eventStringList.add(event.name + "\n" + event.startDateTime + " at " + event.venueName);
-        }
-        // if there are mathing events
-        if (eventStringList.size() > 0) {
-            // creates array adapter with layout and array
-            final ArrayAdapter<String> mShadeAdapter =
-                    new ArrayAdapter<String>(this, // The current context (this activity)
-                            R.layout.item_event, // The name of the layout ID.
-                            R.id.event_name, // The ID of the textview to populate.
-                            eventStringList);
-        }
+        EventResults eventList = getSearchResults();
+        // shows the events in the list, which makes each row's text as it is shown
+        resultsAdapter.setResults(eventList);
     }
 
     /*************************************************************************************************
-     * Description: This function displays the results of the search on a map.
+     * Description: This function displays the results of the search on a map. If the map is
+     *              already open it is brought back to the front with the new results.
      *
      * Inputs:
      *    @param view - the button that is pressed to run the function
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void viewMap(View view) {
         // gets search results
-        List<Event> eventList = getSearchResults();
+        EventResults eventList = getSearchResults();
         // creates intent to go to search maps activity
         Intent mapIntent = new Intent(this, SearchMapsActivity.class);
-        // creates new bundle
-        Bundle theBundle = new Bundle();
-        // adds list of events to bundle
-        theBundle.putSerializable("eventList", (Serializable) eventList);
-        // adds bundle to intent
-        mapIntent.putExtras(theBundle);
+        mapIntent.addFlags(Intent.FLAG_ACTIVITY_REORDER_TO_FRONT);
+        // keeps the events in the store and passes their token, instead of copying them into the intent
+        mapIntent.putExtra(SearchResultStore.EXTRA_TOKEN, SearchResultStore.put(eventList));
         // starts map activity
         startActivity(mapIntent);
     }
@@ -241,174 +443,158 @@ public class SearchActivity extends AppCompatActivity {
      *              be displayed in another function, depending on which button the user has clicked.
      *
      * Outputs:
-     *      List<Event> - list of events returned from the search
+     *      EventResults - events returned from the search
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public List<Event> getSearchResults() {
-        // gets form data
-        String title = searchTitle.getText().toString();
-        int mileRange = searchRange.getProgress();
-
-        // find location to use
-        Double[] location = getLocationToUse();
-
-        // gets range of latitude and longitudes
-        double minLatitude = location[0] - convertMileageToDegrees(mileRange);
-        double maxLatitude = location[0] + convertMileageToDegrees(mileRange);
-        double minLongitude = location[1] - convertMileageToDegrees(mileRange);
-        double maxLongitude = location[1] + convertMileageToDegrees(mileRange);
-
-        // list of events that fit the search query
-        List<Event> eventList = new ArrayList<Event>();
-
-        // cursor of shows
-        Cursor cursor = database.getAllShowsCursors();
-        // if there is a result
-        if ((cursor.moveToFirst())) {
-            do {
-                // name of show
-                String name = cursor.getString(3);
-                // latitude and longitude of venue
-                double[] latlng = database.findVenueLatLngByID(cursor.getInt(0));
-                // name of venue
-                String venueName = database.findVenueNameByID(cursor.getInt(0));
-                Double latitude = latlng[0];
-                Double longitude = latlng[1];
-                // if there is a name match
-                if (stringComparison(title, name)) {
-                    // if the location is in the selected range
-                    if (latitude >= minLatitude && latitude <= maxLatitude && longitude >= minLongitude && longitude <= maxLongitude) {
-                        String startDateTime = cursor.getString(7);
-                        // creates new event object
-                        Event newEvent = new Event(name, startDateTime, venueName, latitude, longitude);
-                        // adds event to list
-                        eventList.add(newEvent);
-
-                    }
-                }
-            } while (cursor.moveToNext());
+    public EventResults getSearchResults() {
+        // runs the search described by the form
+        EventResults eventList = searchEngine.search(buildQuery());
+        // shows that ended up in the results
+        BitSet matches = new BitSet();
+        for (int i = 0; i < eventList.size(); i++) {
+            matches.set(eventList.getShowId(i));
         }
-        // closes cursor
-        cursor.close();
+        // shows the number of results for each filter choice
+        showFacetCounts(database.getFacetIndex().count(matches), eventList.size());
         // returns list of events
         return eventList;
     }
 
-
     /*************************************************************************************************
-     * Description: This function compares the input from the search to the name of all of the shows
-     *              and tries to find a match.
-     *
-     * Inputs:
-     *      @param userSearch - the user's input title
-     *      @param showName - the name of the show to check
+     * Description: This function creates a search query from the search form and the filters.
      *
      * Outputs:
-     *      bool - true if there is a match, false if there is no match
+     *      SearchQuery - the search the user asked for
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public boolean stringComparison(String userSearch, String showName) {
-        // splits the user's input into an array of words
-        String[] userSearchSplit = userSearch.split(" ");
-        // splits the show name into an array of words
-        String[] showNameSplit = showName.split(" ");
-        // for all words in the user's input
-        for (String word: userSearchSplit) {
-            // if the show name contains any of the user's input
-            if (showName.contains(word)) {
-                // there is a match - return true
-                return true;
-            }
-        }
-        // for all words in the show name
-        for (String word: showNameSplit) {
-            // if the user's search contains of the show name
-            if (userSearch.contains(word)) {
-                // there is a match - return true
-                return true;
-            }
+    public SearchQuery buildQuery() {
+        // reads the filters from the dropdowns
+        readFilters();
+        // gets form data
+        SearchQuery.Builder builder = new SearchQuery.Builder()
+                .text(searchTitle.getText().toString())
+                .radiusMiles(searchRange.getProgress())
+                .timeWindow(startFilter, endFilter)
+                .genres(genreFilter)
+                .venues(venueFilter);
+        // find location to use
+        Double[] location = getLocationToUse();
+        // if there is a location, limits the search to the range around it
+        if (location[0] != null && location[1] != null) {
+            builder.center(location[0], location[1]);
         }
-        // no match - return false
-        return false;
+        return builder.build();
     }
 
     /*************************************************************************************************
-     * Description: This function converts a range in miles to an amount of degrees to use
-     *              for latitude and longitude searches.
-     *
-     * Inputs:
-     *      @param amountMiles - the amount of miles to convert
+     * Description: This function sets the genre, start time and venue filters from the dropdowns.
      *
-     * Outputs:
-     *      double - amount of degrees
-     *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    public double convertMileageToDegrees(double amountMiles) {
-        // amount of kilometers
-        Double amountKM = amountMiles * 0.621371;
-        // amount of degrees
-        Double amountDeg = ( 1 / 110.54 ) * amountKM;
-        return amountDeg;
+    public void readFilters() {
+        genreFilter.clear();
+        // the first genre choice is any genre
+        if (searchGenre.getSelectedItemPosition() > 0) {
+            genreFilter.add(genreChoices.get(searchGenre.getSelectedItemPosition() - 1));
+        }
+        venueFilter.clear();
+        // the first venue choice is any venue
+        if (searchVenue.getSelectedItemPosition() > 0) {
+            venueFilter.add(venueChoices.get(searchVenue.getSelectedItemPosition() - 1));
+        }
+        long[] window = timeWindow(searchWhen.getSelectedItemPosition(), System.currentTimeMillis());
+        startFilter = window[0];
+        endFilter = window[1];
     }
 
     /*************************************************************************************************
-     * Description: This is the class that calls the Geocoder, which converts an street address
-     *              to a latitude and longitude.
+     * Description: This function gets the start time window of a when choice, in local time. Each
+     *              window starts at the beginning of today, or of Friday for the weekend.
      *
-     * Last Modified: 12/14/16
+     * Inputs:
+     *    @param choice - position of the when choice
+     *    @param now - current time in milliseconds since the epoch
+     *
+     * Outputs:
+     *      long[] - first and last start time in the window, Long.MIN_VALUE and Long.MAX_VALUE for any time
+     *
+     * Last Modified: 10/19/26
      *************************************************************************************************/
-    private class GeocoderHandler extends Handler {
-        public void handleMessage(Message message) {
-            String locationAddress;
-            switch (message.what) {
-                case 1:
-                    Bundle bundle = message.getData();
-                    latitude = bundle.getDouble("latitude");
-                    longitude = bundle.getDouble("longitude");
-                    break;
-                default:
-            }
+    static long[] timeWindow(int choice, long now) {
+        Calendar start = Calendar.getInstance();
+        start.setTimeInMillis(now);
+        start.set(Calendar.HOUR_OF_DAY, 0);
+        start.set(Calendar.MINUTE, 0);
+        start.set(Calendar.SECOND, 0);
+        start.set(Calendar.MILLISECOND, 0);
+        Calendar end = (Calendar) start.clone();
+        switch (choice) {
+            case WHEN_TODAY:
+                end.add(Calendar.DAY_OF_MONTH, 1);
+                break;
+            case WHEN_THIS_WEEK:
+                end.add(Calendar.DAY_OF_MONTH, 7);
+                break;
+            case WHEN_THIS_WEEKEND:
+                // moves to friday, unless it is already the weekend
+                int day = start.get(Calendar.DAY_OF_WEEK);
+                if (day != Calendar.SATURDAY && day != Calendar.SUNDAY) {
+                    start.add(Calendar.DAY_OF_MONTH, Calendar.FRIDAY - day);
+                }
+                // ends at the start of monday
+                end = (Calendar) start.clone();
+                do {
+                    end.add(Calendar.DAY_OF_MONTH, 1);
+                } while (end.get(Calendar.DAY_OF_WEEK) != Calendar.MONDAY);
+                break;
+            case WHEN_THIS_MONTH:
+                end.set(Calendar.DAY_OF_MONTH, 1);
+                end.add(Calendar.MONTH, 1);
+                break;
+            default:
+                return new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
         }
+        return new long[]{start.getTimeInMillis(), end.getTimeInMillis() - 1};
     }
 
     /*************************************************************************************************
      * Description: This function determines which location to use in the search,
-     *              either the user inputted zip code or the user's actual location.
+     *              either the user inputted zip code or the user's actual location, if the user
+     *              allows it in settings. Zip codes are looked up in the offline centroid table,
+     *              so this never waits on the Geocoder.
      *
      * Outputs:
      *      double[] - index 0 is latitude, index 1 is longitude
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public Double[] getLocationToUse() {
         // array to be returned
         Double[] returnDouble = new Double[2];
         // zip code from form
         String zipCodeString = searchZipCode.getText().toString();
-        // regex to check against (from string resource)
-        String zipRegex = getString(R.string.zipCodeRegex);
         // checks regex
-        Pattern pattern = Pattern.compile(zipRegex);
-        Matcher matcher = pattern.matcher(zipCodeString);
+        Matcher matcher = zipPattern.matcher(zipCodeString);
 
         int zipCode = -1;
         // if the zip code matches the regex
         if (matcher.matches()) {
             zipCode = Integer.valueOf(zipCodeString);
         }
-        // if there is a zip code
+        // centroid of the zip code, if there is one in the table
+        double[] centroid = null;
         if (zipCode != -1) {
-            // gets lat and long from zip
-            GeocodingLocation locationAddress = new GeocodingLocation();
-            locationAddress.getAddressFromLocation(String.valueOf(zipCode),
-                    getApplicationContext(), new GeocoderHandler());
+            centroid = ZipCodeIndex.getInstance(this).lookup(zipCode);
+        }
+        // if the zip code was found
+        if (centroid != null) {
             // returns list
-            returnDouble = new Double[]{latitude, longitude};
+            returnDouble = new Double[]{centroid[0], centroid[1]};
         }
-        else {
+        // if the user lets searches use their location, which is off until the settings load
+        else if (settings != null && settings.useCurrentLocation()) {
             try {
                 // gets last known location
                 Location mLastLocation = LocationServices.FusedLocationApi.getLastLocation(mGoogleApiClient);
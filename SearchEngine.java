@@ -0,0 +1,334 @@
+/*************************************************************************************************
+ * File:   SearchEngine.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class runs a SearchQuery against the database and checks the title text of
+ *          every candidate, so the search list, the search map and background jobs all get
+ *          their results the same way.
+ *
+ *          Large candidate sets are split into partitions that are scored in parallel on a
+ *          fork/join pool, with each partition keeping its own top results, which are merged
+ *          at the end. Small candidate sets are scored on the calling thread.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.database.Cursor;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class SearchEngine {
+
+    /** candidate counts below this are scored on the calling thread **/
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /** candidates scored by one fork/join task **/
+    private static final int PARTITION_SIZE = 1024;
+
+    /** pool shared by every search, sized to the device's cores **/
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /** database object **/
+    private final DBHelper database;
+
+    /*************************************************************************************************
+     * Description: This class holds the rows returned by the database, so that partitions can be
+     *              scored without touching the cursor.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class Candidates {
+
+        /** every row, in the database's sort order **/
+        final EventResults rows;
+
+        /** score of each candidate, 0 if its title doesn't match **/
+        final int[] scores;
+
+        /*************************************************************************************************
+         * Description: This function creates the candidates with every score 0.
+         *
+         * Inputs:
+         *    @param rows - every row in the database's sort order
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        Candidates(EventResults rows) {
+            this.rows = rows;
+            this.scores = new int[rows.size()];
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the search engine.
+     *
+     * Inputs:
+     *    @param database - database to search
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public SearchEngine(DBHelper database) {
+        this.database = database;
+    }
+
+    /*************************************************************************************************
+     * Description: This function runs a search and returns the matching events in the query's
+     *              sort order.
+     *
+     * Inputs:
+     *    @param query - the search to run
+     *
+     * Outputs:
+     *      EventResults - the events that match the search
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public EventResults search(SearchQuery query) {
+        // shows in the genres and days, from the facet index before any row is read
+        BitSet prefiltered = database.prefilter(query);
+        // if no show can match
+        if (prefiltered != null && prefiltered.isEmpty()) {
+            return new EventResults.Builder(0).build();
+        }
+        // reads the prefiltered rows in range and in the time window, already sorted
+        Candidates candidates = readCandidates(database.search(query, prefiltered), prefiltered);
+        // positions of the winning candidates, best first
+        int[] winners;
+        // if there are enough candidates to be worth splitting up
+        int count = candidates.rows.size();
+        if (count >= SEQUENTIAL_THRESHOLD) {
+            winners = pool.invoke(new ScoreTask(query, candidates, 0, count)).toSortedArray();
+        } else {
+            winners = scoreRange(query, candidates, 0, count).toSortedArray();
+        }
+        // picks out the winners, with only the strings they use
+        return candidates.rows.select(winners);
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads every prefiltered row of a search cursor into columns,
+     *              keeping one copy of each distinct name.
+     *
+     * Inputs:
+     *    @param cursor - cursor returned by DBHelper.search, closed by this function
+     *    @param prefiltered - ids of the shows that can match, or null for every show
+     *
+     * Outputs:
+     *      Candidates - the rows in cursor order
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static Candidates readCandidates(Cursor cursor, BitSet prefiltered) {
+        EventResults.Builder rows = new EventResults.Builder(cursor.getCount());
+        // if there is a result
+        if (cursor.moveToFirst()) {
+            do {
+                // large prefiltered sets are only limited to their id range in SQL
+                if (prefiltered != null && !prefiltered.get(cursor.getInt(DBHelper.SEARCH_SHOW_ID))) {
+                    continue;
+                }
+                rows.add(cursor.getInt(DBHelper.SEARCH_SHOW_ID), cursor.getString(DBHelper.SEARCH_SHOW_NAME),
+                        cursor.isNull(DBHelper.SEARCH_START_DATETIME) ? EventResults.NO_TIME : cursor.getLong(DBHelper.SEARCH_START_DATETIME),
+                        cursor.getInt(DBHelper.SEARCH_VENUE_ID),
+                        cursor.getString(DBHelper.SEARCH_VENUE_NAME), cursor.getDouble(DBHelper.SEARCH_LATITUDE),
+                        cursor.getDouble(DBHelper.SEARCH_LONGITUDE));
+            } while (cursor.moveToNext());
+        }
+        // closes cursor
+        cursor.close();
+        return new Candidates(rows.build());
+    }
+
+    /*************************************************************************************************
+     * Description: This function scores one range of candidates and keeps the best of them.
+     *
+     * Inputs:
+     *    @param query - the search being run
+     *    @param candidates - every candidate row
+     *    @param from - first candidate in the range
+     *    @param to - one past the last candidate in the range
+     *
+     * Outputs:
+     *      TopResults - the best candidates of the range
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static TopResults scoreRange(SearchQuery query, Candidates candidates, int from, int to) {
+        TopResults top = new TopResults(candidates, query.limit);
+        boolean byRelevance = query.sort == SearchQuery.Sort.RELEVANCE;
+        for (int i = from; i < to; i++) {
+            // the score only matters when ranking by relevance, otherwise any match scores 1
+            String name = candidates.rows.getName(i);
+            int score = byRelevance ? query.textScore(name) : (query.matchesText(name) ? 1 : 0);
+            candidates.scores[i] = score;
+            // if the title matches
+            if (score > 0) {
+                top.offer(i);
+            }
+        }
+        return top;
+    }
+
+    /*************************************************************************************************
+     * Description: This class scores a range of candidates, splitting it in half until the
+     *              pieces are small enough, and merges the best results of the halves.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class ScoreTask extends RecursiveTask<TopResults> {
+
+        private final SearchQuery query;
+        private final Candidates candidates;
+        private final int from;
+        private final int to;
+
+        /*************************************************************************************************
+         * Description: This function creates a task that scores a range of the candidates.
+         *
+         * Inputs:
+         *    @param query - the search
+         *    @param candidates - every candidate and its score
+         *    @param from - first position to score
+         *    @param to - position after the last one to score
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        ScoreTask(SearchQuery query, Candidates candidates, int from, int to) {
+            this.query = query;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        /*************************************************************************************************
+         * Description: This function scores the range directly if it is small, or splits it in half
+         *              and scores the halves in parallel.
+         *
+         * Outputs:
+         *      TopResults - best candidates in the range
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected TopResults compute() {
+            // if the range is small enough to score directly
+            if (to - from <= PARTITION_SIZE) {
+                return scoreRange(query, candidates, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(query, candidates, from, middle);
+            ScoreTask right = new ScoreTask(query, candidates, middle, to);
+            // scores the left half on another worker while this one scores the right half
+            left.fork();
+            TopResults rightTop = right.compute();
+            TopResults leftTop = left.join();
+            leftTop.merge(rightTop);
+            return leftTop;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This class keeps the best matching candidates. Candidates are ranked by score,
+     *              and then by their position in the database's sort order. With a limit, only
+     *              that many are kept in a heap with the worst candidate on top.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class TopResults {
+
+        private final Candidates candidates;
+        private final int limit;
+        private final PriorityQueue<Integer> heap;
+        private final Comparator<Integer> best;
+
+        /*************************************************************************************************
+         * Description: This function creates an empty set of best candidates.
+         *
+         * Inputs:
+         *    @param candidates - every candidate and its score
+         *    @param limit - most candidates to keep, 0 for no limit
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        TopResults(final Candidates candidates, int limit) {
+            this.candidates = candidates;
+            this.limit = limit;
+            // higher scores first, then earlier positions
+            this.best = new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    int byScore = candidates.scores[b] - candidates.scores[a];
+                    return byScore != 0 ? byScore : a - b;
+                }
+            };
+            // the heap keeps the worst candidate on top so it can be replaced
+            this.heap = new PriorityQueue<Integer>(16, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return best.compare(b, a);
+                }
+            });
+        }
+
+        /*************************************************************************************************
+         * Description: This function keeps a candidate if there is room, or if it is better than
+         *              the worst one kept, which it then replaces.
+         *
+         * Inputs:
+         *    @param position - candidate's position
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        void offer(int position) {
+            // if there is no limit or there is still room
+            if (limit <= 0 || heap.size() < limit) {
+                heap.add(position);
+            }
+            // if the candidate is better than the worst one kept
+            else if (best.compare(position, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(position);
+            }
+        }
+
+        /*************************************************************************************************
+         * Description: This function offers every candidate kept by another set.
+         *
+         * Inputs:
+         *    @param other - best candidates of another range
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        void merge(TopResults other) {
+            for (Integer position: other.heap) {
+                offer(position);
+            }
+        }
+
+        /*************************************************************************************************
+         * Description: This function gets the kept candidates, best first.
+         *
+         * Outputs:
+         *      int[] - positions of the kept candidates
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        int[] toSortedArray() {
+            Integer[] positions = heap.toArray(new Integer[heap.size()]);
+            Arrays.sort(positions, best);
+            int[] sorted = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                sorted[i] = positions[i];
+            }
+            return sorted;
+        }
+    }
+}
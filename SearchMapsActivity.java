@@ -3,34 +3,58 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Search Maps Activity, which has a map
  *          that displays markers for all the events that the user has searched for.
+ *
+ *          The events are put in a spatial index, and only the ones in view plus a margin
+ *          are drawn, clustered when they are close together, see MarkerLayer.
+ *
+ *          The activity stays alive between searches. SearchActivity brings it back to the front
+ *          with the new results, and only the markers that changed are removed or added.
+ *
+ *          Results come from SearchResultStore by the token in the intent. If the process was
+ *          killed they are read back from the activity's saved state instead.
  ************************************************************************************************/
 
 package com.joemenduni.musicmaps;
 
+import android.content.Intent;
+import android.os.AsyncTask;
 import android.support.v4.app.FragmentActivity;
 import android.os.Bundle;
+import android.widget.Toast;
 
-import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
-import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
-import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.LatLngBounds;
 
-import java.util.List;
 
 public class SearchMapsActivity extends FragmentActivity implements OnMapReadyCallback {
 
     /** google map object **/
     private GoogleMap mMap;
 
-    /** list of activity objects **/
-    public List<SearchActivity.Event> eventList;
+    /** saved state key for the results **/
+    private static final String STATE_RESULTS = "results";
+
+    /** events found by the search **/
+    public EventResults eventList;
+
+    /** token of the results in SearchResultStore **/
+    private long resultToken = SearchResultStore.NO_TOKEN;
+
+    /** draws the events on the map **/
+    private MarkerLayer markerLayer;
+
+    /** indexes the latest results, null when none is running **/
+    private IndexEventsTask indexTask = null;
+
+    /** whether the camera has been fit to the results yet **/
+    private boolean cameraFitted = false;
 
     /*************************************************************************************************
      * Description: This function creates and inflates the Search Maps activity and layout.
@@ -38,7 +62,7 @@ public class SearchMapsActivity extends FragmentActivity implements OnMapReadyCa
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,8 +73,45 @@ public class SearchMapsActivity extends FragmentActivity implements OnMapReadyCa
                 .findFragmentById(R.id.map);
         mapFragment.getMapAsync(this);
 
-        // gets event list from intent
-        eventList = (List<SearchActivity.Event>) getIntent().getSerializableExtra("eventList");
+        // gets event list from the store, or from the saved state if the process was restarted
+        resultToken = getIntent().getLongExtra(SearchResultStore.EXTRA_TOKEN, SearchResultStore.NO_TOKEN);
+        eventList = SearchResultStore.get(resultToken);
+        if (eventList == null) {
+            EventResults saved = savedInstanceState == null ? null : (EventResults) savedInstanceState.getParcelable(STATE_RESULTS);
+            eventList = saved == null ? EventResults.EMPTY : saved;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function saves the results in case the process is killed, since the
+     *              store doesn't outlive it.
+     *
+     * Inputs:
+     *    @param outState - state to save into
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putParcelable(STATE_RESULTS, eventList);
+    }
+
+    /*************************************************************************************************
+     * Description: This function stops the markers from being drawn and drops the results from
+     *              the store when the map is closed.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onDestroy() {
+        if (markerLayer != null) {
+            markerLayer.dispose();
+        }
+        if (isFinishing()) {
+            SearchResultStore.release(resultToken);
+        }
+        super.onDestroy();
     }
 
 
@@ -67,18 +128,154 @@ public class SearchMapsActivity extends FragmentActivity implements OnMapReadyCa
     public void onMapReady(GoogleMap googleMap) {
         // google map object
         mMap = googleMap;
+        markerLayer = new MarkerLayer(this, mMap);
+        mMap.setOnCameraIdleListener(markerLayer);
+        mMap.setOnMarkerClickListener(markerLayer);
+        mMap.setInfoWindowAdapter(markerLayer);
+        // indexes the events off the main thread
+        indexEvents();
+    }
 
-        LatLng latLng = null;
+    /*************************************************************************************************
+     * Description: This function takes the results of a new search when SearchActivity brings
+     *              the map back to the front, and updates the markers that changed.
+     *
+     * Inputs:
+     *    @param intent - intent with the new event list
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        // swaps the old results in the store for the new ones
+        long token = intent.getLongExtra(SearchResultStore.EXTRA_TOKEN, SearchResultStore.NO_TOKEN);
+        EventResults events = SearchResultStore.get(token);
+        // if the results are already gone there is nothing new to show
+        if (events == null) {
+            return;
+        }
+        SearchResultStore.release(resultToken);
+        resultToken = token;
+        eventList = events;
+        // if the map is ready, otherwise onMapReady indexes them
+        if (markerLayer != null) {
+            indexEvents();
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function goes back to the search form without closing the map, so the
+     *              next search can update it.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public void onBackPressed() {
+        Intent searchIntent = new Intent(this, SearchActivity.class);
+        searchIntent.addFlags(Intent.FLAG_ACTIVITY_REORDER_TO_FRONT);
+        startActivity(searchIntent);
+    }
 
-        // for all events in the event list
-        for (SearchActivity.Event event: eventList) {
-            // gets location from event object
-            latLng = new LatLng(event.latitude, event.longitude);
-            // adds marker for event
-            mMap.addMarker(new MarkerOptions().position(latLng).title(event.name).icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_BLUE)));
+    /*************************************************************************************************
+     * Description: This function starts indexing the event list in the background, dropping the
+     *              results of an older list that is still being indexed.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void indexEvents() {
+        if (indexTask != null) {
+            indexTask.cancel(false);
         }
+        indexTask = new IndexEventsTask(eventList);
+        indexTask.execute();
+    }
 
-        // moves camera to last read location
-        mMap.moveCamera(CameraUpdateFactory.newLatLng(latLng));
+    /*************************************************************************************************
+     * Description: This function checks whether every result is in view.
+     *
+     * Inputs:
+     *    @param bounds - bounds of the results
+     *
+     * Outputs:
+     *      boolean - true if the whole box is on the screen
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private boolean isInView(BoundsAccumulator bounds) {
+        LatLngBounds visible = mMap.getProjection().getVisibleRegion().latLngBounds;
+        return visible.contains(new LatLng(bounds.getSouth(), bounds.getWest()))
+                && visible.contains(new LatLng(bounds.getNorth(), bounds.getEast()));
+    }
+
+    /*************************************************************************************************
+     * Description: This class puts the events in a spatial index in the background, then moves
+     *              the camera and draws the events in view. After the first results the camera
+     *              only moves if the new results don't fit in the view.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private class IndexEventsTask extends AsyncTask<Void, Void, SpatialIndex> {
+
+        /** events to index **/
+        private final EventResults events;
+
+        /*************************************************************************************************
+         * Description: This function creates the task for a list of events.
+         *
+         * Inputs:
+         *    @param events - events to index
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        IndexEventsTask(EventResults events) {
+            this.events = events;
+        }
+
+        /*************************************************************************************************
+         * Description: This function puts every event in a new spatial index.
+         *
+         * Inputs:
+         *    @param params - unused
+         *
+         * Outputs:
+         *      SpatialIndex - index of the events
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected SpatialIndex doInBackground(Void... params) {
+            SpatialIndex index = new SpatialIndex();
+            // for all events in the event list
+            for (int i = 0; i < events.size(); i++) {
+                index.addShow(events.getShowId(i), events.getName(i), events.getLatitude(i), events.getLongitude(i));
+            }
+            return index;
+        }
+
+        /*************************************************************************************************
+         * Description: This function fits the camera to the events if they aren't all in view, or
+         *              says there are none, and then draws them.
+         *
+         * Inputs:
+         *    @param index - index of the events
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        @Override
+        protected void onPostExecute(SpatialIndex index) {
+            // fits the camera to every point, using the bounds found while they were read
+            indexTask = null;
+            BoundsAccumulator bounds = index.getBounds();
+            if (bounds.getCount() == 0) {
+                Toast.makeText(SearchMapsActivity.this, "No events to show on the map", Toast.LENGTH_SHORT).show();
+            } else if (!cameraFitted || !isInView(bounds)) {
+                SupportMapFragment mapFragment = (SupportMapFragment) getSupportFragmentManager().findFragmentById(R.id.map);
+                cameraFitted = markerLayer.fitCamera(bounds, mapFragment.getView());
+            }
+            // swaps in the new results, keeping the markers that are in both
+            markerLayer.setIndex(index);
+        }
     }
 }
@@ -0,0 +1,434 @@
+/*************************************************************************************************
+ * File:   SearchQuery.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds everything that describes a show search (title text, center point,
+ *          range, time window, genres, venues, limit and sort order), independent of the search form,
+ *          so that the same search can be run from any screen or background job.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public final class SearchQuery {
+
+    /** kilometers in a mile, and kilometers in a degree of latitude **/
+    private static final double KM_PER_MILE = 1.609344;
+    private static final double KM_PER_DEGREE = 110.54;
+
+    /** sort orders for the results, RELEVANCE ranks by how many title words match **/
+    public enum Sort { START_TIME, NAME, DISTANCE, RELEVANCE }
+
+    /** title text to match, empty matches every show **/
+    public final String text;
+
+    /** center point of the search, only used if hasCenter is true **/
+    public final boolean hasCenter;
+    public final double latitude;
+    public final double longitude;
+
+    /** range around the center point, in miles **/
+    public final double radiusMiles;
+
+    /** start time window, in milliseconds since the epoch **/
+    public final long startMillis;
+    public final long endMillis;
+
+    /** genres to match, empty matches every genre **/
+    public final Set<String> genres;
+
+    /** venue ids to match, empty matches every venue **/
+    public final Set<Integer> venues;
+
+    /** most results to return, 0 for no limit **/
+    public final int limit;
+
+    /** sort order of the results **/
+    public final Sort sort;
+
+    /*************************************************************************************************
+     * Description: This function creates the query from a builder.
+     *
+     * Inputs:
+     *    @param builder - builder holding the query's values
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private SearchQuery(Builder builder) {
+        this.text = builder.text;
+        this.hasCenter = builder.hasCenter;
+        this.latitude = builder.latitude;
+        this.longitude = builder.longitude;
+        this.radiusMiles = builder.radiusMiles;
+        this.startMillis = builder.startMillis;
+        this.endMillis = builder.endMillis;
+        this.genres = Collections.unmodifiableSet(new TreeSet<String>(builder.genres));
+        this.venues = Collections.unmodifiableSet(new TreeSet<Integer>(builder.venues));
+        this.limit = builder.limit;
+        this.sort = builder.sort;
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if the query has a start time window.
+     *
+     * Outputs:
+     *      boolean - true if results are limited by start time
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean hasTimeWindow() {
+        return startMillis != Long.MIN_VALUE || endMillis != Long.MAX_VALUE;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the range of the search in degrees of latitude.
+     *
+     * Outputs:
+     *      double - range in degrees of latitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double latitudeDegrees() {
+        return milesToDegrees(radiusMiles);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the range of the search in degrees of longitude, which
+     *              are narrower the further the center is from the equator.
+     *
+     * Outputs:
+     *      double - range in degrees of longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double longitudeDegrees() {
+        // keeps the range finite close to the poles
+        double cosine = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        return milesToDegrees(radiusMiles) / cosine;
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts a range in miles to degrees of latitude.
+     *
+     * Inputs:
+     *      @param miles - the amount of miles to convert
+     *
+     * Outputs:
+     *      double - amount of degrees
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static double milesToDegrees(double miles) {
+        return miles * KM_PER_MILE / KM_PER_DEGREE;
+    }
+
+    /*************************************************************************************************
+     * Description: This function compares the query's title text to the name of a show. It is a
+     *              match if any word of one is contained in the other.
+     *
+     * Inputs:
+     *      @param showName - the name of the show to check
+     *
+     * Outputs:
+     *      boolean - true if there is a match, false if there is no match
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean matchesText(String showName) {
+        return matchesText(text, showName);
+    }
+
+    /*************************************************************************************************
+     * Description: This function compares search text to the name of a show. It is a match if
+     *              any word of one is contained in the other.
+     *
+     * Inputs:
+     *      @param userSearch - the user's input title
+     *      @param showName - the name of the show to check
+     *
+     * Outputs:
+     *      boolean - true if there is a match, false if there is no match
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static boolean matchesText(String userSearch, String showName) {
+        // shows without a name can't match
+        if (showName == null) {
+            return false;
+        }
+        // for all words in the user's input
+        for (String word: userSearch.split(" ")) {
+            // if the show name contains any of the user's input
+            if (showName.contains(word)) {
+                return true;
+            }
+        }
+        // for all words in the show name
+        for (String word: showName.split(" ")) {
+            // if the user's search contains any of the show name
+            if (userSearch.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*************************************************************************************************
+     * Description: This function scores how well the query's title text matches the name of a
+     *              show, by counting the words of each that are contained in the other. A score
+     *              of 0 is the same as matchesText returning false.
+     *
+     * Inputs:
+     *      @param showName - the name of the show to score
+     *
+     * Outputs:
+     *      int - number of matching words, 0 if there is no match
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int textScore(String showName) {
+        // shows without a name can't match
+        if (showName == null) {
+            return 0;
+        }
+        int score = 0;
+        // for all words in the user's input
+        for (String word: text.split(" ")) {
+            if (showName.contains(word)) {
+                score++;
+            }
+        }
+        // for all words in the show name
+        for (String word: showName.split(" ")) {
+            if (text.contains(word)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if another query asks for the same results, so cached
+     *              results can be reused.
+     *
+     * Inputs:
+     *    @param other - the object to compare with
+     *
+     * Outputs:
+     *      boolean - true if every value of the query is the same
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SearchQuery)) {
+            return false;
+        }
+        SearchQuery query = (SearchQuery) other;
+        return text.equals(query.text) && hasCenter == query.hasCenter
+                && Double.compare(latitude, query.latitude) == 0 && Double.compare(longitude, query.longitude) == 0
+                && Double.compare(radiusMiles, query.radiusMiles) == 0
+                && startMillis == query.startMillis && endMillis == query.endMillis
+                && genres.equals(query.genres) && venues.equals(query.venues) && limit == query.limit && sort == query.sort;
+    }
+
+    /*************************************************************************************************
+     * Description: This function hashes every value of the query, matching equals.
+     *
+     * Outputs:
+     *      int - hash of the query
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    public int hashCode() {
+        int hash = text.hashCode();
+        hash = 31 * hash + (hasCenter ? 1 : 0);
+        hash = 31 * hash + Double.valueOf(latitude).hashCode();
+        hash = 31 * hash + Double.valueOf(longitude).hashCode();
+        hash = 31 * hash + Double.valueOf(radiusMiles).hashCode();
+        hash = 31 * hash + Long.valueOf(startMillis).hashCode();
+        hash = 31 * hash + Long.valueOf(endMillis).hashCode();
+        hash = 31 * hash + genres.hashCode();
+        hash = 31 * hash + venues.hashCode();
+        hash = 31 * hash + limit;
+        hash = 31 * hash + sort.hashCode();
+        return hash;
+    }
+
+    /*************************************************************************************************
+     * Description: This class collects the values of a query before it is created.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static class Builder {
+
+        private String text = "";
+        private boolean hasCenter = false;
+        private double latitude;
+        private double longitude;
+        private double radiusMiles = 50;
+        private long startMillis = Long.MIN_VALUE;
+        private long endMillis = Long.MAX_VALUE;
+        private Set<String> genres = new TreeSet<String>();
+        private Set<Integer> venues = new TreeSet<Integer>();
+        private int limit = 0;
+        private Sort sort = Sort.START_TIME;
+
+        /*************************************************************************************************
+         * Description: This function sets the words to search show names for.
+         *
+         * Inputs:
+         *    @param text - the search text, null for none
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder text(String text) {
+            this.text = text == null ? "" : text;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets the location to search around.
+         *
+         * Inputs:
+         *    @param latitude - center's latitude
+         *    @param longitude - center's longitude
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder center(double latitude, double longitude) {
+            this.hasCenter = true;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets how far from the center to search.
+         *
+         * Inputs:
+         *    @param radiusMiles - search radius in miles
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder radiusMiles(double radiusMiles) {
+            this.radiusMiles = radiusMiles;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets the start times to search between.
+         *
+         * Inputs:
+         *    @param startMillis - earliest start time, or Long.MIN_VALUE
+         *    @param endMillis - latest start time, or Long.MAX_VALUE
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder timeWindow(long startMillis, long endMillis) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets the genres to search, sorted so equal sets make equal
+         *              queries.
+         *
+         * Inputs:
+         *    @param genres - genres to match, empty for any genre
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder genres(Collection<String> genres) {
+            this.genres = new TreeSet<String>(genres);
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets the venues to search.
+         *
+         * Inputs:
+         *    @param venues - venue ids to match, empty for any venue
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder venues(Collection<Integer> venues) {
+            this.venues = new TreeSet<Integer>(venues);
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets the most results to return.
+         *
+         * Inputs:
+         *    @param limit - most results, 0 for no limit
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function sets the order of the results.
+         *
+         * Inputs:
+         *    @param sort - order to sort by
+         *
+         * Outputs:
+         *      Builder - this builder, so calls can be chained
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public Builder sort(Sort sort) {
+            this.sort = sort;
+            return this;
+        }
+
+        /*************************************************************************************************
+         * Description: This function creates the query from the values set so far.
+         *
+         * Outputs:
+         *      SearchQuery - the query
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        public SearchQuery build() {
+            return new SearchQuery(this);
+        }
+    }
+}
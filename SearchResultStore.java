@@ -0,0 +1,82 @@
+/*************************************************************************************************
+ * File:   SearchResultStore.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class hands search results from SearchActivity to SearchMapsActivity inside the
+ *          app's process. The results are kept here under a token and only the token goes in
+ *          the intent, so nothing is copied or serialized and large searches can't go over the
+ *          Binder transaction limit.
+ *
+ *          The store is lost if Android kills the process, so the map also saves its results in
+ *          its saved state, where EventResults writes each field as one array.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class SearchResultStore {
+
+    /** intent extra holding the token **/
+    public static final String EXTRA_TOKEN = "resultToken";
+
+    /** token that never has results **/
+    public static final long NO_TOKEN = -1;
+
+    /** results, by token **/
+    private static final Map<Long, EventResults> results = new HashMap<Long, EventResults>();
+
+    /** the next token to hand out **/
+    private static long nextToken = 0;
+
+    private SearchResultStore() {
+    }
+
+    /*************************************************************************************************
+     * Description: This function keeps a list of results until it is released.
+     *
+     * Inputs:
+     *    @param events - the results
+     *
+     * Outputs:
+     *      long - token to get the results back with
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized long put(EventResults events) {
+        long token = nextToken++;
+        results.put(token, events);
+        return token;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the results kept under a token.
+     *
+     * Inputs:
+     *    @param token - token from put
+     *
+     * Outputs:
+     *      EventResults - the results, or null if they were released or the process was restarted
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized EventResults get(long token) {
+        return results.get(token);
+    }
+
+    /*************************************************************************************************
+     * Description: This function drops the results kept under a token.
+     *
+     * Inputs:
+     *    @param token - token from put
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized void release(long token) {
+        results.remove(token);
+    }
+}
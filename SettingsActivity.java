@@ -3,15 +3,16 @@
  * Author: Joe Menduni
  *
  * Created on December 5, 2016
- * Last Modified on December 14, 2016
+ * Last Modified on October 19, 2026
  *
  * Purpose: This activity creates and inflates the Settings Activity, which contains a
  *              form fields that set the user's preferences.
+ *
+ *          Changes go to the SettingsStore, which writes them to the file in batches.
  ************************************************************************************************/
 
 package com.joemenduni.musicmaps;
 
-import android.content.SharedPreferences;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.text.Editable;
@@ -32,7 +33,7 @@ public class SettingsActivity extends AppCompatActivity {
     private SeekBar range;
 
     /** user preferences **/
-    private SharedPreferences settings;
+    private SettingsStore settings;
 
     /*************************************************************************************************
      * Description: This function creates and inflates the Settings activity and layout.
@@ -40,15 +41,15 @@ public class SettingsActivity extends AppCompatActivity {
      * Inputs:
      *    @param savedInstanceState - previously saved state of application and data
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_settings);
 
-        // gets user preferences from file
-        settings = getSharedPreferences(MainActivity.PREFS_NAME, 0);
+        // gets user preferences from memory
+        settings = SettingsStore.getInstance(this);
 
         setViewPointers();
         loadUserPreferences();
@@ -79,6 +80,18 @@ public class SettingsActivity extends AppCompatActivity {
         range.setOnSeekBarChangeListener(seekbar_listener);
     }
 
+    /*************************************************************************************************
+     * Description: This function runs when the activity is paused and writes any changed
+     *              preferences that are still waiting.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    @Override
+    protected void onPause() {
+        super.onPause();
+        settings.flush();
+    }
+
     /*************************************************************************************************
      * Description: This function sets pointers to the views in the display.
      *
@@ -106,19 +119,19 @@ public class SettingsActivity extends AppCompatActivity {
     }
 
     /*************************************************************************************************
-     * Description: This function loads the user's preferences from Android SharedPreferneces.
+     * Description: This function loads the user's preferences from the SettingsStore.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     public void loadUserPreferences() {
         // if settings contains user's name
-        if (settings.contains("name")) {
-            String name = settings.getString("name", null);
+        if (settings.contains(SettingsStore.KEY_NAME)) {
+            String name = settings.getUserName();
             userName.setText(name);
         }
         // if settings contain a musician
-        if (settings.contains("musician")) {
-            Boolean musician = settings.getBoolean("musician", true);
+        if (settings.contains(SettingsStore.KEY_MUSICIAN)) {
+            Boolean musician = settings.isMusician();
             if (musician) {
                 if (!musicianYes.isChecked()) {
                     musicianYes.toggle();
@@ -136,8 +149,8 @@ public class SettingsActivity extends AppCompatActivity {
             }
         }
         // if settings contain a user's location prefernece
-        if (settings.contains("location")) {
-            Boolean location = settings.getBoolean("location", true);
+        if (settings.contains(SettingsStore.KEY_LOCATION)) {
+            Boolean location = settings.useCurrentLocation();
             if (location) {
                 if (!locationYes.isChecked()) {
                     locationYes.toggle();
@@ -154,27 +167,24 @@ public class SettingsActivity extends AppCompatActivity {
                 }
             }
         }
-        // if settings contains milage range
-        if (settings.contains("range")) {
-            int rangeDisplay = settings.getInt("range", 0);
-            range.setProgress(rangeDisplay);
-        }
+        // sets milage range, which has a default
+        range.setProgress(settings.getRangeMiles());
     }
 
     /*************************************************************************************************
      * Description: This function runs on the change of the EditText and puts it into preferences.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     private void handleNameChange() {
-        settings.edit().putString("name", userName.getText().toString()).apply();
+        settings.putString(SettingsStore.KEY_NAME, userName.getText().toString());
     }
 
     /*************************************************************************************************
      * Description: This listener listens for a click of the radio button and changes the
      *              musician's setting in the user preferences.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     View.OnClickListener radio_listener_musician = new View.OnClickListener(){
         public void onClick(View v) {
@@ -188,7 +198,7 @@ public class SettingsActivity extends AppCompatActivity {
                 isMusician = false;
             }
             // add musician to user preferences
-            settings.edit().putBoolean("musician", isMusician).apply();
+            settings.putBoolean(SettingsStore.KEY_MUSICIAN, isMusician);
         }
     };
 
@@ -196,7 +206,7 @@ public class SettingsActivity extends AppCompatActivity {
      * Description: This listener listens for a click of the radio button and changes the
      *              location's setting in the user preferences.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     View.OnClickListener radio_listener_location = new View.OnClickListener(){
         public void onClick(View v) {
@@ -210,7 +220,7 @@ public class SettingsActivity extends AppCompatActivity {
                 useLocation = false;
             }
             // add location to user preferences
-            settings.edit().putBoolean("location", useLocation).apply();
+            settings.putBoolean(SettingsStore.KEY_LOCATION, useLocation);
         }
     };
 
@@ -218,7 +228,7 @@ public class SettingsActivity extends AppCompatActivity {
      * Description: This listener listens for a change in the seekbar and changes the
      *              range's setting in the user preferences.
      *
-     * Last Modified: 12/14/16
+     * Last Modified: 10/19/26
      *************************************************************************************************/
     SeekBar.OnSeekBarChangeListener seekbar_listener = new SeekBar.OnSeekBarChangeListener() {
 
@@ -227,7 +237,7 @@ public class SettingsActivity extends AppCompatActivity {
         public void onStopTrackingTouch (SeekBar seekBar) {};
 
         public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-            settings.edit().putInt("range", progress).apply();
+            settings.putInt(SettingsStore.KEY_RANGE, progress);
         }
     };
 
@@ -0,0 +1,347 @@
+/*************************************************************************************************
+ * File:   SettingsStore.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class keeps the user's preferences in memory for the whole app, and writes
+ *          them to the preferences file in batches.
+ *
+ *          Every apply() on SharedPreferences rewrites the whole XML file, so typing a name or
+ *          dragging the range bar used to rewrite it once per keystroke or tick. Here changes
+ *          only update memory and are written together once nothing has changed for
+ *          WRITE_DELAY_MS, or right away when flush() is called from an activity's onPause.
+ *          Reads never touch the file after it is first loaded.
+ *
+ *          Screens read the settings through the typed getters, and can listen for changes so
+ *          they don't have to read them again every time they are shown.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class SettingsStore {
+
+    /** preference keys **/
+    public static final String KEY_NAME = "name";
+    public static final String KEY_MUSICIAN = "musician";
+    public static final String KEY_LOCATION = "location";
+    public static final String KEY_RANGE = "range";
+
+    /** search range used until the user picks one **/
+    public static final int DEFAULT_RANGE_MILES = 50;
+
+    /** how long nothing has to change before changes are written **/
+    private static final long WRITE_DELAY_MS = 2000;
+
+    /** shared instance **/
+    private static SettingsStore instance = null;
+
+    /** the preferences file **/
+    private final SharedPreferences preferences;
+
+    /** every preference, as loaded and changed **/
+    private final Map<String, Object> values = new HashMap<String, Object>();
+
+    /** changes that haven't been written yet **/
+    private final Map<String, Object> pending = new HashMap<String, Object>();
+
+    /** told about every change **/
+    private final List<OnSettingChangedListener> listeners = new CopyOnWriteArrayList<OnSettingChangedListener>();
+
+    /** runs the delayed writes on the main thread **/
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /** writes the pending changes **/
+    private final Runnable writeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /*************************************************************************************************
+     * Description: This interface is told when a preference changes, on the thread that changed
+     *              it.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public interface OnSettingChangedListener {
+        void onSettingChanged(SettingsStore settings, String key);
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the store and reads the preferences file once.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private SettingsStore(Context context) {
+        preferences = context.getSharedPreferences(MainActivity.PREFS_NAME, 0);
+        values.putAll(preferences.getAll());
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shared store.
+     *
+     * Inputs:
+     *    @param context - any context
+     *
+     * Outputs:
+     *      SettingsStore - the shared store
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized SettingsStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SettingsStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /*************************************************************************************************
+     * Description: This function starts telling a listener about changed preferences.
+     *
+     * Inputs:
+     *    @param listener - the listener to add
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void addListener(OnSettingChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    /*************************************************************************************************
+     * Description: This function stops telling a listener about changed preferences.
+     *
+     * Inputs:
+     *    @param listener - the listener to remove
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void removeListener(OnSettingChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the user's name.
+     *
+     * Outputs:
+     *      String - the user's name, or null if it hasn't been set
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public String getUserName() {
+        return getString(KEY_NAME, null);
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if the user is a musician.
+     *
+     * Outputs:
+     *      boolean - true if the user is a musician
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean isMusician() {
+        return getBoolean(KEY_MUSICIAN, true);
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if searches may use the device's location when there is no
+     *              zip code.
+     *
+     * Outputs:
+     *      boolean - true if the location may be used
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public boolean useCurrentLocation() {
+        return getBoolean(KEY_LOCATION, true);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the search range.
+     *
+     * Outputs:
+     *      int - search range in miles
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int getRangeMiles() {
+        return getInt(KEY_RANGE, DEFAULT_RANGE_MILES);
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if a preference has been set.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *
+     * Outputs:
+     *      boolean - true if it has a value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a text preference from memory.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *    @param defaultValue - value to use if it isn't set or isn't text
+     *
+     * Outputs:
+     *      String - the preference's value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a true or false preference from memory.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *    @param defaultValue - value to use if it isn't set or isn't true or false
+     *
+     * Outputs:
+     *      boolean - the preference's value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a number preference from memory.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *    @param defaultValue - value to use if it isn't set or isn't a number
+     *
+     * Outputs:
+     *      int - the preference's value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int getInt(String key, int defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    /*************************************************************************************************
+     * Description: This function changes a text preference.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *    @param value - new value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void putString(String key, String value) {
+        put(key, value);
+    }
+
+    /*************************************************************************************************
+     * Description: This function changes a true or false preference.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *    @param value - new value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void putBoolean(String key, boolean value) {
+        put(key, value);
+    }
+
+    /*************************************************************************************************
+     * Description: This function changes a number preference.
+     *
+     * Inputs:
+     *    @param key - preference's key
+     *    @param value - new value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void putInt(String key, int value) {
+        put(key, value);
+    }
+
+    /*************************************************************************************************
+     * Description: This function changes a preference in memory, tells the listeners and puts
+     *              off writing it until nothing has changed for WRITE_DELAY_MS.
+     *
+     * Inputs:
+     *    @param key - the preference's key
+     *    @param value - String, Boolean or Integer value
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void put(String key, Object value) {
+        synchronized (this) {
+            // if the value is the same, there is nothing to write
+            if (value.equals(values.get(key))) {
+                return;
+            }
+            values.put(key, value);
+            pending.put(key, value);
+            // restarts the wait, so a burst of changes is written once
+            handler.removeCallbacks(writeRunnable);
+            handler.postDelayed(writeRunnable, WRITE_DELAY_MS);
+        }
+        // tells the listeners outside the lock, so they can read the settings
+        for (OnSettingChangedListener listener: listeners) {
+            listener.onSettingChanged(this, key);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function writes every pending change to the preferences file in one
+     *              edit. Activities that change preferences call it from onPause, so nothing is
+     *              lost if the app is closed.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized void flush() {
+        handler.removeCallbacks(writeRunnable);
+        // if nothing has changed
+        if (pending.isEmpty()) {
+            return;
+        }
+        SharedPreferences.Editor editor = preferences.edit();
+        for (Map.Entry<String, Object> entry: pending.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String) {
+                editor.putString(entry.getKey(), (String) value);
+            } else if (value instanceof Boolean) {
+                editor.putBoolean(entry.getKey(), (Boolean) value);
+            } else if (value instanceof Integer) {
+                editor.putInt(entry.getKey(), (Integer) value);
+            }
+        }
+        editor.apply();
+        pending.clear();
+    }
+}
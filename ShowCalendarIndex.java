@@ -0,0 +1,288 @@
+/*************************************************************************************************
+ * File:   ShowCalendarIndex.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds the show ids for every day that has shows, so the calendar can
+ *          page through months of listings without querying the database for each day.
+ *
+ *          Days are kept in a sorted array of day numbers (FacetIndex.dayBucket), with each
+ *          day's show ids in start time order in its own array, so the days of a month are
+ *          two binary searches and a day's shows are one array lookup. The name, venue name
+ *          and start time of each show are kept in arrays indexed by show id. Shows are
+ *          added as they are inserted, so the index is built only once.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ShowCalendarIndex {
+
+    /** sorted day numbers that have shows, and how many are used **/
+    private int[] days = new int[16];
+    private int dayCount = 0;
+
+    /** each day's show ids in start time order, and how many are used **/
+    private int[][] buckets = new int[16][];
+    private int[] bucketSizes = new int[16];
+
+    /** start time, name and venue name of each show, by show id **/
+    private long[] startMillis = newStartMillis(16);
+    private String[] names = new String[16];
+    private String[] venueNames = new String[16];
+
+    /** one copy of each venue name **/
+    private final Map<String, String> venueNamePool = new HashMap<String, String>();
+
+    /*************************************************************************************************
+     * Description: This function builds the index from every show that has a start time.
+     *
+     * Inputs:
+     *      @param database - database to read the shows from
+     *      @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      ShowCalendarIndex - index of every dated show
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static ShowCalendarIndex build(DBHelper database, CancellationSignal signal) {
+        ShowCalendarIndex index = new ShowCalendarIndex();
+        // cursor of show ids, start times, names and venue names, in start time order
+        Cursor cursor = database.getShowCalendarCursor(signal);
+        try {
+            // if there is a result
+            if (cursor.moveToFirst()) {
+                do {
+                    index.addShow(cursor.getInt(0), cursor.getLong(1), cursor.getString(2), cursor.getString(3));
+                } while (cursor.moveToNext());
+            }
+        } finally {
+            // closes cursor, also if the build was cancelled
+            cursor.close();
+        }
+        return index;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a show to its day. Shows added in start time order are
+     *              appended to the end of the day, others are moved into place.
+     *
+     * Inputs:
+     *      @param showId - id of the show
+     *      @param start - show's start time in milliseconds since the epoch
+     *      @param name - show's name
+     *      @param venueName - name of the show's venue, or null
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized void addShow(int showId, long start, String name, String venueName) {
+        // grows the by-id arrays to fit the id
+        if (showId >= startMillis.length) {
+            int capacity = Math.max(showId + 1, startMillis.length * 2);
+            long[] grown = newStartMillis(capacity);
+            System.arraycopy(startMillis, 0, grown, 0, startMillis.length);
+            startMillis = grown;
+            names = Arrays.copyOf(names, capacity);
+            venueNames = Arrays.copyOf(venueNames, capacity);
+        }
+        startMillis[showId] = start;
+        names[showId] = name;
+        venueNames[showId] = poolVenueName(venueName);
+        int slot = daySlot(FacetIndex.dayBucket(start));
+        int size = bucketSizes[slot];
+        int[] bucket = buckets[slot];
+        if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, size * 2);
+            buckets[slot] = bucket;
+        }
+        // finds the position by start time, from the end since shows usually come in order
+        int position = size;
+        while (position > 0 && startMillis[bucket[position - 1]] > start) {
+            position--;
+        }
+        System.arraycopy(bucket, position, bucket, position + 1, size - position);
+        bucket[position] = showId;
+        bucketSizes[slot] = size + 1;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the days in a range that have shows.
+     *
+     * Inputs:
+     *      @param fromDay - first day of the range
+     *      @param toDay - last day of the range
+     *
+     * Outputs:
+     *      int[] - day numbers with shows, in order
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int[] daysWithShows(int fromDay, int toDay) {
+        int from = lowerBound(fromDay);
+        int to = lowerBound(toDay + 1);
+        return Arrays.copyOfRange(days, from, Math.max(from, to));
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shows on a day.
+     *
+     * Inputs:
+     *      @param day - the day number
+     *
+     * Outputs:
+     *      int[] - show ids in start time order, empty if there are none
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int[] showsOn(int day) {
+        int slot = Arrays.binarySearch(days, 0, dayCount, day);
+        return slot < 0 ? new int[0] : Arrays.copyOf(buckets[slot], bucketSizes[slot]);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a show's start time.
+     *
+     * Inputs:
+     *    @param showId - show's id
+     *
+     * Outputs:
+     *      long - milliseconds since the epoch, or EventResults.NO_TIME if the show isn't in the index
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized long getStartMillis(int showId) {
+        return showId >= 0 && showId < startMillis.length ? startMillis[showId] : EventResults.NO_TIME;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets a show's name.
+     *
+     * Inputs:
+     *    @param showId - show's id
+     *
+     * Outputs:
+     *      String - show's name
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized String getName(int showId) {
+        return names[showId];
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the name of a show's venue.
+     *
+     * Inputs:
+     *    @param showId - show's id
+     *
+     * Outputs:
+     *      String - venue's name, or null if the show has no venue
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized String getVenueName(int showId) {
+        return venueNames[showId];
+    }
+
+    /*************************************************************************************************
+     * Description: This function makes an array of start times with no shows in it yet.
+     *
+     * Inputs:
+     *    @param capacity - length of the array
+     *
+     * Outputs:
+     *      long[] - start times, all EventResults.NO_TIME
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static long[] newStartMillis(int capacity) {
+        long[] starts = new long[capacity];
+        Arrays.fill(starts, EventResults.NO_TIME);
+        return starts;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the slot of a day, adding an empty day in order if it isn't
+     *              there yet.
+     *
+     * Inputs:
+     *    @param day - the day number
+     *
+     * Outputs:
+     *      int - day's slot in the day arrays
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private int daySlot(int day) {
+        int slot = Arrays.binarySearch(days, 0, dayCount, day);
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = -slot - 1;
+        // if the day arrays are full
+        if (dayCount == days.length) {
+            int capacity = dayCount * 2;
+            days = Arrays.copyOf(days, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            bucketSizes = Arrays.copyOf(bucketSizes, capacity);
+        }
+        // moves the later days over by one
+        System.arraycopy(days, slot, days, slot + 1, dayCount - slot);
+        System.arraycopy(buckets, slot, buckets, slot + 1, dayCount - slot);
+        System.arraycopy(bucketSizes, slot, bucketSizes, slot + 1, dayCount - slot);
+        days[slot] = day;
+        buckets[slot] = new int[4];
+        bucketSizes[slot] = 0;
+        dayCount++;
+        return slot;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the slot of the first day on or after a day.
+     *
+     * Inputs:
+     *    @param day - the day number
+     *
+     * Outputs:
+     *      int - slot of the first day with shows on or after it, dayCount if there is none
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private int lowerBound(int day) {
+        int slot = Arrays.binarySearch(days, 0, dayCount, day);
+        return slot >= 0 ? slot : -slot - 1;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the one kept copy of a venue name, so every show at a venue
+     *              shares it.
+     *
+     * Inputs:
+     *    @param venueName - venue's name, or null
+     *
+     * Outputs:
+     *      String - the kept copy, or null
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private String poolVenueName(String venueName) {
+        if (venueName == null) {
+            return null;
+        }
+        String pooled = venueNamePool.get(venueName);
+        if (pooled == null) {
+            venueNamePool.put(venueName, venueName);
+            pooled = venueName;
+        }
+        return pooled;
+    }
+}
@@ -0,0 +1,140 @@
+/*************************************************************************************************
+ * File:   ShowTimes.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class reads the show times typed into the add show form, and formats stored
+ *          show times for display. Show times are stored as milliseconds since the epoch, so
+ *          they can be compared and bucketed by day.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+public final class ShowTimes {
+
+    /** format the add show form expects, such as 12/14/2016 8:00 PM **/
+    public static final String INPUT_PATTERN = "MM/dd/yyyy h:mm a";
+
+    /** formatters for each thread, since SimpleDateFormat can't be shared **/
+    private static final ThreadLocal<SimpleDateFormat> input = makeFormat(INPUT_PATTERN);
+    private static final ThreadLocal<SimpleDateFormat> dateAndTime = makeFormat("EEE, MMM d h:mm a");
+    private static final ThreadLocal<SimpleDateFormat> time = makeFormat("h:mm a");
+    private static final ThreadLocal<SimpleDateFormat> day = makeFormat("EEEE, MMMM d");
+    private static final ThreadLocal<SimpleDateFormat> month = makeFormat("MMMM yyyy");
+
+    private ShowTimes() {
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads a show time typed in INPUT_PATTERN. The whole text has
+     *              to be the time, so text with anything typed after the time is rejected.
+     *
+     * Inputs:
+     *    @param text - the typed time
+     *
+     * Outputs:
+     *      Long - milliseconds since the epoch, or null if the text isn't a valid time
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static Long parse(String text) {
+        String trimmed = text.trim();
+        ParsePosition position = new ParsePosition(0);
+        Date date = input.get().parse(trimmed, position);
+        // if it isn't a time, or there is more text after the time
+        if (date == null || position.getIndex() != trimmed.length()) {
+            return null;
+        }
+        return date.getTime();
+    }
+
+    /*************************************************************************************************
+     * Description: This function formats a show time with its day, such as "Wed, Dec 14 8:00 PM".
+     *
+     * Inputs:
+     *    @param millis - milliseconds since the epoch, or EventResults.NO_TIME
+     *
+     * Outputs:
+     *      String - the formatted time, or "Date to be announced" if there is none
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String formatDateAndTime(long millis) {
+        return millis == EventResults.NO_TIME ? "Date to be announced" : dateAndTime.get().format(new Date(millis));
+    }
+
+    /*************************************************************************************************
+     * Description: This function formats only the time of day, such as "8:00 PM".
+     *
+     * Inputs:
+     *    @param millis - milliseconds since the epoch
+     *
+     * Outputs:
+     *      String - the formatted time
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String formatTime(long millis) {
+        return time.get().format(new Date(millis));
+    }
+
+    /*************************************************************************************************
+     * Description: This function formats only the day, such as "Wednesday, December 14".
+     *
+     * Inputs:
+     *    @param millis - milliseconds since the epoch
+     *
+     * Outputs:
+     *      String - the formatted day
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String formatDay(long millis) {
+        return day.get().format(new Date(millis));
+    }
+
+    /*************************************************************************************************
+     * Description: This function formats only the month, such as "December 2016".
+     *
+     * Inputs:
+     *    @param millis - milliseconds since the epoch
+     *
+     * Outputs:
+     *      String - the formatted month
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static String formatMonth(long millis) {
+        return month.get().format(new Date(millis));
+    }
+
+    /*************************************************************************************************
+     * Description: This function makes a strict formatter for each thread, since SimpleDateFormat
+     *              can't be shared.
+     *
+     * Inputs:
+     *    @param pattern - the date pattern
+     *
+     * Outputs:
+     *      ThreadLocal<SimpleDateFormat> - each thread's formatter
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static ThreadLocal<SimpleDateFormat> makeFormat(final String pattern) {
+        return new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+                format.setLenient(false);
+                return format;
+            }
+        };
+    }
+}
@@ -0,0 +1,797 @@
+/*************************************************************************************************
+ * File:   SpatialIndex.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class is a quadtree of every venue and show location, so the map can draw a
+ *          few hundred cluster markers instead of one marker for every row.
+ *
+ *          Points are stored in Web Mercator coordinates from 0 to 1, the same projection the
+ *          map tiles use, so a node at depth d is exactly one cell of a 2^d by 2^d grid. Every
+ *          node keeps the count and coordinate sums of the points under it, so the clusters
+ *          for a zoom level are read straight from the nodes at that depth without visiting
+ *          the points. Nodes split when they hold more than a few points, and points can be
+ *          added at any time.
+ *
+ *          A venue is one point that carries the number and names of its shows, so a venue
+ *          with many shows is still one marker. Clusters that zooming in can't split, because
+ *          they are at the deepest level or their points are all in one place, are marked as
+ *          stacked and carry the names of their points instead.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SpatialIndex {
+
+    /** kinds of point **/
+    public static final int KIND_VENUE = 0;
+    public static final int KIND_SHOW = 1;
+
+    /** deepest level of the tree, cells about 10 meters wide **/
+    public static final int MAX_DEPTH = 22;
+
+    /** cluster cells per map tile side is 2^CELL_SHIFT, so 4 cells of 64dp across a 256dp tile **/
+    private static final int CELL_SHIFT = 2;
+
+    /** most points a leaf holds before it is split **/
+    private static final int BUCKET_SIZE = 16;
+
+    /** Web Mercator can't show the poles, so latitudes are clamped to this **/
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    /** points, stored by position in parallel arrays **/
+    private int size = 0;
+    private int[] ids = new int[64];
+    private int[] kinds = new int[64];
+    private double[] xs = new double[64];
+    private double[] ys = new double[64];
+    private String[] names = new String[64];
+    private int[] showCounts = new int[64];
+    private String[] details = new String[64];
+
+    /** bounding box of every point, kept as points are added **/
+    private final BoundsAccumulator bounds = new BoundsAccumulator();
+
+    /** position of each venue point, by venue id **/
+    private final Map<Integer, Integer> venuePositions = new HashMap<Integer, Integer>();
+
+    /** root of the tree, covering the whole map **/
+    private final Node root = new Node(0, 0, 0);
+
+    /*************************************************************************************************
+     * Description: This class is one cell of the tree. A leaf holds the positions of its points,
+     *              and every node holds the count and coordinate sums of the points under it.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static class Node {
+
+        final int depth;
+        final int cellX;
+        final int cellY;
+        int count = 0;
+        int venueCount = 0;
+        int showCount = 0;
+        double sumX = 0;
+        double sumY = 0;
+
+        /** children, null while the node is a leaf **/
+        Node[] children = null;
+
+        /** positions of the points in a leaf **/
+        int[] points = new int[4];
+        int pointCount = 0;
+
+        /*************************************************************************************************
+         * Description: This function creates an empty leaf for one cell of the tree.
+         *
+         * Inputs:
+         *    @param depth - depth of the node, 0 for the root
+         *    @param cellX - column of the cell at its depth
+         *    @param cellY - row of the cell at its depth
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        Node(int depth, int cellX, int cellY) {
+            this.depth = depth;
+            this.cellX = cellX;
+            this.cellY = cellY;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This class is one marker's worth of points, either a single venue or show,
+     *              or a cluster of several.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static class Cluster {
+
+        /** stays the same while the same points are drawn, so markers can be reused, even across
+            indexes of different results. Cluster keys include the count for that reason **/
+        public final String key;
+        public final int count;
+        public final int venueCount;
+        public final int showCount;
+        public final double latitude;
+        public final double longitude;
+
+        /** id, kind and name of the point when count is 1 **/
+        public final int id;
+        public final int kind;
+        public final String name;
+
+        /** names of a single venue's shows, or of a stacked cluster's points and their shows,
+            one per line, or null if there are none **/
+        public final String details;
+
+        /** if zooming in won't split the cluster, so its points should be listed instead **/
+        public final boolean stacked;
+
+        /*************************************************************************************************
+         * Description: This function creates a cluster.
+         *
+         * Inputs:
+         *    @param key - cluster's key
+         *    @param count - number of points
+         *    @param venueCount - number of venue points
+         *    @param showCount - number of shows, at venues or on their own
+         *    @param latitude - latitude of the points' center
+         *    @param longitude - longitude of the points' center
+         *    @param id - point's id when count is 1
+         *    @param kind - point's kind when count is 1
+         *    @param name - point's name when count is 1
+         *    @param details - lines listing the shows or points, or null
+         *    @param stacked - true if zooming in won't split the cluster
+         *
+         * Last Modified: 10/19/26
+         *************************************************************************************************/
+        Cluster(String key, int count, int venueCount, int showCount, double latitude, double longitude,
+                int id, int kind, String name, String details, boolean stacked) {
+            this.key = key;
+            this.count = count;
+            this.venueCount = venueCount;
+            this.showCount = showCount;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.id = id;
+            this.kind = kind;
+            this.name = name;
+            this.details = details;
+            this.stacked = stacked;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function builds the index from every venue with a location, each with
+     *              its shows, read in one query ordered by venue and start time.
+     *
+     * Inputs:
+     *    @param database - database to read
+     *    @param signal - cancels the build, or null
+     *
+     * Outputs:
+     *      SpatialIndex - index of every venue
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static SpatialIndex build(DBHelper database, CancellationSignal signal) {
+        SpatialIndex index = new SpatialIndex();
+        Cursor cursor = database.getVenueShowsCursor(signal);
+        try {
+            boolean more = cursor.moveToFirst();
+            // for every venue
+            while (more) {
+                int venueID = cursor.getInt(DBHelper.VENUE_SHOWS_VENUE_ID);
+                String venueName = cursor.getString(DBHelper.VENUE_SHOWS_VENUE_NAME);
+                double latitude = cursor.getDouble(DBHelper.VENUE_SHOWS_LATITUDE);
+                double longitude = cursor.getDouble(DBHelper.VENUE_SHOWS_LONGITUDE);
+                StringBuilder showNames = null;
+                int showCount = 0;
+                // reads the venue's rows, which are next to each other with the shows in start time order
+                do {
+                    // if the row is a show, not a venue without any
+                    if (!cursor.isNull(DBHelper.VENUE_SHOWS_SHOW_ID)) {
+                        showCount++;
+                        String showName = cursor.getString(DBHelper.VENUE_SHOWS_SHOW_NAME);
+                        if (showName != null) {
+                            showNames = showNames == null ? new StringBuilder(showName) : showNames.append('\n').append(showName);
+                        }
+                    }
+                    more = cursor.moveToNext();
+                } while (more && cursor.getInt(DBHelper.VENUE_SHOWS_VENUE_ID) == venueID);
+                index.add(venueID, KIND_VENUE, venueName, showNames == null ? null : showNames.toString(), showCount, latitude, longitude);
+            }
+        } finally {
+            // closes cursor, also if the build was cancelled
+            cursor.close();
+        }
+        return index;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a show to the index as its own point.
+     *
+     * Inputs:
+     *    @param id - show id
+     *    @param name - show name
+     *    @param latitude - show's latitude
+     *    @param longitude - show's longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public void addShow(int id, String name, double latitude, double longitude) {
+        add(id, KIND_SHOW, name, null, 1, latitude, longitude);
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a show to a venue that is already in the index.
+     *
+     * Inputs:
+     *    @param venueID - id of the show's venue
+     *    @param showName - name of the show
+     *
+     * Outputs:
+     *      boolean - false if the venue isn't in the index
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized boolean addShowToVenue(int venueID, String showName) {
+        Integer position = venuePositions.get(venueID);
+        if (position == null) {
+            return false;
+        }
+        showCounts[position]++;
+        details[position] = details[position] == null ? showName : details[position] + "\n" + showName;
+        // adds the show to every node on the venue's way down to its leaf
+        Node node = root;
+        while (true) {
+            node.showCount++;
+            if (node.children == null) {
+                break;
+            }
+            node = node.children[childIndex(node, position)];
+        }
+        return true;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a point to the index.
+     *
+     * Inputs:
+     *    @param id - venue or show id
+     *    @param kind - KIND_VENUE or KIND_SHOW
+     *    @param name - venue or show name
+     *    @param showNames - names of a venue's shows, one per line, or null
+     *    @param showCount - number of shows at a venue, or 1 for a show
+     *    @param latitude - point's latitude
+     *    @param longitude - point's longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized void add(int id, int kind, String name, String showNames, int showCount, double latitude, double longitude) {
+        // grows the point arrays when they are full
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            names = Arrays.copyOf(names, capacity);
+            showCounts = Arrays.copyOf(showCounts, capacity);
+            details = Arrays.copyOf(details, capacity);
+        }
+        int position = size++;
+        ids[position] = id;
+        kinds[position] = kind;
+        names[position] = name;
+        showCounts[position] = showCount;
+        details[position] = showNames;
+        if (kind == KIND_VENUE) {
+            venuePositions.put(id, position);
+        }
+        xs[position] = toX(longitude);
+        ys[position] = toY(latitude);
+        bounds.include(latitude, longitude);
+        // adds the point to every node on its way down to a leaf
+        Node node = root;
+        while (true) {
+            count(node, position);
+            if (node.children == null) {
+                break;
+            }
+            node = node.children[childIndex(node, position)];
+        }
+        addToLeaf(node, position);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of points in the index.
+     *
+     * Outputs:
+     *      int - number of venues and shows
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized int size() {
+        return size;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the bounding box of every point, which is kept up to date
+     *              as points are added.
+     *
+     * Outputs:
+     *      BoundsAccumulator - copy of the bounding box and point count
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized BoundsAccumulator getBounds() {
+        return bounds.copy();
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the cluster level for a map zoom level. Zoom z shows 2^z
+     *              tiles across the world, and each tile is split into a few cluster cells.
+     *
+     * Inputs:
+     *    @param zoom - the map's zoom level
+     *
+     * Outputs:
+     *      int - depth of the tree to cluster at
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static int levelForZoom(float zoom) {
+        return Math.max(0, Math.min(MAX_DEPTH, (int) zoom + CELL_SHIFT));
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the clusters inside a box for a zoom level. If there are
+     *              more than maxClusters, coarser levels are used until there aren't.
+     *
+     * Inputs:
+     *    @param south - southern edge of the box
+     *    @param west - western edge of the box, more than east if the box crosses 180 degrees
+     *    @param north - northern edge of the box
+     *    @param east - eastern edge of the box
+     *    @param zoom - the map's zoom level
+     *    @param maxClusters - most clusters to return
+     *
+     * Outputs:
+     *      List<Cluster> - clusters with at least one point in the box
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public synchronized List<Cluster> clusters(double south, double west, double north, double east,
+                                               float zoom, int maxClusters) {
+        List<Cluster> clusters = new ArrayList<Cluster>();
+        for (int level = levelForZoom(zoom); level >= 0; level--) {
+            clusters.clear();
+            // y grows towards the south in Web Mercator
+            double minY = toY(north);
+            double maxY = toY(south);
+            // if the box crosses 180 degrees, it is two boxes
+            if (west > east) {
+                collect(root, toX(west), minY, 1, maxY, level, clusters);
+                collect(root, 0, minY, toX(east), maxY, level, clusters);
+            } else {
+                collect(root, toX(west), minY, toX(east), maxY, level, clusters);
+            }
+            if (clusters.size() <= maxClusters) {
+                break;
+            }
+        }
+        return clusters;
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds the clusters of a node that are inside a box.
+     *
+     * Inputs:
+     *    @param node - node to look in
+     *    @param minX - western edge of the box
+     *    @param minY - northern edge of the box
+     *    @param maxX - eastern edge of the box
+     *    @param maxY - southern edge of the box
+     *    @param level - depth to cluster at
+     *    @param out - list the clusters are added to
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void collect(Node node, double minX, double minY, double maxX, double maxY, int level, List<Cluster> out) {
+        double cellSize = 1.0 / (1 << node.depth);
+        double cellMinX = node.cellX * cellSize;
+        double cellMinY = node.cellY * cellSize;
+        // if the node is empty or outside the box
+        if (node.count == 0 || cellMinX > maxX || cellMinX + cellSize < minX || cellMinY > maxY || cellMinY + cellSize < minY) {
+            return;
+        }
+        // if the node is one cluster cell
+        if (node.depth == level) {
+            if (node.count == 1) {
+                out.add(pointCluster(firstPoint(node)));
+            } else {
+                // the points of a stacked cluster are all in one leaf
+                Node stackedLeaf = stackedLeaf(node);
+                String members = stackedLeaf == null ? null : memberDetails(stackedLeaf.points, stackedLeaf.pointCount);
+                out.add(new Cluster("c" + level + ":" + node.cellX + ":" + node.cellY + ":" + node.count + ":" + node.showCount,
+                        node.count, node.venueCount, node.showCount, toLatitude(node.sumY / node.count), toLongitude(node.sumX / node.count),
+                        -1, -1, null, members, stackedLeaf != null));
+            }
+            return;
+        }
+        // if the node is a leaf above the cluster level, groups its points into cells
+        if (node.children == null) {
+            collectLeaf(node, minX, minY, maxX, maxY, level, out);
+            return;
+        }
+        for (Node child: node.children) {
+            collect(child, minX, minY, maxX, maxY, level, out);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function groups the points of a leaf into the cells of a deeper level.
+     *
+     * Inputs:
+     *    @param leaf - leaf to group
+     *    @param minX - western edge of the box
+     *    @param minY - northern edge of the box
+     *    @param maxX - eastern edge of the box
+     *    @param maxY - southern edge of the box
+     *    @param level - depth to cluster at
+     *    @param out - list the clusters are added to
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void collectLeaf(Node leaf, double minX, double minY, double maxX, double maxY, int level, List<Cluster> out) {
+        int cells = 1 << level;
+        // positions of the points in each cell, by cell
+        Map<Long, List<Integer>> byCell = new LinkedHashMap<Long, List<Integer>>();
+        for (int i = 0; i < leaf.pointCount; i++) {
+            int position = leaf.points[i];
+            // if the point is outside the box
+            if (xs[position] < minX || xs[position] > maxX || ys[position] < minY || ys[position] > maxY) {
+                continue;
+            }
+            long cell = ((long) cellOf(xs[position], cells) << 32) | cellOf(ys[position], cells);
+            List<Integer> positions = byCell.get(cell);
+            if (positions == null) {
+                positions = new ArrayList<Integer>();
+                byCell.put(cell, positions);
+            }
+            positions.add(position);
+        }
+        for (Map.Entry<Long, List<Integer>> entry: byCell.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            if (positions.size() == 1) {
+                out.add(pointCluster(positions.get(0)));
+                continue;
+            }
+            double sumX = 0;
+            double sumY = 0;
+            int venueCount = 0;
+            int showCount = 0;
+            for (int position: positions) {
+                sumX += xs[position];
+                sumY += ys[position];
+                showCount += showCounts[position];
+                if (kinds[position] == KIND_VENUE) {
+                    venueCount++;
+                }
+            }
+            // if zooming in can't split the points
+            int[] members = toArray(positions);
+            boolean stacked = level == MAX_DEPTH || samePlace(members, members.length);
+            long cell = entry.getKey();
+            out.add(new Cluster("c" + level + ":" + (cell >>> 32) + ":" + (cell & 0xffffffffL) + ":" + positions.size() + ":" + showCount,
+                    positions.size(), venueCount, showCount, toLatitude(sumY / positions.size()), toLongitude(sumX / positions.size()),
+                    -1, -1, null, stacked ? memberDetails(members, members.length) : null, stacked));
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds the leaf holding every point of a cluster node that can't
+     *              be split by zooming in. That is a node at the deepest level, or a node whose
+     *              points are all in one place, which is a chain of single children down to a
+     *              leaf whose points are all the same.
+     *
+     * Inputs:
+     *    @param node - node with more than one point
+     *
+     * Outputs:
+     *      Node - the leaf with all of the node's points, or null if they can be split apart
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private Node stackedLeaf(Node node) {
+        boolean deepest = node.depth == MAX_DEPTH;
+        while (node.children != null) {
+            Node only = null;
+            for (Node child: node.children) {
+                if (child.count > 0) {
+                    // if the points are in more than one child
+                    if (only != null) {
+                        return null;
+                    }
+                    only = child;
+                }
+            }
+            node = only;
+        }
+        return deepest || samePlace(node.points, node.pointCount) ? node : null;
+    }
+
+    /*************************************************************************************************
+     * Description: This function checks if points are all in exactly the same place.
+     *
+     * Inputs:
+     *    @param positions - positions of the points
+     *    @param count - number of positions to check
+     *
+     * Outputs:
+     *      boolean - true if every point has the same coordinates
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private boolean samePlace(int[] positions, int count) {
+        for (int i = 1; i < count; i++) {
+            if (xs[positions[i]] != xs[positions[0]] || ys[positions[i]] != ys[positions[0]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*************************************************************************************************
+     * Description: This function lists the points of a stacked cluster, one name per line with
+     *              each venue's shows indented under it.
+     *
+     * Inputs:
+     *    @param positions - positions of the points
+     *    @param count - number of positions to list
+     *
+     * Outputs:
+     *      String - names of the points and their shows, one per line
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private String memberDetails(int[] positions, int count) {
+        StringBuilder members = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int position = positions[i];
+            if (members.length() > 0) {
+                members.append("\n");
+            }
+            members.append(names[position]);
+            if (details[position] != null) {
+                members.append("\n  ").append(details[position].replace("\n", "\n  "));
+            }
+        }
+        return members.toString();
+    }
+
+    /*************************************************************************************************
+     * Description: This function copies a list of positions into an array.
+     *
+     * Inputs:
+     *    @param positions - list of positions
+     *
+     * Outputs:
+     *      int[] - the same positions
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int[] toArray(List<Integer> positions) {
+        int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = positions.get(i);
+        }
+        return array;
+    }
+
+    /*************************************************************************************************
+     * Description: This function creates the cluster for a single point, keyed by its show count so
+     *              its marker is redrawn when that changes.
+     *
+     * Inputs:
+     *    @param position - point's position
+     *
+     * Outputs:
+     *      Cluster - cluster of the one point
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private Cluster pointCluster(int position) {
+        return new Cluster("p" + kinds[position] + ":" + ids[position] + ":" + showCounts[position], 1,
+                kinds[position] == KIND_VENUE ? 1 : 0, showCounts[position], toLatitude(ys[position]), toLongitude(xs[position]),
+                ids[position], kinds[position], names[position], details[position], false);
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds the position of any point under a node, by going down the
+     *              first child that has points.
+     *
+     * Inputs:
+     *    @param node - a node with at least one point
+     *
+     * Outputs:
+     *      int - position of a point under the node
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int firstPoint(Node node) {
+        while (node.children != null) {
+            for (Node child: node.children) {
+                if (child.count > 0) {
+                    node = child;
+                    break;
+                }
+            }
+        }
+        return node.points[0];
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a point to a node's counts and coordinate sums.
+     *
+     * Inputs:
+     *    @param node - the node the point is under
+     *    @param position - point's position
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void count(Node node, int position) {
+        node.count++;
+        node.sumX += xs[position];
+        node.sumY += ys[position];
+        node.showCount += showCounts[position];
+        if (kinds[position] == KIND_VENUE) {
+            node.venueCount++;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function adds a point to a leaf, splitting the leaf into four children if
+     *              it holds too many points and isn't at the deepest level.
+     *
+     * Inputs:
+     *    @param leaf - the leaf the point falls in
+     *    @param position - point's position
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private void addToLeaf(Node leaf, int position) {
+        if (leaf.pointCount == leaf.points.length) {
+            leaf.points = Arrays.copyOf(leaf.points, leaf.pointCount * 2);
+        }
+        leaf.points[leaf.pointCount++] = position;
+        // if the leaf is full and can still be split
+        if (leaf.pointCount > BUCKET_SIZE && leaf.depth < MAX_DEPTH) {
+            leaf.children = new Node[4];
+            for (int i = 0; i < 4; i++) {
+                leaf.children[i] = new Node(leaf.depth + 1, leaf.cellX * 2 + (i & 1), leaf.cellY * 2 + (i >> 1));
+            }
+            // moves the points down into the children
+            for (int i = 0; i < leaf.pointCount; i++) {
+                Node child = leaf.children[childIndex(leaf, leaf.points[i])];
+                count(child, leaf.points[i]);
+                addToLeaf(child, leaf.points[i]);
+            }
+            leaf.points = null;
+            leaf.pointCount = 0;
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets which child of a node a point falls in.
+     *
+     * Inputs:
+     *    @param node - the node being split
+     *    @param position - point's position
+     *
+     * Outputs:
+     *      int - index of the child, with bit 0 for east and bit 1 for south
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private int childIndex(Node node, int position) {
+        int cells = 1 << (node.depth + 1);
+        int right = cellOf(xs[position], cells) & 1;
+        int below = cellOf(ys[position], cells) & 1;
+        return right | (below << 1);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the cell a coordinate falls in, for a grid of cells across
+     *              the map.
+     *
+     * Inputs:
+     *    @param coordinate - x or y coordinate from 0 to 1
+     *    @param cells - cells across the grid
+     *
+     * Outputs:
+     *      int - column or row of the cell
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static int cellOf(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts a longitude to a Web Mercator x coordinate, which goes
+     *              from 0 to 1 west to east.
+     *
+     * Inputs:
+     *    @param longitude - the longitude
+     *
+     * Outputs:
+     *      double - x coordinate, clamped to the map
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static double toX(double longitude) {
+        return Math.max(0, Math.min(1, (longitude + 180) / 360));
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts a latitude to a Web Mercator y coordinate, which goes
+     *              from 0 to 1 north to south.
+     *
+     * Inputs:
+     *    @param latitude - the latitude
+     *
+     * Outputs:
+     *      double - y coordinate, with latitudes clamped to what the map can show
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static double toY(double latitude) {
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        return 0.5 - Math.log(Math.tan(Math.PI / 4 + radians / 2)) / (2 * Math.PI);
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts a Web Mercator x coordinate back to a longitude.
+     *
+     * Inputs:
+     *    @param x - x coordinate from 0 to 1
+     *
+     * Outputs:
+     *      double - the longitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static double toLongitude(double x) {
+        return x * 360 - 180;
+    }
+
+    /*************************************************************************************************
+     * Description: This function converts a Web Mercator y coordinate back to a latitude.
+     *
+     * Inputs:
+     *    @param y - y coordinate from 0 to 1
+     *
+     * Outputs:
+     *      double - the latitude
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static double toLatitude(double y) {
+        return Math.toDegrees(2 * Math.atan(Math.exp((0.5 - y) * 2 * Math.PI)) - Math.PI / 2);
+    }
+}
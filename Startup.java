@@ -0,0 +1,138 @@
+/*************************************************************************************************
+ * File:   Startup.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds the app-wide objects that are slow to set up, and creates each
+ *          one the first time it is needed, so the first screen is drawn without reading the
+ *          disk. The database helper is shared by every screen, and is only opened by the
+ *          first query. Settings are loaded in the background for screens that only need
+ *          them after they are shown.
+ *
+ *          Every setup step is wrapped in a trace section, so startup shows up as named
+ *          blocks in systrace or the profiler and regressions can be measured.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public final class Startup {
+
+    /** loads objects in the background, one at a time **/
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Startup");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /** runs callbacks on the main thread **/
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** the shared database helper **/
+    private static DBHelper database = null;
+
+    private Startup() {
+    }
+
+    /*************************************************************************************************
+     * Description: This interface gets an object once it has been loaded in the background. It is
+     *              called on the main thread.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public interface OnReadyListener<T> {
+        void onReady(T value);
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shared database helper. Creating it doesn't touch the
+     *              disk, so it is safe to call from onCreate.
+     *
+     * Inputs:
+     *    @param context - any context
+     *
+     * Outputs:
+     *      DBHelper - the shared database helper
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized DBHelper getDatabase(Context context) {
+        if (database == null) {
+            database = new DBHelper(context.getApplicationContext());
+        }
+        return database;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the settings, reading the preferences file in the
+     *              background if they haven't been loaded yet.
+     *
+     * Inputs:
+     *    @param context - any context
+     *    @param listener - gets the settings on the main thread
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static void loadSettings(Context context, final OnReadyListener<SettingsStore> listener) {
+        final Context appContext = context.getApplicationContext();
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                beginSection("SettingsStore.load");
+                final SettingsStore settings;
+                try {
+                    settings = SettingsStore.getInstance(appContext);
+                } finally {
+                    endSection();
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onReady(settings);
+                    }
+                });
+            }
+        });
+    }
+
+    /*************************************************************************************************
+     * Description: This function starts a named trace section on the current thread. Every call
+     *              must be matched by endSection on the same thread.
+     *
+     * Inputs:
+     *    @param name - name of the setup step
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static void beginSection(String name) {
+        // trace sections were added in API 18
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(name);
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function ends the last trace section started on the current thread.
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static void endSection() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*************************************************************************************************
+ * File:   ZipCodeIndex.java
+ * Author: Joe Menduni
+ *
+ * Created on October 19, 2026
+ * Last Modified on October 19, 2026
+ *
+ * Purpose: This class holds an offline table of ZIP code centroids, so that a ZIP code can be
+ *          turned into a latitude and longitude without calling the Geocoder.
+ *
+ *          The table is bundled as the asset "zip_centroids.bin", which is a big-endian int
+ *          count followed by that many (int zip, float latitude, float longitude) records
+ *          sorted by ZIP code. It is read once, the first time a lookup is made.
+ ************************************************************************************************/
+
+package com.joemenduni.musicmaps;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class ZipCodeIndex {
+
+    private static final String TAG = "ZipCodeIndex";
+
+    /** name of the bundled asset **/
+    private static final String ASSET_NAME = "zip_centroids.bin";
+
+    /** shared instance, loaded lazily **/
+    private static ZipCodeIndex instance = null;
+
+    /** sorted zip codes, with the centroid for zips[i] at latitudes[i] and longitudes[i] **/
+    private final int[] zips;
+    private final float[] latitudes;
+    private final float[] longitudes;
+
+    /*************************************************************************************************
+     * Description: This function creates the index from already sorted arrays.
+     *
+     * Inputs:
+     *    @param zips - sorted zip codes
+     *    @param latitudes - latitude of each zip code's centroid
+     *    @param longitudes - longitude of each zip code's centroid
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    ZipCodeIndex(int[] zips, float[] latitudes, float[] longitudes) {
+        this.zips = zips;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the shared index, reading the bundled asset the first time
+     *              it is called. If the asset can't be read, an empty index is used so that
+     *              lookups simply miss.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      ZipCodeIndex - the shared index
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public static synchronized ZipCodeIndex getInstance(Context context) {
+        // if the index hasn't been loaded yet
+        if (instance == null) {
+            Startup.beginSection("ZipCodeIndex.load");
+            try {
+                instance = load(context.getApplicationContext());
+            } finally {
+                Startup.endSection();
+            }
+        }
+        return instance;
+    }
+
+    /*************************************************************************************************
+     * Description: This function reads the centroid table from the bundled asset.
+     *
+     * Inputs:
+     *    @param context - application context
+     *
+     * Outputs:
+     *      ZipCodeIndex - index of the records read from the asset
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    private static ZipCodeIndex load(Context context) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(context.getAssets().open(ASSET_NAME)));
+            // number of records in the file
+            int count = in.readInt();
+            int[] zips = new int[count];
+            float[] latitudes = new float[count];
+            float[] longitudes = new float[count];
+            // reads every record
+            for (int i = 0; i < count; i++) {
+                zips[i] = in.readInt();
+                latitudes[i] = in.readFloat();
+                longitudes[i] = in.readFloat();
+            }
+            return new ZipCodeIndex(zips, latitudes, longitudes);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read " + ASSET_NAME, e);
+            return new ZipCodeIndex(new int[0], new float[0], new float[0]);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Unable to close " + ASSET_NAME, e);
+                }
+            }
+        }
+    }
+
+    /*************************************************************************************************
+     * Description: This function finds the centroid of a zip code with a binary search.
+     *
+     * Inputs:
+     *    @param zipCode - the zip code to find
+     *
+     * Outputs:
+     *      double[] - index 0 is latitude, index 1 is longitude, or null if the zip isn't known
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public double[] lookup(int zipCode) {
+        // position of the zip code in the sorted array
+        int index = Arrays.binarySearch(zips, zipCode);
+        // if the zip code isn't in the table
+        if (index < 0) {
+            return null;
+        }
+        return new double[]{latitudes[index], longitudes[index]};
+    }
+
+    /*************************************************************************************************
+     * Description: This function gets the number of zip codes in the index.
+     *
+     * Outputs:
+     *      int - number of zip codes
+     *
+     * Last Modified: 10/19/26
+     *************************************************************************************************/
+    public int size() {
+        return zips.length;
+    }
+}